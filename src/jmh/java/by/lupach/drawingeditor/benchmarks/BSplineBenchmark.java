@@ -0,0 +1,45 @@
+package by.lupach.drawingeditor.benchmarks;
+
+import by.lupach.drawingeditor.models.Pixel;
+import by.lupach.drawingeditor.models.raster.PixelBuffer;
+import by.lupach.drawingeditor.services.CurveInterpolationAndApproximation;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Кубический B-сплайн: controlPoints управляющих точек на ширине 1000 пикселей.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BSplineBenchmark {
+    @Param({"4", "16", "64"})
+    public int controlPoints;
+
+    private final CurveInterpolationAndApproximation interpolationService = new CurveInterpolationAndApproximation();
+    private PixelBuffer pixels;
+    private List<Pixel> points;
+
+    @Setup
+    public void setUp() {
+        pixels = PixelBuffer.acquire();
+        points = BenchmarkInputs.controlPoints(controlPoints, 1000);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pixels.close();
+    }
+
+    @Benchmark
+    public int bSpline() {
+        pixels.clear();
+        interpolationService.generateBSplineCurve(points, pixels);
+        return pixels.size();
+    }
+}
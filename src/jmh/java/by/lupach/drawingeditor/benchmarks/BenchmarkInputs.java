@@ -0,0 +1,64 @@
+package by.lupach.drawingeditor.benchmarks;
+
+import by.lupach.drawingeditor.models.Pixel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static by.lupach.drawingeditor.configs.ScreenConstants.SCREEN_HEIGHT;
+import static by.lupach.drawingeditor.configs.ScreenConstants.SCREEN_WIDTH;
+
+/**
+ * Детерминированные входные данные бенчмарков: одинаковые от запуска к запуску,
+ * чтобы результаты разных версий можно было сравнивать.
+ */
+final class BenchmarkInputs {
+    static final long SEED = 42;
+    static final int CENTER_X = SCREEN_WIDTH / 2;
+    static final int CENTER_Y = SCREEN_HEIGHT / 2;
+
+    private BenchmarkInputs() {
+    }
+
+    /**
+     * Случайные точки внутри экрана.
+     */
+    static List<Pixel> randomPoints(int count) {
+        Random random = new Random(SEED);
+        List<Pixel> points = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            points.add(new Pixel(random.nextInt(SCREEN_WIDTH), random.nextInt(SCREEN_HEIGHT)));
+        }
+        return points;
+    }
+
+    /**
+     * Простой (звёздный относительно центра) невыпуклый многоугольник:
+     * вершины идут по углу, расстояние до центра случайно в [radius / 2, radius].
+     */
+    static List<Pixel> starPolygon(int vertices, int radius) {
+        Random random = new Random(SEED);
+        List<Pixel> polygon = new ArrayList<>(vertices);
+        for (int i = 0; i < vertices; i++) {
+            double angle = 2 * Math.PI * i / vertices;
+            double r = radius * (0.5 + 0.5 * random.nextDouble());
+            polygon.add(new Pixel(CENTER_X + (int) Math.round(r * Math.cos(angle)),
+                    CENTER_Y + (int) Math.round(r * Math.sin(angle))));
+        }
+        return polygon;
+    }
+
+    /**
+     * Управляющие точки зигзагом по ширине span с центром в центре экрана.
+     */
+    static List<Pixel> controlPoints(int count, int span) {
+        List<Pixel> points = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int x = CENTER_X - span / 2 + span * i / Math.max(1, count - 1);
+            int y = CENTER_Y + (i % 2 == 0 ? -span / 4 : span / 4);
+            points.add(new Pixel(x, y));
+        }
+        return points;
+    }
+}
@@ -0,0 +1,45 @@
+package by.lupach.drawingeditor.benchmarks;
+
+import by.lupach.drawingeditor.models.Pixel;
+import by.lupach.drawingeditor.services.PolygonService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Выпуклые оболочки случайного множества точек экрана.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConvexHullBenchmark {
+    @Param({"100", "10000", "100000", "1000000"})
+    public int points;
+
+    private final PolygonService polygonService = new PolygonService();
+    private List<Pixel> input;
+
+    @Setup
+    public void setUp() {
+        input = BenchmarkInputs.randomPoints(points);
+    }
+
+    @Benchmark
+    public List<Pixel> graham() {
+        return polygonService.convexHullGraham(input);
+    }
+
+    @Benchmark
+    public List<Pixel> jarvis() {
+        return polygonService.convexHullJarvis(input);
+    }
+
+    @Benchmark
+    public List<Pixel> adaptive() {
+        return polygonService.convexHull(input);
+    }
+}
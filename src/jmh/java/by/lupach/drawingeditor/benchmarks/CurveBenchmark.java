@@ -0,0 +1,66 @@
+package by.lupach.drawingeditor.benchmarks;
+
+import by.lupach.drawingeditor.models.raster.PixelBuffer;
+import by.lupach.drawingeditor.services.CurveDrawingService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+import static by.lupach.drawingeditor.benchmarks.BenchmarkInputs.CENTER_X;
+import static by.lupach.drawingeditor.benchmarks.BenchmarkInputs.CENTER_Y;
+
+/**
+ * Кривые второго порядка. radius — радиус окружности и большая полуось эллипса и гиперболы,
+ * для параболы коэффициент подбирается так, чтобы ветвь имела ширину порядка radius.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CurveBenchmark {
+    @Param({"16", "128", "512"})
+    public int radius;
+
+    private final CurveDrawingService curveDrawingService = new CurveDrawingService();
+    private PixelBuffer pixels;
+
+    @Setup
+    public void setUp() {
+        pixels = PixelBuffer.acquire();
+    }
+
+    @TearDown
+    public void tearDown() {
+        pixels.close();
+    }
+
+    @Benchmark
+    public int circle() {
+        pixels.clear();
+        curveDrawingService.generateCircle(CENTER_X, CENTER_Y, radius, pixels);
+        return pixels.size();
+    }
+
+    @Benchmark
+    public int ellipse() {
+        pixels.clear();
+        curveDrawingService.generateEllipse(CENTER_X, CENTER_Y, radius, radius / 2.0, pixels);
+        return pixels.size();
+    }
+
+    @Benchmark
+    public int parabola() {
+        pixels.clear();
+        curveDrawingService.generateParabola(CENTER_X, CENTER_Y, 720.0 / ((double) radius * radius), pixels);
+        return pixels.size();
+    }
+
+    @Benchmark
+    public int hyperbola() {
+        pixels.clear();
+        curveDrawingService.generateHyperbola(CENTER_X, CENTER_Y, radius, radius / 2.0, pixels);
+        return pixels.size();
+    }
+}
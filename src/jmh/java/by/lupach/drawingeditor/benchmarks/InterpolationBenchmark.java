@@ -0,0 +1,53 @@
+package by.lupach.drawingeditor.benchmarks;
+
+import by.lupach.drawingeditor.models.Pixel;
+import by.lupach.drawingeditor.models.raster.PixelBuffer;
+import by.lupach.drawingeditor.services.CurveInterpolationAndApproximation;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Кривые Эрмита и Безье по четырём точкам; span — ширина управляющей ломаной,
+ * от неё зависит число вычисляемых точек кривой.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InterpolationBenchmark {
+    @Param({"64", "512", "1024"})
+    public int span;
+
+    private final CurveInterpolationAndApproximation interpolationService = new CurveInterpolationAndApproximation();
+    private PixelBuffer pixels;
+    private List<Pixel> points;
+
+    @Setup
+    public void setUp() {
+        pixels = PixelBuffer.acquire();
+        points = BenchmarkInputs.controlPoints(4, span);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pixels.close();
+    }
+
+    @Benchmark
+    public int hermite() {
+        pixels.clear();
+        interpolationService.generateHermiteCurve(points, pixels);
+        return pixels.size();
+    }
+
+    @Benchmark
+    public int bezier() {
+        pixels.clear();
+        interpolationService.generateBezierCurve(points, pixels);
+        return pixels.size();
+    }
+}
@@ -0,0 +1,64 @@
+package by.lupach.drawingeditor.benchmarks;
+
+import by.lupach.drawingeditor.models.ArgbColor;
+import by.lupach.drawingeditor.models.raster.PixelBuffer;
+import by.lupach.drawingeditor.services.LineDrawingService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+import static by.lupach.drawingeditor.benchmarks.BenchmarkInputs.CENTER_X;
+import static by.lupach.drawingeditor.benchmarks.BenchmarkInputs.CENTER_Y;
+
+/**
+ * Отрезки длины length под углом ~30° (основная ось X, Y меняется не на каждом шаге).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LineBenchmark {
+    @Param({"16", "256", "4096"})
+    public int length;
+
+    private final LineDrawingService lineDrawingService = new LineDrawingService();
+    private PixelBuffer pixels;
+    private int x1, y1, x2, y2;
+
+    @Setup
+    public void setUp() {
+        pixels = PixelBuffer.acquire();
+        x1 = CENTER_X - length / 2;
+        y1 = CENTER_Y - length / 4;
+        x2 = x1 + length;
+        y2 = y1 + length / 2;
+    }
+
+    @TearDown
+    public void tearDown() {
+        pixels.close();
+    }
+
+    @Benchmark
+    public int dda() {
+        pixels.clear();
+        lineDrawingService.generateDDALine(x1, y1, x2, y2, ArgbColor.BLACK, pixels);
+        return pixels.size();
+    }
+
+    @Benchmark
+    public int bresenham() {
+        pixels.clear();
+        lineDrawingService.generateBresenhamLine(x1, y1, x2, y2, ArgbColor.BLACK, pixels);
+        return pixels.size();
+    }
+
+    @Benchmark
+    public int wu() {
+        pixels.clear();
+        lineDrawingService.generateWuLine(x1, y1, x2, y2, ArgbColor.BLACK, pixels);
+        return pixels.size();
+    }
+}
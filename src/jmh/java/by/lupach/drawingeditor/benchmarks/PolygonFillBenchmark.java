@@ -0,0 +1,77 @@
+package by.lupach.drawingeditor.benchmarks;
+
+import by.lupach.drawingeditor.models.ArgbColor;
+import by.lupach.drawingeditor.models.Pixel;
+import by.lupach.drawingeditor.models.polygons.BandedScanlineFill;
+import by.lupach.drawingeditor.models.polygons.EdgeTable;
+import by.lupach.drawingeditor.models.polygons.Span;
+import by.lupach.drawingeditor.models.raster.FrameBuffer;
+import by.lupach.drawingeditor.models.raster.PixelBuffer;
+import by.lupach.drawingeditor.services.PolygonService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import static by.lupach.drawingeditor.benchmarks.BenchmarkInputs.CENTER_X;
+import static by.lupach.drawingeditor.benchmarks.BenchmarkInputs.CENTER_Y;
+import static by.lupach.drawingeditor.configs.ScreenConstants.SCREEN_HEIGHT;
+import static by.lupach.drawingeditor.configs.ScreenConstants.SCREEN_WIDTH;
+
+/**
+ * Заливки PolygonService для звёздного многоугольника радиуса radius с vertices вершинами.
+ * Заливки с затравкой работают по пустому холсту и ограничиваются самим многоугольником.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PolygonFillBenchmark {
+    @Param({"8", "64", "512"})
+    public int vertices;
+
+    @Param({"50", "300"})
+    public int radius;
+
+    private final PolygonService polygonService = new PolygonService();
+    private final FrameBuffer canvas = new FrameBuffer(SCREEN_WIDTH, SCREEN_HEIGHT);
+    private final Pixel seed = new Pixel(CENTER_X, CENTER_Y);
+    private List<Pixel> polygon;
+
+    @Setup
+    public void setUp() {
+        polygon = BenchmarkInputs.starPolygon(vertices, radius);
+    }
+
+    @Benchmark
+    public List<Span> scanline() {
+        return polygonService.scanlineFillSpans(polygon);
+    }
+
+    // Параллельная заливка по полосам строк, включая построение таблицы рёбер
+    @Benchmark
+    public List<Span> bandedScanline() {
+        return new BandedScanlineFill(ForkJoinPool.commonPool()).fill(new EdgeTable(polygon), ArgbColor.BLACK);
+    }
+
+    @Benchmark
+    public List<Span> activeEdge() {
+        return polygonService.activeEdgeFillSpans(polygon);
+    }
+
+    @Benchmark
+    public int floodFill() {
+        try (PixelBuffer pixels = PixelBuffer.acquire()) {
+            polygonService.floodFill(seed, polygon, ArgbColor.BLACK, canvas, pixels);
+            return pixels.size();
+        }
+    }
+
+    @Benchmark
+    public List<Span> scanlineFloodFill() {
+        return polygonService.scanlineFloodFillSpans(seed, polygon, ArgbColor.BLACK, canvas);
+    }
+}
@@ -0,0 +1,94 @@
+package by.lupach.drawingeditor.benchmarks;
+
+import by.lupach.drawingeditor.models.Pixel;
+import by.lupach.drawingeditor.models.polygons.IndexedPolygon;
+import by.lupach.drawingeditor.services.PolygonService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Проверки точек и отрезков для одного многоугольника: полный обход рёбер на каждый запрос
+ * против многоугольника реестра с предвычисленными индексами, а также пакет из QUERIES запросов.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PolygonQueryBenchmark {
+    private static final int QUERIES = 1024;
+
+    @Param({"100", "10000"})
+    public int vertices;
+
+    private final PolygonService polygonService = new PolygonService();
+    private List<Pixel> polygon;
+    private IndexedPolygon indexed;
+    private List<Pixel> points;
+    private int[] pointCoordinates;
+    private int[] segmentCoordinates;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        polygon = BenchmarkInputs.starPolygon(vertices, 300);
+        indexed = new IndexedPolygon(polygon, polygonService.isConvex(polygon), polygonService.convexHull(polygon));
+        points = BenchmarkInputs.randomPoints(QUERIES + 1);
+        pointCoordinates = new int[2 * QUERIES];
+        segmentCoordinates = new int[4 * QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            pointCoordinates[2 * i] = points.get(i).getX();
+            pointCoordinates[2 * i + 1] = points.get(i).getY();
+            segmentCoordinates[4 * i] = points.get(i).getX();
+            segmentCoordinates[4 * i + 1] = points.get(i).getY();
+            segmentCoordinates[4 * i + 2] = points.get(i + 1).getX();
+            segmentCoordinates[4 * i + 3] = points.get(i + 1).getY();
+        }
+    }
+
+    @Benchmark
+    public boolean pointInside() {
+        return polygonService.isPointInsidePolygon(nextPoint(), polygon);
+    }
+
+    @Benchmark
+    public boolean pointInsideIndexed() {
+        return polygonService.isPointInsidePolygon(nextPoint(), indexed);
+    }
+
+    @Benchmark
+    public boolean segmentIntersects() {
+        int i = nextIndex();
+        return polygonService.segmentIntersectsPolygon(points.get(i), points.get(i + 1), polygon);
+    }
+
+    @Benchmark
+    public boolean segmentIntersectsIndexed() {
+        int i = nextIndex();
+        return polygonService.segmentIntersectsPolygon(points.get(i), points.get(i + 1), indexed);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public byte[] pointsInsideBatch() {
+        return polygonService.pointsInsidePolygon(pointCoordinates, indexed);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public byte[] segmentsIntersectBatch() {
+        return polygonService.segmentsIntersectPolygon(segmentCoordinates, indexed);
+    }
+
+    private Pixel nextPoint() {
+        return points.get(nextIndex());
+    }
+
+    private int nextIndex() {
+        next = (next + 1) % QUERIES;
+        return next;
+    }
+}
@@ -0,0 +1,73 @@
+package by.lupach.drawingeditor.benchmarks;
+
+import by.lupach.drawingeditor.models.threeD.MeshUploadRequest;
+import by.lupach.drawingeditor.models.threeD.TransformationRequest;
+import by.lupach.drawingeditor.models.threeD.TransformationResponse;
+import by.lupach.drawingeditor.services.LineDrawingService;
+import by.lupach.drawingeditor.services.ThreeDSceneService;
+import by.lupach.drawingeditor.services.ThreeDTransformationService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Поворот загруженной каркасной UV-сферы из vertices вершин (рёбра — параллели и меридианы) тем же путём,
+ * что и сообщение /app/transform3D: домножение накопленной матрицы и растеризация рёбер.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ThreeDTransformationBenchmark {
+    @Param({"64", "1024", "16384"})
+    public int vertices;
+
+    private static final String SESSION_ID = "benchmark";
+
+    private ThreeDSceneService sceneService;
+    private TransformationRequest request;
+
+    @Setup
+    public void setUp() {
+        ThreeDTransformationService transformationService = new ThreeDTransformationService();
+        ReflectionTestUtils.setField(transformationService, "lineDrawingService", new LineDrawingService());
+        sceneService = new ThreeDSceneService();
+        ReflectionTestUtils.setField(sceneService, "transformationService", transformationService);
+
+        int rings = (int) Math.sqrt(vertices);
+        int segments = vertices / rings;
+        double[][] sphere = new double[rings * segments][];
+        int[][] edges = new int[rings * segments * 2 - segments][];
+        int edge = 0;
+        for (int ring = 0; ring < rings; ring++) {
+            double theta = Math.PI * (ring + 0.5) / rings;
+            for (int segment = 0; segment < segments; segment++) {
+                double phi = 2 * Math.PI * segment / segments;
+                int index = ring * segments + segment;
+                sphere[index] = new double[]{
+                        Math.sin(theta) * Math.cos(phi), Math.cos(theta), Math.sin(theta) * Math.sin(phi), 1};
+                edges[edge++] = new int[]{index, ring * segments + (segment + 1) % segments};
+                if (ring > 0) {
+                    edges[edge++] = new int[]{index, index - segments};
+                }
+            }
+        }
+
+        MeshUploadRequest upload = new MeshUploadRequest();
+        upload.setVertices(sphere);
+        upload.setEdges(edges);
+
+        request = new TransformationRequest();
+        request.setTransformationType("rotationY");
+        request.setAngle(0.01);
+        request.setMeshId(sceneService.upload(SESSION_ID, upload).getMeshId());
+    }
+
+    @Benchmark
+    public TransformationResponse rotation() {
+        return sceneService.render(sceneService.accumulate(SESSION_ID, request), false);
+    }
+}
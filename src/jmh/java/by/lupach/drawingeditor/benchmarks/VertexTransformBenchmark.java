@@ -0,0 +1,55 @@
+package by.lupach.drawingeditor.benchmarks;
+
+import by.lupach.drawingeditor.models.threeD.Matrix4f;
+import by.lupach.drawingeditor.models.threeD.VertexArrays;
+import by.lupach.drawingeditor.models.threeD.VertexTransform;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Пакетное преобразование вершин с перспективным делением без растеризации.
+ * Векторный вариант включается профилем vector: mvn -Pjmh,vector test-compile exec:exec -Djmh.args=VertexTransformBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class VertexTransformBenchmark {
+    @Param({"16384", "262144", "1048576"})
+    public int vertices;
+
+    private double[] matrix;
+    private VertexArrays in;
+    private VertexArrays out;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        in = new VertexArrays(vertices);
+        out = new VertexArrays(vertices);
+        for (int i = 0; i < vertices; i++) {
+            in.getX()[i] = random.nextDouble(-1, 1);
+            in.getY()[i] = random.nextDouble(-1, 1);
+            in.getZ()[i] = random.nextDouble(-1, 1);
+            in.getW()[i] = 1;
+        }
+        matrix = Matrix4f.multiply(Matrix4f.perspective(5), Matrix4f.rotationY(30));
+    }
+
+    @Benchmark
+    public VertexArrays sequential() {
+        VertexTransform.transform(matrix, in, out, 0, vertices);
+        return out;
+    }
+
+    @Benchmark
+    public VertexArrays parallel() {
+        VertexTransform.transform(matrix, in, out, ForkJoinPool.commonPool(), 0);
+        return out;
+    }
+}
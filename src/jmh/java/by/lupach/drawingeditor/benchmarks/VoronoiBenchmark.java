@@ -0,0 +1,63 @@
+package by.lupach.drawingeditor.benchmarks;
+
+import by.lupach.drawingeditor.models.Pixel;
+import by.lupach.drawingeditor.models.voronoi.DivideAndConquerDelaunay;
+import by.lupach.drawingeditor.models.voronoi.FortuneVoronoi;
+import by.lupach.drawingeditor.models.voronoi.LineSegment;
+import by.lupach.drawingeditor.models.voronoi.Rectangle;
+import by.lupach.drawingeditor.models.voronoi.Triangle;
+import by.lupach.drawingeditor.models.voronoi.Triangulation;
+import by.lupach.drawingeditor.models.voronoi.VoronoiDiagram;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import static by.lupach.drawingeditor.configs.ScreenConstants.SCREEN_HEIGHT;
+import static by.lupach.drawingeditor.configs.ScreenConstants.SCREEN_WIDTH;
+
+/**
+ * Триангуляция Делоне (инкрементальная и параллельная "разделяй и властвуй") и построение по ней
+ * рёбер диаграммы Вороного для sites случайных точек, а также построение рёбер напрямую алгоритмом Форчуна.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class VoronoiBenchmark {
+    @Param({"100", "1000", "4000", "200000"})
+    public int sites;
+
+    private final Rectangle boundingBox = new Rectangle(0, 0, SCREEN_WIDTH, SCREEN_HEIGHT);
+    private List<Pixel> points;
+    private List<Triangle> triangles;
+
+    @Setup
+    public void setUp() {
+        points = BenchmarkInputs.randomPoints(sites);
+        triangles = new Triangulation(points).getTriangles();
+    }
+
+    @Benchmark
+    public List<Triangle> triangulation() {
+        return new Triangulation(points).getTriangles();
+    }
+
+    @Benchmark
+    public List<Triangle> divideAndConquer() {
+        return new DivideAndConquerDelaunay(ForkJoinPool.commonPool()).triangulate(points);
+    }
+
+    @Benchmark
+    public List<LineSegment> voronoiEdges() {
+        return new VoronoiDiagram().getVoronoiEdges(triangles, boundingBox);
+    }
+
+    @Benchmark
+    public List<LineSegment> fortune() {
+        return new FortuneVoronoi().getVoronoiEdges(points, boundingBox);
+    }
+}
@@ -0,0 +1,77 @@
+package by.lupach.drawingeditor.configs;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Исполнители входящего (сообщения клиентов к @MessageMapping) и исходящего (кадры клиентам) каналов STOMP.
+ *
+ * По умолчанию это пулы платформенных потоков фиксированного размера с ограниченной очередью: при переполнении
+ * сообщение отклоняется, а не копится в памяти. На Java 21 входящий канал может работать на виртуальных
+ * потоках (drawing.websocket.inbound.virtual-threads=true, профиль java21): тогда тяжёлый обработчик
+ * не занимает поток пула, и ограничения очереди нет. Виртуальные потоки ищутся через отражение,
+ * чтобы сборка оставалась совместимой с Java 17; если их нет, используется пул.
+ */
+@Component
+public class ChannelExecutors implements DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(ChannelExecutors.class);
+
+    private final InstrumentedExecutor inbound;
+    private final InstrumentedExecutor outbound;
+
+    public ChannelExecutors(@Value("${drawing.websocket.inbound.virtual-threads:false}") boolean inboundVirtualThreads,
+                            @Value("${drawing.websocket.inbound.pool-size:8}") int inboundPoolSize,
+                            @Value("${drawing.websocket.inbound.queue-capacity:1000}") int inboundQueueCapacity,
+                            @Value("${drawing.websocket.outbound.pool-size:4}") int outboundPoolSize,
+                            @Value("${drawing.websocket.outbound.queue-capacity:1000}") int outboundQueueCapacity) {
+        ExecutorService virtual = inboundVirtualThreads ? virtualThreadExecutor() : null;
+        if (inboundVirtualThreads && virtual == null) {
+            log.warn("Virtual threads are not available on Java {}, using a pool of {} threads for the inbound channel",
+                    Runtime.version().feature(), inboundPoolSize);
+        }
+        inbound = virtual != null
+                ? new InstrumentedExecutor("clientInbound", virtual, true, 0, 0)
+                : pool("clientInbound", inboundPoolSize, inboundQueueCapacity);
+        outbound = pool("clientOutbound", outboundPoolSize, outboundQueueCapacity);
+    }
+
+    public InstrumentedExecutor getInbound() {
+        return inbound;
+    }
+
+    public InstrumentedExecutor getOutbound() {
+        return outbound;
+    }
+
+    private static InstrumentedExecutor pool(String name, int poolSize, int queueCapacity) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory(name + "-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return new InstrumentedExecutor(name, executor, false, poolSize, queueCapacity);
+    }
+
+    private static ExecutorService virtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void destroy() {
+        inbound.shutdown();
+        outbound.shutdown();
+    }
+}
@@ -0,0 +1,54 @@
+package by.lupach.drawingeditor.configs;
+
+import by.lupach.drawingeditor.services.FrameSubscriptionRegistry;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Согласование формата кадров для каждой подписки.
+ * Подписка с заголовком "frame-format: packed" переводится на направление с суффиксом ".packed",
+ * куда публикуются бинарные кадры вместо JSON-списка пикселей.
+ */
+@Component
+public class FrameFormatInterceptor implements ChannelInterceptor {
+    public static final String FRAME_FORMAT_HEADER = "frame-format";
+    public static final String PACKED_FORMAT = "packed";
+    public static final String PACKED_SUFFIX = ".packed";
+
+    private final FrameSubscriptionRegistry subscriptionRegistry;
+
+    public FrameFormatInterceptor(FrameSubscriptionRegistry subscriptionRegistry) {
+        this.subscriptionRegistry = subscriptionRegistry;
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(message);
+        StompCommand command = accessor.getCommand();
+        if (command == null) {
+            return message;
+        }
+
+        switch (command) {
+            case SUBSCRIBE -> {
+                String destination = accessor.getDestination();
+                if (destination != null && PACKED_FORMAT.equals(accessor.getFirstNativeHeader(FRAME_FORMAT_HEADER))) {
+                    destination = destination + PACKED_SUFFIX;
+                    accessor.setDestination(destination);
+                    message = MessageBuilder.createMessage(message.getPayload(), accessor.getMessageHeaders());
+                }
+                subscriptionRegistry.subscribe(accessor.getSessionId(), accessor.getSubscriptionId(), destination);
+            }
+            case UNSUBSCRIBE -> subscriptionRegistry.unsubscribe(accessor.getSessionId(), accessor.getSubscriptionId());
+            case DISCONNECT -> subscriptionRegistry.removeSession(accessor.getSessionId());
+            default -> {
+            }
+        }
+        return message;
+    }
+}
@@ -0,0 +1,85 @@
+package by.lupach.drawingeditor.configs;
+
+import by.lupach.drawingeditor.models.metrics.ExecutorStats;
+import org.springframework.core.task.TaskExecutor;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Исполнитель со счётчиками: глубина очереди считается как принятые, но ещё не начатые задачи,
+ * поэтому одинаково работает и для пула с очередью, и для виртуальных потоков.
+ * toString попадает в периодический журнал WebSocketMessageBrokerStats.
+ */
+public class InstrumentedExecutor implements TaskExecutor {
+    private final String name;
+    private final ExecutorService delegate;
+    private final boolean virtualThreads;
+    private final int poolSize;
+    private final int queueCapacity;
+
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong started = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final LongAdder queueNanos = new LongAdder();
+    private final LongAccumulator maxQueueNanos = new LongAccumulator(Math::max, 0);
+
+    public InstrumentedExecutor(String name, ExecutorService delegate, boolean virtualThreads,
+                                int poolSize, int queueCapacity) {
+        this.name = name;
+        this.delegate = delegate;
+        this.virtualThreads = virtualThreads;
+        this.poolSize = poolSize;
+        this.queueCapacity = queueCapacity;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        long enqueued = System.nanoTime();
+        submitted.incrementAndGet();
+        try {
+            delegate.execute(() -> {
+                long waited = System.nanoTime() - enqueued;
+                queueNanos.add(waited);
+                maxQueueNanos.accumulate(waited);
+                started.incrementAndGet();
+                try {
+                    task.run();
+                } finally {
+                    completed.incrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            submitted.decrementAndGet();
+            rejected.incrementAndGet();
+            throw e;
+        }
+    }
+
+    public ExecutorStats stats() {
+        long startedCount = started.get();
+        long completedCount = completed.get();
+        return new ExecutorStats(name, virtualThreads, poolSize, queueCapacity,
+                Math.max(0, submitted.get() - startedCount), Math.max(0, startedCount - completedCount),
+                completedCount, rejected.get(),
+                startedCount == 0 ? 0 : queueNanos.sum() / 1e6 / startedCount, maxQueueNanos.get() / 1e6);
+    }
+
+    @Override
+    public String toString() {
+        ExecutorStats stats = stats();
+        return String.format("%s[%s, queued = %d, active = %d, completed = %d, rejected = %d, "
+                        + "queue wait avg = %.2f ms, max = %.2f ms]",
+                name, virtualThreads ? "virtual threads" : "pool size = " + poolSize, stats.getQueued(),
+                stats.getActive(), stats.getCompleted(), stats.getRejected(),
+                stats.getAverageQueueMillis(), stats.getMaxQueueMillis());
+    }
+
+    public void shutdown() {
+        delegate.shutdown();
+    }
+}
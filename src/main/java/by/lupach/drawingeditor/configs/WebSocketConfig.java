@@ -1,23 +1,87 @@
 package by.lupach.drawingeditor.configs;
 
+import jakarta.servlet.ServletContextEvent;
+import jakarta.servlet.ServletContextListener;
+import jakarta.websocket.server.ServerContainer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
+    private final FrameFormatInterceptor frameFormatInterceptor;
+    private final ChannelExecutors channelExecutors;
+
+    // Наибольший размер входящего сообщения STOMP (загрузка сцены, многоугольники на много вершин)
+    @Value("${drawing.websocket.message-size-limit:16777216}")
+    int messageSizeLimit = 16 * 1024 * 1024;
+    // Сколько байт может скопиться в буфере отправки медленного клиента, прежде чем сеанс будет закрыт
+    @Value("${drawing.websocket.send-buffer-size-limit:33554432}")
+    int sendBufferSizeLimit = 32 * 1024 * 1024;
+    // Сколько миллисекунд может длиться одна отправка клиенту, прежде чем сеанс будет закрыт
+    @Value("${drawing.websocket.send-time-limit:15000}")
+    int sendTimeLimit = 15_000;
+
+    public WebSocketConfig(FrameFormatInterceptor frameFormatInterceptor, ChannelExecutors channelExecutors) {
+        this.frameFormatInterceptor = frameFormatInterceptor;
+        this.channelExecutors = channelExecutors;
+    }
+
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
         registry.addEndpoint("/ws").withSockJS();
+        // Сообщения одного сеанса обрабатываются по порядку (загрузка сцены раньше её преобразования),
+        // разные сеансы — параллельно, и медленный запрос одного клиента не задерживает остальных
+        registry.setPreserveReceiveOrder(true);
     }
 
     @Override
-    public void configureMessageBroker(org.springframework.messaging.simp.config.MessageBrokerRegistry registry) {
+    public void configureMessageBroker(MessageBrokerRegistry registry) {
         registry.setApplicationDestinationPrefixes("/app");
-        registry.enableSimpleBroker("/topic");
+        // /queue — ответы одному сеансу (через /user/queue/...)
+        registry.enableSimpleBroker("/topic", "/queue");
+        // Кадры одному сеансу доходят в порядке публикации
+        registry.setPreservePublishOrder(true);
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.setMessageSizeLimit(messageSizeLimit)
+                .setSendBufferSizeLimit(sendBufferSizeLimit)
+                .setSendTimeLimit(sendTimeLimit);
     }
-}
 
+    // Контейнер сервлетов по умолчанию закрывает сеанс на текстовом сообщении больше 8 КБ,
+    // поэтому его буферы должны вмещать сообщение наибольшего допустимого размера.
+    // Контейнер WebSocket есть только у запущенного сервера, в тестах без него настраивать нечего
+    @Bean
+    public ServletContextListener webSocketBufferSizes() {
+        return new ServletContextListener() {
+            @Override
+            public void contextInitialized(ServletContextEvent event) {
+                if (event.getServletContext().getAttribute(ServerContainer.class.getName()) instanceof ServerContainer container) {
+                    container.setDefaultMaxTextMessageBufferSize(messageSizeLimit);
+                    container.setDefaultMaxBinaryMessageBufferSize(messageSizeLimit);
+                }
+            }
+        };
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.interceptors(frameFormatInterceptor);
+        registration.executor(channelExecutors.getInbound());
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.executor(channelExecutors.getOutbound());
+    }
+}
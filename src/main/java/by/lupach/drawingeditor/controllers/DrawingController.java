@@ -4,15 +4,35 @@ import by.lupach.drawingeditor.models.*;
 import by.lupach.drawingeditor.models.linesAndCurves.DrawingRequest;
 import by.lupach.drawingeditor.models.polygons.PointInsideRequest;
 import by.lupach.drawingeditor.models.polygons.PolygonFillRequest;
+import by.lupach.drawingeditor.models.polygons.PolygonHandle;
+import by.lupach.drawingeditor.models.polygons.Segment;
 import by.lupach.drawingeditor.models.polygons.SegmentIntersectsRequest;
+import by.lupach.drawingeditor.models.polygons.Span;
+import by.lupach.drawingeditor.models.raster.CanvasJoinRequest;
+import by.lupach.drawingeditor.models.raster.FrameBuffer;
+import by.lupach.drawingeditor.models.raster.PixelBuffer;
+import by.lupach.drawingeditor.models.raster.PixelSink;
+import by.lupach.drawingeditor.models.threeD.MeshHandle;
+import by.lupach.drawingeditor.models.threeD.MeshUploadRequest;
+import by.lupach.drawingeditor.models.threeD.SceneMesh;
 import by.lupach.drawingeditor.models.threeD.TransformationRequest;
 import by.lupach.drawingeditor.models.threeD.TransformationResponse;
+import by.lupach.drawingeditor.models.voronoi.VoronoiDelta;
+import by.lupach.drawingeditor.models.voronoi.VoronoiRequest;
 import by.lupach.drawingeditor.services.*;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.messaging.handler.annotation.MessageExceptionHandler;
 import org.springframework.messaging.handler.annotation.MessageMapping;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/draw")
@@ -20,88 +40,157 @@ public class DrawingController {
 
     private final LineDrawingService lineDrawingService;
     private final CurveDrawingService curveDrawingService;
-    private final ThreeDTransformationService threeDTransformationService;
+    private final ThreeDSceneService threeDSceneService;
     private final CurveInterpolationAndApproximation interpolationService;
     private final PolygonService polygonService;
+    private final PolygonRegistryService polygonRegistryService;
     private final VoronoiDiagramService voronoiDiagramService;
-    private final SimpMessagingTemplate messagingTemplate;
+    private final VoronoiSessionService voronoiSessionService;
+    private final DrawingPublisher drawingPublisher;
+    private final FrameBufferService frameBufferService;
+    private final SharedCanvasService sharedCanvasService;
+    private final RequestScheduler requestScheduler;
+    private final RequestCostEstimator costEstimator;
 
     public DrawingController(LineDrawingService lineDrawingService,
-                             CurveDrawingService curveDrawingService, ThreeDTransformationService threeDTransformationService,
+                             CurveDrawingService curveDrawingService, ThreeDSceneService threeDSceneService,
                              CurveInterpolationAndApproximation interpolationService,
                              PolygonService polygonService, VoronoiDiagramService voronoiDiagramService, // Добавлен сервис для работы с полигонами
-                             SimpMessagingTemplate messagingTemplate) {
+                             PolygonRegistryService polygonRegistryService,
+                             VoronoiSessionService voronoiSessionService,
+                             DrawingPublisher drawingPublisher, FrameBufferService frameBufferService,
+                             SharedCanvasService sharedCanvasService,
+                             RequestScheduler requestScheduler, RequestCostEstimator costEstimator) {
         this.lineDrawingService = lineDrawingService;
         this.curveDrawingService = curveDrawingService;
-        this.threeDTransformationService = threeDTransformationService;
+        this.threeDSceneService = threeDSceneService;
         this.interpolationService = interpolationService;
         this.polygonService = polygonService; // Инициализация сервиса для работы с полигонами
+        this.polygonRegistryService = polygonRegistryService;
         this.voronoiDiagramService = voronoiDiagramService;
-        this.messagingTemplate = messagingTemplate;
+        this.voronoiSessionService = voronoiSessionService;
+        this.drawingPublisher = drawingPublisher;
+        this.frameBufferService = frameBufferService;
+        this.sharedCanvasService = sharedCanvasService;
+        this.requestScheduler = requestScheduler;
+        this.costEstimator = costEstimator;
     }
 
+    // Дорогие запросы (длинные B-сплайны, заливки с затравкой, диаграммы Вороного, большие 3D-объекты)
+    // выполняются в тяжёлой полосе RequestScheduler, остальные — сразу.
+    // Каждая кривая — отдельный рисунок, поэтому новая кривая не отменяет предыдущую; отменяет только отключение
     @MessageMapping("/draw") // Обработка сообщений от WebSocket клиентов
-    public void draw(@RequestBody DrawingRequest drawingRequest) {
-        List<Pixel> pixels = null;
+    public void draw(@RequestBody DrawingRequest drawingRequest,
+                     @Header(SimpMessageHeaderAccessor.SESSION_ID_HEADER) String sessionId) {
+        requestScheduler.submitCancellable(sessionId, null, costEstimator.estimate(drawingRequest), cancellation -> {
+            try (PixelBuffer pixels = PixelBuffer.acquire()) {
+                rasterize(drawingRequest, pixels, cancellation);
+                publishPixels(sessionId, pixels);
+            }
+        });
+    }
 
+    private void rasterize(DrawingRequest drawingRequest, PixelSink sink, CancellationToken cancellation) {
         // Обработка рисования линий
         if (drawingRequest.getAlgorithm() != null) {
-            pixels = switch (drawingRequest.getAlgorithm()) {
+            switch (drawingRequest.getAlgorithm()) {
                 case "dda" -> lineDrawingService.generateDDALine(
                         drawingRequest.getX1(), drawingRequest.getY1(),
-                        drawingRequest.getX2(), drawingRequest.getY2());
+                        drawingRequest.getX2(), drawingRequest.getY2(), ArgbColor.BLACK, sink);
                 case "bresenham" -> lineDrawingService.generateBresenhamLine(
                         drawingRequest.getX1(), drawingRequest.getY1(),
-                        drawingRequest.getX2(), drawingRequest.getY2());
+                        drawingRequest.getX2(), drawingRequest.getY2(), ArgbColor.BLACK, sink);
                 case "wu" -> lineDrawingService.generateWuLine(
                         drawingRequest.getX1(), drawingRequest.getY1(),
-                        drawingRequest.getX2(), drawingRequest.getY2());
+                        drawingRequest.getX2(), drawingRequest.getY2(), ArgbColor.BLACK, sink);
                 default -> throw new IllegalArgumentException("Unknown line algorithm: " + drawingRequest.getAlgorithm());
-            };
+            }
         }
         // Обработка рисования кривых
         else if (drawingRequest.getCurveType() != null) {
             switch (drawingRequest.getCurveType()) {
                 case "circle" ->
-                        pixels = curveDrawingService.generateCircle(
+                        curveDrawingService.generateCircle(
                                 (int) drawingRequest.getCenter().getX(),
                                 (int) drawingRequest.getCenter().getY(),
-                                drawingRequest.getParam1());
+                                drawingRequest.getParam1(), sink);
                 case "ellipse" ->
-                        pixels = curveDrawingService.generateEllipse(
+                        curveDrawingService.generateEllipse(
                                 (int) drawingRequest.getCenter().getX(),
                                 (int) drawingRequest.getCenter().getY(),
                                 drawingRequest.getParam1(),
-                                drawingRequest.getParam2());
+                                drawingRequest.getParam2(), sink);
                 case "parabola" ->
-                        pixels = curveDrawingService.generateParabola(
+                        curveDrawingService.generateParabola(
                                 (int) drawingRequest.getCenter().getX(),
                                 (int) drawingRequest.getCenter().getY(),
-                                drawingRequest.getParam1());
+                                drawingRequest.getParam1(), sink);
                 case "hyperbola" ->
-                        pixels = curveDrawingService.generateHyperbola(
+                        curveDrawingService.generateHyperbola(
                                 (int) drawingRequest.getCenter().getX(),
                                 (int) drawingRequest.getCenter().getY(),
                                 drawingRequest.getParam1(),
-                                drawingRequest.getParam2());
+                                drawingRequest.getParam2(), sink);
                 case "hermite" ->
-                        pixels = interpolationService.generateHermiteCurve(drawingRequest.getPoints());
+                        interpolationService.generateHermiteCurve(drawingRequest.getPoints(), sink);
                 case "bezier" ->
-                        pixels = interpolationService.generateBezierCurve(drawingRequest.getPoints());
+                        interpolationService.generateBezierCurve(drawingRequest.getPoints(), sink);
                 case "bspline" ->
-                        pixels = interpolationService.generateBSplineCurve(drawingRequest.getPoints());
+                        interpolationService.generateBSplineCurve(drawingRequest.getPoints(), sink, cancellation);
                 default ->
                         throw new IllegalArgumentException("Unknown curve type: " + drawingRequest.getCurveType());
             }
         }
+    }
+
+    @MessageMapping("/clear")
+    public void clear(@Header(SimpMessageHeaderAccessor.SESSION_ID_HEADER) String sessionId) {
+        frameBufferService.clear(sharedCanvasService.canvasKey(sessionId));
+        drawingPublisher.publishClear(sessionId);
+    }
+
+    // Совместное рисование включается явно: до этого результаты получает только сам сеанс
+    @MessageMapping("/canvas/join")
+    public void joinSharedCanvas(@RequestBody CanvasJoinRequest request,
+                                 @Header(SimpMessageHeaderAccessor.SESSION_ID_HEADER) String sessionId) {
+        sharedCanvasService.join(sessionId, request.getCanvasId());
+    }
+
+    @MessageMapping("/canvas/leave")
+    public void leaveSharedCanvas(@Header(SimpMessageHeaderAccessor.SESSION_ID_HEADER) String sessionId) {
+        sharedCanvasService.leave(sessionId);
+    }
 
-        messagingTemplate.convertAndSend("/topic/drawings", pixels);
+    // Очередь тяжёлой полосы заполнена: запрос не выполнен, клиент узнаёт об этом из очереди ошибок
+    @MessageExceptionHandler(RejectedExecutionException.class)
+    public void handleRejected(RejectedExecutionException e,
+                               @Header(SimpMessageHeaderAccessor.SESSION_ID_HEADER) String sessionId,
+                               @Header(SimpMessageHeaderAccessor.DESTINATION_HEADER) String destination) {
+        drawingPublisher.sendToSession(sessionId, "/queue/errors", new ErrorResponse(destination, e.getMessage()));
+    }
+
+    // Объект загружается один раз, дальше клиент ссылается на него по meshId
+    @MessageMapping("/scene/upload")
+    public void uploadMesh(@RequestBody MeshUploadRequest request,
+                           @Header(SimpMessageHeaderAccessor.SESSION_ID_HEADER) String sessionId) {
+        MeshHandle handle = threeDSceneService.upload(sessionId, request);
+        drawingPublisher.sendToSession(sessionId, "/queue/meshes", handle);
     }
 
     @MessageMapping("/transform3D")
-    public void handleTransformation(TransformationRequest request) {
-        TransformationResponse response = threeDTransformationService.applyTransformation(request);
-        messagingTemplate.convertAndSend("/topic/drawings3d", response);
+    public void handleTransformation(TransformationRequest request,
+                                     @Header(SimpMessageHeaderAccessor.SESSION_ID_HEADER) String sessionId) {
+        // Матрица домножается сразу, а растеризуется только последнее состояние: пока кадр ждёт в очереди,
+        // следующие нажатия лишь накапливают матрицу и не порождают новых кадров
+        long cost = costEstimator.estimate(sessionId, request);
+        SceneMesh mesh = threeDSceneService.accumulate(sessionId, request);
+        requestScheduler.submitLatest(sessionId, "transform3D", cost, () -> {
+            TransformationResponse response = threeDSceneService.render(mesh, request.isCullBackFaces());
+            // Клиент перерисовывает 3D-сцену целиком, поэтому холст сеанса заменяется
+            frameBufferService.replace(sharedCanvasService.canvasKey(sessionId), response.getPixels());
+            drawingPublisher.publishReplace(sessionId, response.getPixels());
+            drawingPublisher.sendToSession(sessionId, "/queue/drawings3d", response);
+        });
     }
 
 
@@ -120,6 +209,11 @@ public class DrawingController {
         return polygonService.convexHullJarvis(points);
     }
 
+    @PostMapping("/convexHull")
+    public List<Pixel> convexHull(@RequestBody List<Pixel> points) {
+        return polygonService.convexHull(points);
+    }
+
     @PostMapping("/isPointInsidePolygon")
     public boolean isPointInsidePolygon(@RequestBody PointInsideRequest request) {
         return polygonService.isPointInsidePolygon(request.getPoint(), request.getPolygon());
@@ -130,30 +224,146 @@ public class DrawingController {
         return polygonService.segmentIntersectsPolygon(request.getA(), request.getB(), request.getPolygon());
     }
 
+    // Многоугольник загружается один раз, дальше запросы ссылаются на него по polygonId.
+    // Реестр у каждого HTTP-сеанса свой, поэтому клиент должен сохранять cookie JSESSIONID
+    @PostMapping("/polygons")
+    public PolygonHandle registerPolygon(@RequestBody List<Pixel> polygon, HttpSession session) {
+        return polygonRegistryService.register(session.getId(), polygon);
+    }
+
+    @DeleteMapping("/polygons/{polygonId}")
+    public void removePolygon(@PathVariable String polygonId, HttpSession session) {
+        polygonRegistryService.remove(session.getId(), polygonId);
+    }
+
+    @GetMapping("/polygons/{polygonId}/convex")
+    public boolean checkConvex(@PathVariable String polygonId, HttpSession session) {
+        return polygonRegistryService.get(session.getId(), polygonId).isConvex();
+    }
+
+    @GetMapping("/polygons/{polygonId}/hull")
+    public List<Pixel> convexHull(@PathVariable String polygonId, HttpSession session) {
+        return polygonRegistryService.get(session.getId(), polygonId).getHull();
+    }
+
+    @PostMapping("/polygons/{polygonId}/isPointInside")
+    public boolean isPointInsidePolygon(@PathVariable String polygonId, HttpSession session, @RequestBody Pixel point) {
+        return polygonService.isPointInsidePolygon(point, polygonRegistryService.get(session.getId(), polygonId));
+    }
+
+    @PostMapping("/polygons/{polygonId}/segmentIntersects")
+    public boolean segmentIntersectsPolygon(@PathVariable String polygonId, HttpSession session, @RequestBody Segment segment) {
+        return polygonService.segmentIntersectsPolygon(segment.getA(), segment.getB(), polygonRegistryService.get(session.getId(), polygonId));
+    }
+
+    // Пакетные запросы: координаты подряд в массиве JSON, ответ — битовая строка в теле application/octet-stream
+    @PostMapping(value = "/polygons/{polygonId}/isPointInside/batch", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public byte[] pointsInsidePolygon(@PathVariable String polygonId, HttpSession session, @RequestBody int[] coordinates) {
+        if (coordinates.length % 2 != 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Point coordinates must come in pairs");
+        }
+        return polygonService.pointsInsidePolygon(coordinates, polygonRegistryService.get(session.getId(), polygonId));
+    }
+
+    @PostMapping(value = "/polygons/{polygonId}/segmentIntersects/batch", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public byte[] segmentsIntersectPolygon(@PathVariable String polygonId, HttpSession session, @RequestBody int[] coordinates) {
+        if (coordinates.length % 4 != 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Segment coordinates must come in fours");
+        }
+        return polygonService.segmentsIntersectPolygon(coordinates, polygonRegistryService.get(session.getId(), polygonId));
+    }
+
+    @ExceptionHandler(NoSuchElementException.class)
+    @ResponseStatus(HttpStatus.NOT_FOUND)
+    public String unknownPolygon(NoSuchElementException e) {
+        return e.getMessage();
+    }
+
     @MessageMapping("/fillPolygon")
-    public void fillPolygon(@RequestBody PolygonFillRequest request) {
-        List<Pixel> filledPixels = null;
+    public void fillPolygon(@RequestBody PolygonFillRequest request,
+                            @Header(SimpMessageHeaderAccessor.SESSION_ID_HEADER) String sessionId) {
+        // Клиент заливает многоугольник, дополняемый точками, поэтому новая заливка отменяет незаконченную старую
+        requestScheduler.submitCancellable(sessionId, "fillPolygon", costEstimator.estimate(request),
+                cancellation -> fill(request, sessionId, cancellation));
+    }
 
+    private void fill(PolygonFillRequest request, String sessionId, CancellationToken cancellation) {
+        // Алгоритмы развёртки отправляют интервалы строк, алгоритмы с затравкой — отдельные пиксели
         switch (request.getAlgorithm()) {
-            case "scanline" ->
-                    filledPixels = polygonService.scanlineFill(request.getPolygon());
-            case "aet" ->
-                    filledPixels = polygonService.activeEdgeFill(request.getPolygon());
-            case "floodFill" ->
-                    filledPixels = polygonService.floodFill(request.getSeed(), request.getPolygon(), request.getBoundaryColor());
-            case "scanlineFloodFill" ->
-                    filledPixels = polygonService.scanlineFloodFill(request.getSeed(), request.getPolygon(), request.getBoundaryColor());
+            case "scanline" -> publishSpans(sessionId, polygonService.scanlineFillSpans(request.getPolygon()));
+            case "aet" -> publishSpans(sessionId, polygonService.activeEdgeFillSpans(request.getPolygon()));
+            // Заливки с затравкой читают копию холста и не держат его блокировку, пока идут
+            case "floodFill" -> {
+                FrameBuffer canvas = frameBufferService.snapshot(sharedCanvasService.canvasKey(sessionId));
+                try (PixelBuffer pixels = PixelBuffer.acquire()) {
+                    polygonService.floodFill(request.getSeed(), request.getPolygon(), request.getBoundaryColor(),
+                            canvas, pixels, cancellation);
+                    publishPixels(sessionId, pixels);
+                }
+            }
+            case "scanlineFloodFill" -> {
+                FrameBuffer canvas = frameBufferService.snapshot(sharedCanvasService.canvasKey(sessionId));
+                publishSpans(sessionId, polygonService.scanlineFloodFillSpans(request.getSeed(), request.getPolygon(),
+                        request.getBoundaryColor(), canvas, cancellation));
+            }
             default ->
                     throw new IllegalArgumentException("Unknown fill algorithm: " + request.getAlgorithm());
         }
-
-        messagingTemplate.convertAndSend("/topic/drawings", filledPixels);
     }
 
     @MessageMapping("/voronoiDiagram")
-    public void delaunayTriangulator(@RequestBody List<Pixel> request) {
-        List<Pixel> response = voronoiDiagramService.buildVoronoiDiagram(request);
+    public void delaunayTriangulator(@RequestBody VoronoiRequest request,
+                                     @Header(SimpMessageHeaderAccessor.SESSION_ID_HEADER) String sessionId) {
+        // Клиент каждый раз присылает все точки, поэтому новая диаграмма отменяет незаконченную старую
+        requestScheduler.submitCancellable(sessionId, "voronoiDiagram", costEstimator.estimate(request), cancellation -> {
+            try (PixelBuffer pixels = PixelBuffer.acquire()) {
+                switch (request.getEngine()) {
+                    case "delaunay" -> voronoiDiagramService.buildVoronoiDiagram(request.getPoints(), pixels, cancellation);
+                    case "fortune" -> voronoiDiagramService.buildFortuneVoronoiDiagram(request.getPoints(), pixels, cancellation);
+                    default -> throw new IllegalArgumentException("Unknown Voronoi engine: " + request.getEngine());
+                }
+                publishPixels(sessionId, pixels);
+            }
+        });
+    }
+
+    // Инкрементальная диаграмма: клиент получает изменившиеся отрезки, а не пиксели
+    @MessageMapping("/voronoiSession/insert")
+    public void insertVoronoiSite(@RequestBody Pixel site,
+                                  @Header(SimpMessageHeaderAccessor.SESSION_ID_HEADER) String sessionId) {
+        publishVoronoiDelta(sessionId, voronoiSessionService.insert(sessionId, site));
+    }
+
+    @MessageMapping("/voronoiSession/delete")
+    public void deleteVoronoiSite(@RequestBody Pixel site,
+                                  @Header(SimpMessageHeaderAccessor.SESSION_ID_HEADER) String sessionId) {
+        publishVoronoiDelta(sessionId, voronoiSessionService.delete(sessionId, site));
+    }
+
+    @MessageMapping("/voronoiSession/clear")
+    public void clearVoronoiSession(@Header(SimpMessageHeaderAccessor.SESSION_ID_HEADER) String sessionId) {
+        publishVoronoiDelta(sessionId, voronoiSessionService.clear(sessionId));
+    }
+
+    private void publishVoronoiDelta(String sessionId, VoronoiDelta delta) {
+        if (!delta.getAdded().isEmpty() || !delta.getRemoved().isEmpty()) {
+            drawingPublisher.sendToSession(sessionId, "/queue/voronoiSegments", delta);
+        }
+    }
+
+    // Клиенту отправляется только то, что изменило холст сеанса
+    private void publishPixels(String sessionId, List<Pixel> pixels) {
+        drawingPublisher.publish(sessionId, frameBufferService.composite(sharedCanvasService.canvasKey(sessionId), pixels));
+    }
+
+    private void publishPixels(String sessionId, PixelBuffer pixels) {
+        try (PixelBuffer changed = PixelBuffer.acquire()) {
+            frameBufferService.composite(sharedCanvasService.canvasKey(sessionId), pixels, changed);
+            drawingPublisher.publish(sessionId, changed);
+        }
+    }
 
-        messagingTemplate.convertAndSend("/topic/drawings", response);
+    private void publishSpans(String sessionId, List<Span> spans) {
+        drawingPublisher.publishSpans(sessionId, frameBufferService.compositeSpans(sharedCanvasService.canvasKey(sessionId), spans));
     }
 }
\ No newline at end of file
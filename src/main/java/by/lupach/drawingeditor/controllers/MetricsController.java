@@ -0,0 +1,35 @@
+package by.lupach.drawingeditor.controllers;
+
+import by.lupach.drawingeditor.configs.ChannelExecutors;
+import by.lupach.drawingeditor.models.metrics.ExecutorStats;
+import by.lupach.drawingeditor.models.metrics.LaneStats;
+import by.lupach.drawingeditor.services.RequestScheduler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/metrics")
+public class MetricsController {
+    private final ChannelExecutors channelExecutors;
+    private final RequestScheduler requestScheduler;
+
+    public MetricsController(ChannelExecutors channelExecutors, RequestScheduler requestScheduler) {
+        this.channelExecutors = channelExecutors;
+        this.requestScheduler = requestScheduler;
+    }
+
+    // Глубина очередей и время ожидания во входящем и исходящем каналах STOMP
+    @GetMapping("/websocket")
+    public List<ExecutorStats> websocket() {
+        return List.of(channelExecutors.getInbound().stats(), channelExecutors.getOutbound().stats());
+    }
+
+    // Очереди и задержки полос планировщика запросов рисования
+    @GetMapping("/lanes")
+    public List<LaneStats> lanes() {
+        return requestScheduler.stats();
+    }
+}
@@ -0,0 +1,101 @@
+package by.lupach.drawingeditor.models;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Цвет, упакованный в int в формате ARGB (8 бит на канал).
+ * Разбор строковых CSS-цветов вида "rgba(r, g, b, a)", "rgb(r, g, b)" и "#rrggbb".
+ * Строковое представление нужно только на границе API (JSON), внутри цвет всегда int.
+ */
+public final class ArgbColor {
+    public static final int BLACK = 0xFF000000;
+
+    // Палитра отформатированных строк: в кадре обычно всего несколько различных цветов
+    private static final int MAX_INTERNED = 4096;
+    private static final Map<Integer, String> INTERNED = new ConcurrentHashMap<>();
+
+    private ArgbColor() {
+    }
+
+    public static int argb(int a, int r, int g, int b) {
+        return (a & 0xFF) << 24 | (r & 0xFF) << 16 | (g & 0xFF) << 8 | (b & 0xFF);
+    }
+
+    public static int alpha(int argb) {
+        return argb >>> 24;
+    }
+
+    public static int red(int argb) {
+        return (argb >> 16) & 0xFF;
+    }
+
+    public static int green(int argb) {
+        return (argb >> 8) & 0xFF;
+    }
+
+    public static int blue(int argb) {
+        return argb & 0xFF;
+    }
+
+    /**
+     * Разбирает CSS-цвет. Альфа-канал, как и в браузере, ограничивается диапазоном [0, 1],
+     * поэтому встречающееся в проекте "rgba(0, 0, 0, 255)" означает непрозрачный чёрный.
+     */
+    public static int parse(String color) {
+        if (color == null) {
+            throw new IllegalArgumentException("Color is null");
+        }
+        String s = color.trim();
+        if (s.startsWith("#") && s.length() == 7) {
+            return 0xFF000000 | Integer.parseInt(s.substring(1), 16);
+        }
+        int open = s.indexOf('(');
+        int close = s.lastIndexOf(')');
+        if (open < 0 || close < open) {
+            throw new IllegalArgumentException("Unknown color format: " + color);
+        }
+        String[] parts = s.substring(open + 1, close).split(",");
+        if (parts.length != 3 && parts.length != 4) {
+            throw new IllegalArgumentException("Unknown color format: " + color);
+        }
+        int r = clampChannel(Double.parseDouble(parts[0].trim()));
+        int g = clampChannel(Double.parseDouble(parts[1].trim()));
+        int b = clampChannel(Double.parseDouble(parts[2].trim()));
+        int a = 255;
+        if (parts.length == 4) {
+            double alpha = Math.max(0, Math.min(1, Double.parseDouble(parts[3].trim())));
+            a = (int) Math.round(alpha * 255);
+        }
+        return argb(a, r, g, b);
+    }
+
+    /**
+     * Форматирует цвет как CSS "rgba(r, g, b, a)" с альфой в диапазоне [0, 1].
+     * Строки переиспользуются, поэтому сериализация пикселей не создаёт их заново.
+     */
+    public static String format(int argb) {
+        String formatted = INTERNED.get(argb);
+        if (formatted == null) {
+            formatted = formatUncached(argb);
+            if (INTERNED.size() < MAX_INTERNED) {
+                INTERNED.putIfAbsent(argb, formatted);
+            }
+        }
+        return formatted;
+    }
+
+    private static String formatUncached(int argb) {
+        // Трёх знаков достаточно, чтобы parse(format(c)) возвращал исходный цвет
+        String alpha = alpha(argb) == 255 ? "1"
+                : BigDecimal.valueOf(alpha(argb) / 255.0)
+                .setScale(3, RoundingMode.HALF_UP).stripTrailingZeros().toPlainString();
+        return "rgba(" + red(argb) + ", " + green(argb) + ", " + blue(argb) + ", " + alpha + ")";
+    }
+
+    private static int clampChannel(double value) {
+        return (int) Math.max(0, Math.min(255, Math.round(value)));
+    }
+}
@@ -0,0 +1,46 @@
+package by.lupach.drawingeditor.models;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+
+import java.io.IOException;
+
+/**
+ * JSON-представление упакованного ARGB-цвета: в запросах и ответах цвет остаётся CSS-строкой.
+ */
+public final class ArgbColorJson {
+    private ArgbColorJson() {
+    }
+
+    public static class Serializer extends JsonSerializer<Integer> {
+        @Override
+        public void serialize(Integer argb, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            generator.writeString(ArgbColor.format(argb));
+        }
+    }
+
+    public static class Deserializer extends JsonDeserializer<Integer> {
+        @Override
+        public Integer deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            // Числовое значение принимается как уже упакованный ARGB
+            if (parser.currentToken() == JsonToken.VALUE_NUMBER_INT) {
+                return parser.getIntValue();
+            }
+            try {
+                return ArgbColor.parse(parser.getValueAsString());
+            } catch (IllegalArgumentException e) {
+                return (Integer) context.handleWeirdStringValue(Integer.class, parser.getText(), e.getMessage());
+            }
+        }
+
+        @Override
+        public Integer getNullValue(DeserializationContext context) {
+            return ArgbColor.BLACK;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package by.lupach.drawingeditor.models;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * Признак отмены задачи. Отмена кооперативная: долгие алгоритмы проверяют токен между строками заливки,
+ * вставками точек или точками кривой и на ближайшей проверке бросают CancellationException.
+ * Частичный результат при этом не публикуется.
+ */
+public final class CancellationToken {
+    // Токен, который нельзя отменить; его передают перегрузки алгоритмов без токена
+    public static final CancellationToken NONE = new CancellationToken(false);
+
+    private final boolean cancellable;
+    private volatile boolean cancelled;
+
+    public CancellationToken() {
+        this(true);
+    }
+
+    private CancellationToken(boolean cancellable) {
+        this.cancellable = cancellable;
+    }
+
+    public void cancel() {
+        if (cancellable) {
+            cancelled = true;
+        }
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public void throwIfCancelled() {
+        if (cancelled) {
+            throw new CancellationException("Job cancelled");
+        }
+    }
+}
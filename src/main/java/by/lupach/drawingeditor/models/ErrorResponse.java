@@ -0,0 +1,16 @@
+package by.lupach.drawingeditor.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Ошибка обработки STOMP-сообщения: адрес запроса и причина. Отправляется сеансу в /user/queue/errors.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ErrorResponse {
+    private String destination;
+    private String message;
+}
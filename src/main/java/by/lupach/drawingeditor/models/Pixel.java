@@ -1,5 +1,7 @@
 package by.lupach.drawingeditor.models;
 
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import lombok.*;
 import lombok.experimental.SuperBuilder;
 
@@ -18,7 +20,11 @@ public class Pixel {
     private int x;
     @NonNull
     private int y;
-    private String color = "rgba(0, 0, 0, 255)";
+    // Упакованный ARGB, в JSON передаётся строкой "rgba(r, g, b, a)"
+    @JsonSerialize(using = ArgbColorJson.Serializer.class)
+    @JsonDeserialize(using = ArgbColorJson.Deserializer.class)
+    @Builder.Default
+    private int color = ArgbColor.BLACK;
 
     public static int getDistance(Pixel p0, Pixel p1) {
         return ((int) Math.sqrt(Math.pow(p0.getX()-Math.abs(p0.getX()-p1.getX()),2)+Math.pow(p0.getY()-Math.abs(p0.getY()-p1.getY()),2)));
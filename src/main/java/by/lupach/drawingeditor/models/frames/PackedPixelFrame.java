@@ -0,0 +1,162 @@
+package by.lupach.drawingeditor.models.frames;
+
+import by.lupach.drawingeditor.models.ArgbColor;
+import by.lupach.drawingeditor.models.Pixel;
+import by.lupach.drawingeditor.models.polygons.Span;
+import by.lupach.drawingeditor.models.raster.PixelBuffer;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Бинарный кадр пикселей для STOMP-подписок с заголовком "frame-format: packed".
+ *
+ * Формат (little-endian):
+ *   uint16 magic = 0x4650 ("PF"), uint8 version, uint8 kind,
+ *   uint32 count, uint32 paletteSize, uint8 indexBytes (1, 2 или 4), 3 байта резерва,
+ *   palette[paletteSize] — по 4 байта r, g, b, a,
+ *   далее столбцы int16 и index[count]:
+ *     kind = 0 (пиксели):  x[count], y[count];
+ *     kind = 1 (интервалы): y[count], xStart[count], xEnd[count].
+ *
+ * Элементы со строкой вне диапазона int16 на холст всё равно не попадают и отбрасываются.
+ */
+public final class PackedPixelFrame {
+    public static final int MAGIC = 0x4650;
+    public static final int VERSION = 1;
+    public static final int KIND_PIXELS = 0;
+    public static final int KIND_SPANS = 1;
+    public static final int HEADER_SIZE = 16;
+
+    private PackedPixelFrame() {
+    }
+
+    public static byte[] encode(List<Pixel> pixels) {
+        Palette palette = new Palette();
+        int count = 0;
+        short[] xs = new short[pixels.size()];
+        short[] ys = new short[pixels.size()];
+        int[] indexes = new int[pixels.size()];
+        for (Pixel pixel : pixels) {
+            if (!fitsShort(pixel.getX()) || !fitsShort(pixel.getY())) {
+                continue;
+            }
+            xs[count] = (short) pixel.getX();
+            ys[count] = (short) pixel.getY();
+            indexes[count++] = palette.indexOf(pixel.getColor());
+        }
+        return write(KIND_PIXELS, count, palette, indexes, xs, ys);
+    }
+
+    public static byte[] encode(PixelBuffer pixels) {
+        Palette palette = new Palette();
+        int count = 0;
+        short[] xs = new short[pixels.size()];
+        short[] ys = new short[pixels.size()];
+        int[] indexes = new int[pixels.size()];
+        for (int i = 0; i < pixels.size(); i++) {
+            if (!fitsShort(pixels.getX(i)) || !fitsShort(pixels.getY(i))) {
+                continue;
+            }
+            xs[count] = (short) pixels.getX(i);
+            ys[count] = (short) pixels.getY(i);
+            indexes[count++] = palette.indexOf(pixels.getColor(i));
+        }
+        return write(KIND_PIXELS, count, palette, indexes, xs, ys);
+    }
+
+    public static byte[] encodeSpans(List<Span> spans) {
+        Palette palette = new Palette();
+        int count = 0;
+        short[] ys = new short[spans.size()];
+        short[] xStarts = new short[spans.size()];
+        short[] xEnds = new short[spans.size()];
+        int[] indexes = new int[spans.size()];
+        for (Span span : spans) {
+            if (!fitsShort(span.getY())) {
+                continue;
+            }
+            ys[count] = (short) span.getY();
+            xStarts[count] = clampShort(span.getXStart());
+            xEnds[count] = clampShort(span.getXEnd());
+            indexes[count++] = palette.indexOf(span.getColor());
+        }
+        return write(KIND_SPANS, count, palette, indexes, ys, xStarts, xEnds);
+    }
+
+    private static byte[] write(int kind, int count, Palette palette, int[] indexes, short[]... columns) {
+        int indexBytes = palette.size() <= 0x100 ? 1 : palette.size() <= 0x10000 ? 2 : 4;
+        ByteBuffer buffer = ByteBuffer
+                .allocate(HEADER_SIZE + palette.size() * 4 + count * (2 * columns.length + indexBytes))
+                .order(ByteOrder.LITTLE_ENDIAN);
+
+        buffer.putShort((short) MAGIC);
+        buffer.put((byte) VERSION);
+        buffer.put((byte) kind);
+        buffer.putInt(count);
+        buffer.putInt(palette.size());
+        buffer.put((byte) indexBytes);
+        buffer.put(new byte[3]);
+        for (int argb : palette.colors) {
+            buffer.put((byte) ArgbColor.red(argb));
+            buffer.put((byte) ArgbColor.green(argb));
+            buffer.put((byte) ArgbColor.blue(argb));
+            buffer.put((byte) ArgbColor.alpha(argb));
+        }
+
+        for (short[] column : columns) {
+            for (int i = 0; i < count; i++) {
+                buffer.putShort(column[i]);
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            switch (indexBytes) {
+                case 1 -> buffer.put((byte) indexes[i]);
+                case 2 -> buffer.putShort((short) indexes[i]);
+                default -> buffer.putInt(indexes[i]);
+            }
+        }
+        return buffer.array();
+    }
+
+    private static boolean fitsShort(int value) {
+        return value >= Short.MIN_VALUE && value <= Short.MAX_VALUE;
+    }
+
+    private static short clampShort(int value) {
+        return (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, value));
+    }
+
+    // Палитра кадра: одинаковые ARGB-цвета склеиваются
+    private static class Palette {
+        private final Map<Integer, Integer> indexByArgb = new HashMap<>();
+        private final List<Integer> colors = new ArrayList<>();
+
+        private int lastArgb;
+        private int lastIndex = -1;
+
+        // Соседние пиксели обычно одного цвета, поэтому последний индекс запоминается
+        int indexOf(int argb) {
+            if (lastIndex >= 0 && lastArgb == argb) {
+                return lastIndex;
+            }
+            Integer index = indexByArgb.get(argb);
+            if (index == null) {
+                index = colors.size();
+                colors.add(argb);
+                indexByArgb.put(argb, index);
+            }
+            lastArgb = argb;
+            lastIndex = index;
+            return index;
+        }
+
+        int size() {
+            return colors.size();
+        }
+    }
+}
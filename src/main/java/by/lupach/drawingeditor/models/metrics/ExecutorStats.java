@@ -0,0 +1,25 @@
+package by.lupach.drawingeditor.models.metrics;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Снимок состояния исполнителя канала: сколько задач ждут в очереди, выполняются, завершены и отклонены,
+ * и сколько в среднем и максимум задача ждала начала выполнения.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExecutorStats {
+    private String name;
+    private boolean virtualThreads;
+    private int poolSize;
+    private int queueCapacity;
+    private long queued;
+    private long active;
+    private long completed;
+    private long rejected;
+    private double averageQueueMillis;
+    private double maxQueueMillis;
+}
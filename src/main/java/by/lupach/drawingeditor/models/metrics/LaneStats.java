@@ -0,0 +1,30 @@
+package by.lupach.drawingeditor.models.metrics;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Снимок состояния полосы планировщика запросов: очередь, выполняемые, завершённые, заменённые и отменённые задачи,
+ * время ожидания в очереди и полная задержка от поступления запроса до завершения.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LaneStats {
+    private String lane;
+    private int concurrency;
+    private int queueCapacity;
+    private long queued;
+    private long active;
+    private long completed;
+    private long rejected;
+    // Задачи, заменённые более новыми того же вида до начала выполнения
+    private long coalesced;
+    // Задачи, прерванные или снятые с очереди из-за более новой задачи того же вида или отключения сеанса
+    private long cancelled;
+    private double averageQueueMillis;
+    private double maxQueueMillis;
+    private double averageLatencyMillis;
+    private double maxLatencyMillis;
+}
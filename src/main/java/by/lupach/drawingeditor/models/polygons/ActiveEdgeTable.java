@@ -0,0 +1,162 @@
+package by.lupach.drawingeditor.models.polygons;
+
+import by.lupach.drawingeditor.models.Pixel;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Заливка многоугольника по таблице рёбер (ET) и списку активных рёбер (AET).
+ *
+ * Рёбра раскладываются по корзинам нижних строк, так что на каждой строке просматриваются только
+ * начинающиеся на ней рёбра. Абсцисса ребра хранится точно как x + r / dy (0 <= r < dy) и переводится
+ * на следующую строку целочисленным шагом с остатком, как ошибка в алгоритме Брезенхема.
+ * AET упорядочен по абсциссе; между соседними строками порядок меняется редко (только в точках
+ * самопересечения), поэтому он поддерживается сортировкой вставками за O(активных рёбер).
+ */
+public class ActiveEdgeTable {
+    private static final int NONE = -1;
+
+    private final int minY, maxY;
+    private final int[] bucketHead;
+    private final int[] nextInBucket;
+    private final int[] yMax;
+    // Текущая абсцисса ребра x + r / dy и шаг на строку stepX + stepR / dy
+    private final int[] x, r, dy, stepX, stepR;
+
+    private int[] active;
+    private int activeCount;
+
+    /**
+     * Строит таблицу для строк [minRow, maxRow]; строки за этими пределами не заливаются,
+     * поэтому размер таблицы ограничен холстом, а не координатами вершин.
+     */
+    public ActiveEdgeTable(List<Pixel> polygon, int minRow, int maxRow) {
+        int n = polygon.size();
+        int polygonMinY = Integer.MAX_VALUE, polygonMaxY = Integer.MIN_VALUE;
+        for (Pixel point : polygon) {
+            polygonMinY = Math.min(polygonMinY, point.getY());
+            polygonMaxY = Math.max(polygonMaxY, point.getY());
+        }
+        this.minY = Math.max(minRow, polygonMinY);
+        this.maxY = Math.min(maxRow, polygonMaxY);
+
+        bucketHead = new int[(int) Math.max(0, (long) maxY - minY + 1)];
+        Arrays.fill(bucketHead, NONE);
+        nextInBucket = new int[n];
+        yMax = new int[n];
+        x = new int[n];
+        r = new int[n];
+        dy = new int[n];
+        stepX = new int[n];
+        stepR = new int[n];
+        active = new int[n];
+
+        for (int i = 0; i < n; i++) {
+            Pixel point1 = polygon.get(i);
+            Pixel point2 = polygon.get((i + 1) % n);
+            if (point1.getY() == point2.getY()) {
+                continue;
+            }
+            Pixel lower = point1.getY() < point2.getY() ? point1 : point2;
+            Pixel upper = lower == point1 ? point2 : point1;
+            // Ребро заливает строки [lower.y, upper.y), пересекающиеся с [minY, maxY]
+            if (upper.getY() <= minY || lower.getY() > maxY) {
+                continue;
+            }
+            int height = upper.getY() - lower.getY();
+            int dx = upper.getX() - lower.getX();
+            yMax[i] = upper.getY();
+            x[i] = lower.getX();
+            dy[i] = height;
+            stepX[i] = Math.floorDiv(dx, height);
+            stepR[i] = Math.floorMod(dx, height);
+
+            // Ребро, начинающееся выше первой строки, сразу сдвигается на неё
+            int firstRow = Math.max(lower.getY(), minY);
+            long offset = (long) dx * (firstRow - lower.getY());
+            x[i] += (int) Math.floorDiv(offset, height);
+            r[i] = (int) Math.floorMod(offset, height);
+
+            int bucket = firstRow - minY;
+            nextInBucket[i] = bucketHead[bucket];
+            bucketHead[bucket] = i;
+        }
+    }
+
+    /**
+     * Интервалы заливки строк таблицы. Концы интервала — абсциссы пересечения рёбер
+     * со строкой, отброшенные к нулю, как при приведении double к int.
+     */
+    public List<Span> fill(int color) {
+        List<Span> spans = new ArrayList<>();
+        activeCount = 0;
+        for (int y = minY; y <= maxY; y++) {
+            // Новые рёбра строки вставляются на свои места, закончившиеся удаляются
+            for (int edge = bucketHead[y - minY]; edge != NONE; edge = nextInBucket[edge]) {
+                insert(edge);
+            }
+            int kept = 0;
+            for (int i = 0; i < activeCount; i++) {
+                if (yMax[active[i]] > y) {
+                    active[kept++] = active[i];
+                }
+            }
+            activeCount = kept;
+
+            for (int i = 0; i + 1 < activeCount; i += 2) {
+                spans.add(new Span(y, truncated(active[i]), truncated(active[i + 1]), color));
+            }
+
+            for (int i = 0; i < activeCount; i++) {
+                step(active[i]);
+            }
+            sortActive();
+        }
+        return spans;
+    }
+
+    private void step(int edge) {
+        x[edge] += stepX[edge];
+        r[edge] += stepR[edge];
+        if (r[edge] >= dy[edge]) {
+            x[edge]++;
+            r[edge] -= dy[edge];
+        }
+    }
+
+    // x + r / dy с отбрасыванием дробной части к нулю
+    private int truncated(int edge) {
+        return x[edge] >= 0 || r[edge] == 0 ? x[edge] : x[edge] + 1;
+    }
+
+    private void insert(int edge) {
+        int i = activeCount++;
+        while (i > 0 && less(edge, active[i - 1])) {
+            active[i] = active[i - 1];
+            i--;
+        }
+        active[i] = edge;
+    }
+
+    private void sortActive() {
+        for (int j = 1; j < activeCount; j++) {
+            int edge = active[j];
+            int i = j;
+            while (i > 0 && less(edge, active[i - 1])) {
+                active[i] = active[i - 1];
+                i--;
+            }
+            active[i] = edge;
+        }
+    }
+
+    // Точное сравнение абсцисс a.x + a.r / a.dy и b.x + b.r / b.dy
+    private boolean less(int a, int b) {
+        if (x[a] != x[b]) {
+            return x[a] < x[b];
+        }
+        return (long) r[a] * dy[b] < (long) r[b] * dy[a];
+    }
+}
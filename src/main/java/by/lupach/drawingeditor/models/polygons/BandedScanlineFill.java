@@ -0,0 +1,112 @@
+package by.lupach.drawingeditor.models.polygons;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Параллельная построчная заливка: диапазон строк делится на полосы, которые заливаются в ForkJoinPool.
+ *
+ * Все полосы читают общую таблицу рёбер, упорядоченную по нижней строке. Полоса сама собирает
+ * список активных рёбер на своей первой строке (двоичный поиск по таблице и отбор ещё не закончившихся
+ * рёбер), дальше пополняет его по мере продвижения. Интервалы полос склеиваются по порядку строк,
+ * поэтому результат совпадает с последовательной заливкой PolygonService.scanlineFillSpans.
+ */
+public class BandedScanlineFill {
+    // Полоса ниже этой высоты не окупает отдельную задачу
+    private static final int MIN_BAND_ROWS = 16;
+
+    private final ForkJoinPool pool;
+
+    public BandedScanlineFill(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    public List<Span> fill(EdgeTable table, int color) {
+        if (table.size() == 0) {
+            return new ArrayList<>();
+        }
+        int rows = table.getMaxY() - table.getMinY();
+        int bandRows = Math.max(MIN_BAND_ROWS, rows / (4 * pool.getParallelism()));
+        return pool.invoke(new Band(table, color, table.getMinY(), table.getMaxY(), bandRows));
+    }
+
+    /**
+     * Интервалы строк [from, to) в порядке строк.
+     */
+    static List<Span> fillRows(EdgeTable table, int color, int from, int to) {
+        List<Span> spans = new ArrayList<>();
+        int[] active = new int[16];
+        int activeCount = 0;
+
+        // Рёбра, начавшиеся до полосы и пересекающие её первую строку
+        int next = table.firstStartingAfter(from);
+        for (int e = 0; e < next; e++) {
+            if (table.yMax(e) > from) {
+                active = append(active, activeCount++, e);
+            }
+        }
+
+        int[] xs = new int[active.length];
+        for (int y = from; y < to; y++) {
+            while (next < table.size() && table.yMin(next) <= y) {
+                active = append(active, activeCount++, next++);
+            }
+            int kept = 0;
+            for (int i = 0; i < activeCount; i++) {
+                if (table.yMax(active[i]) > y) {
+                    active[kept++] = active[i];
+                }
+            }
+            activeCount = kept;
+
+            if (xs.length < activeCount) {
+                xs = new int[active.length];
+            }
+            for (int i = 0; i < activeCount; i++) {
+                xs[i] = table.intercept(active[i], y);
+            }
+            Arrays.sort(xs, 0, activeCount);
+            for (int i = 0; i < activeCount - 1; i += 2) {
+                spans.add(new Span(y, xs[i], xs[i + 1], color));
+            }
+        }
+        return spans;
+    }
+
+    private static int[] append(int[] array, int size, int value) {
+        if (size == array.length) {
+            array = Arrays.copyOf(array, size * 2);
+        }
+        array[size] = value;
+        return array;
+    }
+
+    private static class Band extends RecursiveTask<List<Span>> {
+        private final EdgeTable table;
+        private final int color, from, to, bandRows;
+
+        Band(EdgeTable table, int color, int from, int to, int bandRows) {
+            this.table = table;
+            this.color = color;
+            this.from = from;
+            this.to = to;
+            this.bandRows = bandRows;
+        }
+
+        @Override
+        protected List<Span> compute() {
+            if (to - from <= bandRows) {
+                return fillRows(table, color, from, to);
+            }
+            int middle = from + (to - from) / 2;
+            Band upper = new Band(table, color, middle, to, bandRows);
+            upper.fork();
+            List<Span> spans = new Band(table, color, from, middle, bandRows).compute();
+            spans.addAll(upper.join());
+            return spans;
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package by.lupach.drawingeditor.models.polygons;
+
+import by.lupach.drawingeditor.models.Pixel;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Выпуклая оболочка больших множеств точек на примитивных массивах координат.
+ *
+ * 1. Отсев Акла–Туссена: находятся крайние точки в восьми направлениях (по x, y, x + y, x - y),
+ *    и все точки строго внутри образованного ими восьмиугольника отбрасываются — вершинами оболочки
+ *    они быть не могут. Для случайных облаков точек остаётся малая доля входа.
+ * 2. Оставшиеся точки упаковываются в long (x в старших битах, y в младших), сортируются
+ *    Arrays.parallelSort, и оболочка строится монотонными цепочками Эндрю за линейное время.
+ * Начиная с parallelThreshold точек поиск крайних точек и отсев выполняются в ForkJoinPool.
+ */
+public class ConvexHullEngine {
+    // Меньше этого числа точек на подзадачу распараллеливание не окупается
+    private static final int MIN_GRAIN = 1 << 15;
+
+    private final ForkJoinPool pool;
+    private final int parallelThreshold;
+
+    public ConvexHullEngine(ForkJoinPool pool, int parallelThreshold) {
+        this.pool = pool;
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    /**
+     * Вершины оболочки без коллинеарных точек, в порядке обхода от самой левой нижней точки.
+     */
+    public List<Pixel> hull(List<Pixel> points) {
+        int n = points.size();
+        int[] xs = new int[n], ys = new int[n];
+        for (int i = 0; i < n; i++) {
+            xs[i] = points.get(i).getX();
+            ys[i] = points.get(i).getY();
+        }
+        int[] candidates = candidates(xs, ys);
+
+        long[] keys = new long[candidates.length];
+        for (int i = 0; i < candidates.length; i++) {
+            keys[i] = pack(xs[candidates[i]], ys[candidates[i]]);
+        }
+        if (keys.length >= parallelThreshold) {
+            Arrays.parallelSort(keys);
+        } else {
+            Arrays.sort(keys);
+        }
+        return monotoneChain(keys);
+    }
+
+    /**
+     * Отсев Акла–Туссена для исходных объектов: точки, которые могут оказаться вершинами оболочки,
+     * в исходном порядке.
+     */
+    public List<Pixel> filter(List<Pixel> points) {
+        int n = points.size();
+        int[] xs = new int[n], ys = new int[n];
+        for (int i = 0; i < n; i++) {
+            xs[i] = points.get(i).getX();
+            ys[i] = points.get(i).getY();
+        }
+        int[] candidates = candidates(xs, ys);
+        List<Pixel> result = new ArrayList<>(candidates.length);
+        for (int index : candidates) {
+            result.add(points.get(index));
+        }
+        return result;
+    }
+
+    /**
+     * Индексы точек, не лежащих строго внутри восьмиугольника крайних точек.
+     */
+    int[] candidates(int[] xs, int[] ys) {
+        int n = xs.length;
+        if (n == 0) {
+            return new int[0];
+        }
+        int grain = Math.max(MIN_GRAIN, n / (4 * pool.getParallelism()));
+        boolean parallel = n >= parallelThreshold && pool.getParallelism() > 1;
+
+        int[] extremes = parallel ? pool.invoke(new Extremes(xs, ys, 0, n, grain)) : extremes(xs, ys, 0, n);
+        long[] octagon = octagon(xs, ys, extremes);
+        return parallel ? pool.invoke(new Filter(xs, ys, octagon, 0, n, grain)) : filter(xs, ys, octagon, 0, n);
+    }
+
+    // Индексы точек с минимальными и максимальными y, x - y, x, x + y (по 2 на направление)
+    private static int[] extremes(int[] xs, int[] ys, int from, int to) {
+        int[] best = new int[8];
+        Arrays.fill(best, from);
+        for (int i = from + 1; i < to; i++) {
+            for (int d = 0; d < 8; d++) {
+                if (better(xs, ys, d, i, best[d])) {
+                    best[d] = i;
+                }
+            }
+        }
+        return best;
+    }
+
+    private static int[] mergeExtremes(int[] xs, int[] ys, int[] a, int[] b) {
+        for (int d = 0; d < 8; d++) {
+            if (better(xs, ys, d, b[d], a[d])) {
+                a[d] = b[d];
+            }
+        }
+        return a;
+    }
+
+    /*
+     * Направления обхода против часовой стрелки (ось y вверх): -y, (1, -1), +x, (1, 1), +y, (-1, 1), -x, (-1, -1).
+     * Крайние точки в направлениях, упорядоченных по углу, образуют выпуклый многоугольник в том же порядке.
+     */
+    private static boolean better(int[] xs, int[] ys, int direction, int i, int j) {
+        long x = xs[i], y = ys[i], bx = xs[j], by = ys[j];
+        return switch (direction) {
+            case 0 -> y < by;
+            case 1 -> x - y > bx - by;
+            case 2 -> x > bx;
+            case 3 -> x + y > bx + by;
+            case 4 -> y > by;
+            case 5 -> x - y < bx - by;
+            case 6 -> x < bx;
+            default -> x + y < bx + by;
+        };
+    }
+
+    // Вершины восьмиугольника (x, y, x, y, ...) без повторов соседних
+    private static long[] octagon(int[] xs, int[] ys, int[] extremes) {
+        long[] vertices = new long[16];
+        int size = 0;
+        for (int d = 0; d < 8; d++) {
+            long x = xs[extremes[d]], y = ys[extremes[d]];
+            if (size == 0 || vertices[size - 2] != x || vertices[size - 1] != y) {
+                vertices[size++] = x;
+                vertices[size++] = y;
+            }
+        }
+        if (size > 2 && vertices[0] == vertices[size - 2] && vertices[1] == vertices[size - 1]) {
+            size -= 2;
+        }
+        return Arrays.copyOf(vertices, size);
+    }
+
+    private static int[] filter(int[] xs, int[] ys, long[] octagon, int from, int to) {
+        int[] kept = new int[Math.min(to - from, 1024)];
+        int size = 0;
+        for (int i = from; i < to; i++) {
+            if (!strictlyInside(octagon, xs[i], ys[i])) {
+                if (size == kept.length) {
+                    kept = Arrays.copyOf(kept, size * 2);
+                }
+                kept[size++] = i;
+            }
+        }
+        return Arrays.copyOf(kept, size);
+    }
+
+    private static boolean strictlyInside(long[] octagon, long x, long y) {
+        int vertices = octagon.length / 2;
+        if (vertices < 3) {
+            return false;
+        }
+        for (int v = 0; v < vertices; v++) {
+            long ax = octagon[2 * v], ay = octagon[2 * v + 1];
+            int next = (v + 1) % vertices;
+            long bx = octagon[2 * next], by = octagon[2 * next + 1];
+            if ((bx - ax) * (y - ay) - (by - ay) * (x - ax) <= 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Порядок long совпадает с лексикографическим порядком (x, y): у y инвертируется знаковый бит
+    private static long pack(int x, int y) {
+        return (long) x << 32 | (y ^ 0x80000000) & 0xFFFFFFFFL;
+    }
+
+    private static int unpackX(long key) {
+        return (int) (key >> 32);
+    }
+
+    private static int unpackY(long key) {
+        return (int) key ^ 0x80000000;
+    }
+
+    private static List<Pixel> monotoneChain(long[] sorted) {
+        // Повторяющиеся точки идут подряд
+        int n = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (n == 0 || sorted[n - 1] != sorted[i]) {
+                sorted[n++] = sorted[i];
+            }
+        }
+        List<Pixel> result = new ArrayList<>();
+        if (n < 3) {
+            for (int i = 0; i < n; i++) {
+                result.add(new Pixel(unpackX(sorted[i]), unpackY(sorted[i])));
+            }
+            return result;
+        }
+
+        long[] hull = new long[2 * n];
+        int size = 0;
+        for (int i = 0; i < n; i++) {
+            while (size >= 2 && cross(hull[size - 2], hull[size - 1], sorted[i]) <= 0) {
+                size--;
+            }
+            hull[size++] = sorted[i];
+        }
+        int lowerSize = size + 1;
+        for (int i = n - 2; i >= 0; i--) {
+            while (size >= lowerSize && cross(hull[size - 2], hull[size - 1], sorted[i]) <= 0) {
+                size--;
+            }
+            hull[size++] = sorted[i];
+        }
+        // Последняя точка верхней цепочки совпадает с первой точкой нижней
+        for (int i = 0; i < size - 1; i++) {
+            result.add(new Pixel(unpackX(hull[i]), unpackY(hull[i])));
+        }
+        return result;
+    }
+
+    private static long cross(long a, long b, long c) {
+        long ax = unpackX(a), ay = unpackY(a);
+        return (unpackX(b) - ax) * (unpackY(c) - ay) - (unpackY(b) - ay) * (unpackX(c) - ax);
+    }
+
+    private static class Extremes extends RecursiveTask<int[]> {
+        private final int[] xs, ys;
+        private final int from, to, grain;
+
+        Extremes(int[] xs, int[] ys, int from, int to, int grain) {
+            this.xs = xs;
+            this.ys = ys;
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+        }
+
+        @Override
+        protected int[] compute() {
+            if (to - from <= grain) {
+                return extremes(xs, ys, from, to);
+            }
+            int middle = (from + to) >>> 1;
+            Extremes right = new Extremes(xs, ys, middle, to, grain);
+            right.fork();
+            int[] left = new Extremes(xs, ys, from, middle, grain).compute();
+            return mergeExtremes(xs, ys, left, right.join());
+        }
+    }
+
+    private static class Filter extends RecursiveTask<int[]> {
+        private final int[] xs, ys;
+        private final long[] octagon;
+        private final int from, to, grain;
+
+        Filter(int[] xs, int[] ys, long[] octagon, int from, int to, int grain) {
+            this.xs = xs;
+            this.ys = ys;
+            this.octagon = octagon;
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+        }
+
+        @Override
+        protected int[] compute() {
+            if (to - from <= grain) {
+                return filter(xs, ys, octagon, from, to);
+            }
+            int middle = (from + to) >>> 1;
+            Filter right = new Filter(xs, ys, octagon, middle, to, grain);
+            right.fork();
+            int[] left = new Filter(xs, ys, octagon, from, middle, grain).compute();
+            int[] rightKept = right.join();
+            int[] kept = Arrays.copyOf(left, left.length + rightKept.length);
+            System.arraycopy(rightKept, 0, kept, left.length, rightKept.length);
+            return kept;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package by.lupach.drawingeditor.models.polygons;
+
+import by.lupach.drawingeditor.models.Pixel;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Равномерная сетка квадратных ячеек над ограничивающим прямоугольником многоугольника.
+ *
+ * Ребро k соединяет вершины k и k - 1 и записывается в каждую ячейку, через которую проходит.
+ * Ячейки отрезка перебираются по столбцам сетки: в каждом столбце берётся диапазон строк между
+ * ординатами отрезка на границах столбца, с небольшим запасом на округление. Точка пересечения
+ * отрезка с ребром лежит в ячейке, которую перебирают оба, поэтому проверять достаточно рёбер
+ * из ячеек отрезка. Ячеек примерно столько же, сколько рёбер; рёбра ячейки c лежат в
+ * edges[cellOffsets[c] .. cellOffsets[c + 1]).
+ */
+public class EdgeGrid {
+    // Запас в долях ячейки, чтобы ошибка округления не потеряла ячейку на границе
+    private static final double EPSILON = 1e-6;
+
+    /**
+     * Обработчик ребра; возвращает true, чтобы прекратить перебор.
+     */
+    @FunctionalInterface
+    public interface EdgeVisitor {
+        boolean visit(int edge);
+    }
+
+    private final int minX, minY;
+    private final int cellSize;
+    private final int columns, rows;
+    private final int[] cellOffsets;
+    private final int[] edges;
+
+    public EdgeGrid(List<Pixel> polygon) {
+        int n = polygon.size();
+        int minX = Integer.MAX_VALUE, maxX = Integer.MIN_VALUE;
+        int minY = Integer.MAX_VALUE, maxY = Integer.MIN_VALUE;
+        for (Pixel point : polygon) {
+            minX = Math.min(minX, point.getX());
+            maxX = Math.max(maxX, point.getX());
+            minY = Math.min(minY, point.getY());
+            maxY = Math.max(maxY, point.getY());
+        }
+        this.minX = minX;
+        this.minY = minY;
+        long width = n == 0 ? 1 : (long) maxX - minX + 1;
+        long height = n == 0 ? 1 : (long) maxY - minY + 1;
+        cellSize = (int) Math.min(Math.max(width, height),
+                Math.max(1, (long) Math.ceil(Math.sqrt((double) width * height / Math.max(1, n)))));
+        columns = (int) ((width + cellSize - 1) / cellSize);
+        rows = (int) ((height + cellSize - 1) / cellSize);
+        cellOffsets = new int[columns * rows + 1];
+
+        for (int k = 0; k < n; k++) {
+            Pixel p1 = polygon.get(k), p2 = polygon.get((k + n - 1) % n);
+            forEachCell(p1.getX(), p1.getY(), p2.getX(), p2.getY(), cell -> {
+                cellOffsets[cell + 1]++;
+                return false;
+            });
+        }
+        for (int cell = 0; cell < columns * rows; cell++) {
+            cellOffsets[cell + 1] += cellOffsets[cell];
+        }
+        edges = new int[cellOffsets[columns * rows]];
+        int[] next = Arrays.copyOf(cellOffsets, columns * rows);
+        for (int k = 0; k < n; k++) {
+            Pixel p1 = polygon.get(k), p2 = polygon.get((k + n - 1) % n);
+            int edge = k;
+            forEachCell(p1.getX(), p1.getY(), p2.getX(), p2.getY(), cell -> {
+                edges[next[cell]++] = edge;
+                return false;
+            });
+        }
+    }
+
+    /**
+     * Перебирает рёбра ячеек, через которые проходит отрезок (ax, ay)-(bx, by). Ребро из нескольких таких
+     * ячеек может попасться несколько раз. Возвращает true, если обработчик прервал перебор.
+     */
+    public boolean anyEdge(int ax, int ay, int bx, int by, EdgeVisitor visitor) {
+        return forEachCell(ax, ay, bx, by, cell -> {
+            for (int i = cellOffsets[cell]; i < cellOffsets[cell + 1]; i++) {
+                if (visitor.visit(edges[i])) {
+                    return true;
+                }
+            }
+            return false;
+        });
+    }
+
+    // Ячейки отрезка в пределах сетки по столбцам; visitor получает номер ячейки row * columns + column
+    private boolean forEachCell(int ax, int ay, int bx, int by, EdgeVisitor visitor) {
+        if (ax > bx) {
+            int x = ax, y = ay;
+            ax = bx;
+            ay = by;
+            bx = x;
+            by = y;
+        }
+        int firstColumn = (int) Math.max(0, Math.floorDiv((long) ax - minX, cellSize));
+        int lastColumn = (int) Math.min(columns - 1, Math.floorDiv((long) bx - minX, cellSize));
+        double slope = ax == bx ? 0 : ((double) by - ay) / ((double) bx - ax);
+        for (int column = firstColumn; column <= lastColumn; column++) {
+            double y1, y2;
+            if (ax == bx) {
+                y1 = ay;
+                y2 = by;
+            } else {
+                double left = Math.max(ax, (double) minX + (long) column * cellSize);
+                double right = Math.min(bx, (double) minX + (long) (column + 1) * cellSize);
+                y1 = ay + (left - ax) * slope;
+                y2 = ay + (right - ax) * slope;
+            }
+            double low = (Math.min(y1, y2) - minY) / cellSize - EPSILON;
+            double high = (Math.max(y1, y2) - minY) / cellSize + EPSILON;
+            int firstRow = (int) Math.max(0, Math.floor(low));
+            int lastRow = (int) Math.min(rows - 1, Math.floor(high));
+            for (int row = firstRow; row <= lastRow; row++) {
+                if (visitor.visit(row * columns + column)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
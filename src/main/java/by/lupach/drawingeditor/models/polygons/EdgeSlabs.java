@@ -0,0 +1,85 @@
+package by.lupach.drawingeditor.models.polygons;
+
+import by.lupach.drawingeditor.models.Pixel;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Индекс рёбер многоугольника по горизонтальным полосам одинаковой высоты.
+ *
+ * Ребро k соединяет вершины k и k - 1 (в том же порядке, что и в PolygonService.isPointInsidePolygon)
+ * и записывается во все полосы, которые пересекает отрезок [min(y), max(y)] его концов. Высота полосы
+ * выбирается так, чтобы ребро в среднем попадало в пару полос, поэтому индекс занимает O(n) памяти.
+ * Рёбра полосы s лежат в edges[slabOffsets[s] .. slabOffsets[s + 1]).
+ */
+public class EdgeSlabs {
+    private final int minY;
+    private final int slabHeight;
+    private final int[] slabOffsets;
+    private final int[] edges;
+
+    public EdgeSlabs(List<Pixel> polygon) {
+        int n = polygon.size();
+        int minY = Integer.MAX_VALUE, maxY = Integer.MIN_VALUE;
+        long spans = 0;
+        for (int k = 0; k < n; k++) {
+            int y1 = polygon.get(k).getY(), y2 = polygon.get((k + n - 1) % n).getY();
+            minY = Math.min(minY, y1);
+            maxY = Math.max(maxY, y1);
+            spans += Math.abs((long) y2 - y1) + 1;
+        }
+        this.minY = minY;
+        long rows = n == 0 ? 0 : (long) maxY - minY + 1;
+        slabHeight = (int) Math.min(Math.max(1, rows), Math.max(1, spans / Math.max(1, 2L * n)));
+        int slabs = (int) ((rows + slabHeight - 1) / slabHeight);
+        slabOffsets = new int[slabs + 1];
+
+        for (int k = 0; k < n; k++) {
+            int from = slab(Math.min(polygon.get(k).getY(), polygon.get((k + n - 1) % n).getY()));
+            int to = slab(Math.max(polygon.get(k).getY(), polygon.get((k + n - 1) % n).getY()));
+            for (int s = from; s <= to; s++) {
+                slabOffsets[s + 1]++;
+            }
+        }
+        for (int s = 0; s < slabs; s++) {
+            slabOffsets[s + 1] += slabOffsets[s];
+        }
+        edges = new int[slabOffsets[slabs]];
+        int[] next = Arrays.copyOf(slabOffsets, slabs);
+        for (int k = 0; k < n; k++) {
+            int from = slab(Math.min(polygon.get(k).getY(), polygon.get((k + n - 1) % n).getY()));
+            int to = slab(Math.max(polygon.get(k).getY(), polygon.get((k + n - 1) % n).getY()));
+            for (int s = from; s <= to; s++) {
+                edges[next[s]++] = k;
+            }
+        }
+    }
+
+    public int slabCount() {
+        return slabOffsets.length - 1;
+    }
+
+    /**
+     * Полоса строки y с ограничением до первой и последней полосы.
+     */
+    public int slabOf(int y) {
+        return Math.max(0, Math.min(slabCount() - 1, slab(y)));
+    }
+
+    public int slabStart(int slab) {
+        return slabOffsets[slab];
+    }
+
+    public int slabEnd(int slab) {
+        return slabOffsets[slab + 1];
+    }
+
+    public int edge(int index) {
+        return edges[index];
+    }
+
+    private int slab(int y) {
+        return (int) (((long) y - minY) / slabHeight);
+    }
+}
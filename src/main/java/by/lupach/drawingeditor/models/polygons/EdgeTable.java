@@ -0,0 +1,101 @@
+package by.lupach.drawingeditor.models.polygons;
+
+import by.lupach.drawingeditor.models.Pixel;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Таблица рёбер многоугольника, упорядоченная по нижней строке ребра.
+ *
+ * Ребро (x1, y1)-(x2, y2) пересекает строки [yMin, yMax) — то же полуоткрытое правило,
+ * что и в PolygonService.scanlineFill; горизонтальные рёбра в таблицу не попадают.
+ * Таблица неизменяема и может читаться из нескольких потоков.
+ */
+public class EdgeTable {
+    private final int count;
+    private final int[] x1, y1, x2, y2;
+    private final int[] yMin, yMax;
+    private final int minY, maxY;
+
+    public EdgeTable(List<Pixel> polygon) {
+        int n = polygon.size();
+        int minY = Integer.MAX_VALUE, maxY = Integer.MIN_VALUE;
+        Integer[] order = new Integer[n];
+        int edges = 0;
+        for (int i = 0; i < n; i++) {
+            Pixel point = polygon.get(i);
+            minY = Math.min(minY, point.getY());
+            maxY = Math.max(maxY, point.getY());
+            if (point.getY() != polygon.get((i + 1) % n).getY()) {
+                order[edges++] = i;
+            }
+        }
+        this.minY = minY;
+        this.maxY = maxY;
+        Arrays.sort(order, 0, edges, (a, b) -> Integer.compare(
+                Math.min(polygon.get(a).getY(), polygon.get((a + 1) % n).getY()),
+                Math.min(polygon.get(b).getY(), polygon.get((b + 1) % n).getY())));
+
+        count = edges;
+        x1 = new int[count];
+        y1 = new int[count];
+        x2 = new int[count];
+        y2 = new int[count];
+        yMin = new int[count];
+        yMax = new int[count];
+        for (int e = 0; e < count; e++) {
+            Pixel point1 = polygon.get(order[e]);
+            Pixel point2 = polygon.get((order[e] + 1) % n);
+            x1[e] = point1.getX();
+            y1[e] = point1.getY();
+            x2[e] = point2.getX();
+            y2[e] = point2.getY();
+            yMin[e] = Math.min(y1[e], y2[e]);
+            yMax[e] = Math.max(y1[e], y2[e]);
+        }
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public int getMinY() {
+        return minY;
+    }
+
+    public int getMaxY() {
+        return maxY;
+    }
+
+    public int yMin(int edge) {
+        return yMin[edge];
+    }
+
+    public int yMax(int edge) {
+        return yMax[edge];
+    }
+
+    /**
+     * Индекс первого ребра, нижняя строка которого больше y (все предыдущие начинаются не выше y).
+     */
+    public int firstStartingAfter(int y) {
+        int lo = 0, hi = count;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (yMin[mid] <= y) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Абсцисса пересечения ребра со строкой y с целочисленным делением, как в построчной заливке.
+     */
+    public int intercept(int edge, int y) {
+        return x1[edge] + (y - y1[edge]) * (x2[edge] - x1[edge]) / (y2[edge] - y1[edge]);
+    }
+}
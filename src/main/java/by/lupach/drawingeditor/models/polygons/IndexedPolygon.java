@@ -0,0 +1,54 @@
+package by.lupach.drawingeditor.models.polygons;
+
+import by.lupach.drawingeditor.models.Pixel;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Многоугольник реестра вместе с предвычисленными данными для повторяющихся запросов:
+ * ограничивающим прямоугольником, выпуклостью, выпуклой оболочкой, таблицей внутренних интервалов строк
+ * и индексом рёбер по полосам для проверки точек, сеткой рёбер для проверки отрезков.
+ * Объект неизменяем и читается из нескольких потоков без синхронизации.
+ */
+@Getter
+public class IndexedPolygon {
+    // Таблица интервалов хранит пересечение каждого ребра с каждой его строкой; больше этого она не строится
+    private static final long MAX_CROSSINGS = 1 << 20;
+
+    private final List<Pixel> vertices;
+    private final int minX, maxX, minY, maxY;
+    private final boolean convex;
+    private final List<Pixel> hull;
+    // null, если у многоугольника слишком много пересечений со строками: тогда точки проверяются по полосам
+    private final ScanlineIntervals inside;
+    private final EdgeSlabs edges;
+    private final EdgeGrid grid;
+
+    public IndexedPolygon(List<Pixel> vertices, boolean convex, List<Pixel> hull) {
+        this.vertices = List.copyOf(vertices);
+        this.convex = convex;
+        this.hull = List.copyOf(hull);
+
+        int minX = Integer.MAX_VALUE, maxX = Integer.MIN_VALUE;
+        int minY = Integer.MAX_VALUE, maxY = Integer.MIN_VALUE;
+        long crossings = 0;
+        int n = vertices.size();
+        for (int i = 0; i < n; i++) {
+            Pixel point = vertices.get(i);
+            minX = Math.min(minX, point.getX());
+            maxX = Math.max(maxX, point.getX());
+            minY = Math.min(minY, point.getY());
+            maxY = Math.max(maxY, point.getY());
+            crossings += Math.abs((long) point.getY() - vertices.get((i + 1) % n).getY());
+        }
+        this.minX = minX;
+        this.maxX = maxX;
+        this.minY = minY;
+        this.maxY = maxY;
+
+        inside = crossings <= MAX_CROSSINGS ? new ScanlineIntervals(this.vertices, minY, maxY) : null;
+        edges = new EdgeSlabs(this.vertices);
+        grid = new EdgeGrid(this.vertices);
+    }
+}
@@ -1,6 +1,8 @@
 package by.lupach.drawingeditor.models.polygons;
 
+import by.lupach.drawingeditor.models.ArgbColorJson;
 import by.lupach.drawingeditor.models.Pixel;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import lombok.Data;
 
 import java.util.List;
@@ -9,6 +11,7 @@ import java.util.List;
 public class PolygonFillRequest {
     private List<Pixel> polygon;
     private Pixel seed;
-    private String boundaryColor;
+    @JsonDeserialize(using = ArgbColorJson.Deserializer.class)
+    private int boundaryColor;
     private String algorithm;
 }
\ No newline at end of file
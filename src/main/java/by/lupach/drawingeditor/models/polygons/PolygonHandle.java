@@ -0,0 +1,17 @@
+package by.lupach.drawingeditor.models.polygons;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Ответ на регистрацию многоугольника: идентификатор, по которому клиент затем отправляет только запросы.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PolygonHandle {
+    private String polygonId;
+    private int vertexCount;
+    private boolean convex;
+}
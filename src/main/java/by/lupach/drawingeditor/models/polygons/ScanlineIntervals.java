@@ -0,0 +1,165 @@
+package by.lupach.drawingeditor.models.polygons;
+
+import by.lupach.drawingeditor.models.Pixel;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Таблица внутренних интервалов многоугольника по строкам развёртки.
+ *
+ * Для каждой строки y хранятся отсортированные абсциссы пересечений рёбер — те же целые значения,
+ * что вычисляет проверка чётности PolygonService.isPointInsidePolygon. Точка (x, y) лежит внутри,
+ * если число пересечений, не превосходящих x, нечётно, то есть внутренние интервалы строки —
+ * [c0, c1 - 1], [c2, c3 - 1], ... Проверка точки — двоичный поиск по пересечениям строки
+ * вместо обхода всех рёбер.
+ *
+ * Пересечения всех строк лежат подряд в одном массиве: строка y занимает
+ * crossings[rowOffsets[y - firstRow] .. rowOffsets[y - firstRow + 1]); совпадающих значений в строке нет.
+ */
+public class ScanlineIntervals {
+    private final int firstRow;
+    private final int[] rowOffsets;
+    private final int[] crossings;
+    // Ограничивающий прямоугольник внутренних точек; пустой, если minX > maxX
+    private int minX = Integer.MAX_VALUE, maxX = Integer.MIN_VALUE;
+    private int minY = Integer.MAX_VALUE, maxY = Integer.MIN_VALUE;
+
+    /**
+     * Строит таблицу для строк [minRow, maxRow]; строки за этими пределами считаются внешними.
+     */
+    public ScanlineIntervals(List<Pixel> polygon, int minRow, int maxRow) {
+        int n = polygon.size();
+        int polygonMinY = Integer.MAX_VALUE, polygonMaxY = Integer.MIN_VALUE;
+        for (Pixel point : polygon) {
+            polygonMinY = Math.min(polygonMinY, point.getY());
+            polygonMaxY = Math.max(polygonMaxY, point.getY());
+        }
+        firstRow = Math.max(minRow, polygonMinY);
+        int lastRow = Math.min(maxRow, polygonMaxY);
+        int rows = (int) Math.max(0, (long) lastRow - firstRow + 1);
+        rowOffsets = new int[rows + 1];
+
+        // Таблица рёбер: ребро пересекает строки [min(y1, y2), max(y1, y2)), горизонтальные не пересекают
+        for (int i = 0, j = n - 1; i < n; j = i++) {
+            int from = Math.max(firstRow, Math.min(polygon.get(i).getY(), polygon.get(j).getY()));
+            int to = Math.min(lastRow + 1, Math.max(polygon.get(i).getY(), polygon.get(j).getY()));
+            for (int y = from; y < to; y++) {
+                rowOffsets[y - firstRow + 1]++;
+            }
+        }
+        for (int row = 0; row < rows; row++) {
+            rowOffsets[row + 1] += rowOffsets[row];
+        }
+
+        crossings = new int[rowOffsets[rows]];
+        int[] next = Arrays.copyOf(rowOffsets, rows);
+        for (int i = 0, j = n - 1; i < n; j = i++) {
+            Pixel p1 = polygon.get(i);
+            Pixel p2 = polygon.get(j);
+            int from = Math.max(firstRow, Math.min(p1.getY(), p2.getY()));
+            int to = Math.min(lastRow + 1, Math.max(p1.getY(), p2.getY()));
+            for (int y = from; y < to; y++) {
+                // Целочисленное деление как в isPointInsidePolygon, чтобы результаты совпадали до пикселя
+                crossings[next[y - firstRow]++] =
+                        (p2.getX() - p1.getX()) * (y - p1.getY()) / (p2.getY() - p1.getY()) + p1.getX();
+            }
+        }
+        // Пары равных пересечений (касающиеся интервалы самопересекающегося многоугольника) не меняют
+        // чётность ни для одной точки; после их удаления интервалы строки максимальны и не соприкасаются
+        int size = 0;
+        for (int row = 0; row < rows; row++) {
+            int from = rowOffsets[row], to = rowOffsets[row + 1];
+            Arrays.sort(crossings, from, to);
+            rowOffsets[row] = size;
+            for (int i = from; i < to; i++) {
+                if (size > rowOffsets[row] && crossings[size - 1] == crossings[i]) {
+                    size--;
+                } else {
+                    crossings[size++] = crossings[i];
+                }
+            }
+        }
+        rowOffsets[rows] = size;
+
+        for (int row = 0; row < rows; row++) {
+            if (rowOffsets[row] < rowOffsets[row + 1]) {
+                minX = Math.min(minX, crossings[rowOffsets[row]]);
+                maxX = Math.max(maxX, crossings[rowOffsets[row + 1] - 1] - 1);
+                minY = Math.min(minY, firstRow + row);
+                maxY = firstRow + row;
+            }
+        }
+    }
+
+    public int getMinX() {
+        return minX;
+    }
+
+    public int getMaxX() {
+        return maxX;
+    }
+
+    public int getMinY() {
+        return minY;
+    }
+
+    public int getMaxY() {
+        return maxY;
+    }
+
+    public boolean contains(int x, int y) {
+        int row = y - firstRow;
+        if (row < 0 || row >= rowOffsets.length - 1) {
+            return false;
+        }
+        return (countNotAbove(row, x) & 1) == 1;
+    }
+
+    /**
+     * Левый конец внутреннего интервала, содержащего точку (x, y); точка должна быть внутри.
+     */
+    public int intervalStart(int x, int y) {
+        int row = y - firstRow;
+        return crossings[rowOffsets[row] + countNotAbove(row, x) - 1];
+    }
+
+    /**
+     * Правый конец (включительно) внутреннего интервала, содержащего точку (x, y); точка должна быть внутри.
+     */
+    public int intervalEnd(int x, int y) {
+        int row = y - firstRow;
+        return crossings[rowOffsets[row] + countNotAbove(row, x)] - 1;
+    }
+
+    /**
+     * Наименьшая внутренняя точка строки y, не левее x; Integer.MAX_VALUE, если такой нет.
+     */
+    public int nextInside(int x, int y) {
+        int row = y - firstRow;
+        if (row < 0 || row >= rowOffsets.length - 1) {
+            return Integer.MAX_VALUE;
+        }
+        int count = countNotAbove(row, x);
+        if ((count & 1) == 1) {
+            return x;
+        }
+        int next = rowOffsets[row] + count;
+        return next < rowOffsets[row + 1] ? crossings[next] : Integer.MAX_VALUE;
+    }
+
+    // Число пересечений строки, не превосходящих x (двоичный поиск верхней границы)
+    private int countNotAbove(int row, int x) {
+        int lo = rowOffsets[row], hi = rowOffsets[row + 1];
+        int start = lo;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (crossings[mid] <= x) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo - start;
+    }
+}
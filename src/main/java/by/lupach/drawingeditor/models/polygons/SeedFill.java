@@ -0,0 +1,220 @@
+package by.lupach.drawingeditor.models.polygons;
+
+import by.lupach.drawingeditor.models.CancellationToken;
+import by.lupach.drawingeditor.models.raster.FrameBuffer;
+import by.lupach.drawingeditor.models.raster.PixelSink;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Заливка с затравкой на примитивных структурах.
+ *
+ * Заливаемая область — 4-связная компонента точки затравки среди пикселей, которые лежат внутри
+ * многоугольника и на холсте имеют цвет затравки (и не цвет границы). Посещённые пиксели отмечаются
+ * в битовой карте размером с ограничивающий прямоугольник многоугольника, стек хранит упакованные int.
+ * Экземпляры берутся из пула потока через {@link #acquire()} и возвращаются в {@link #close()},
+ * поэтому при повторных заливках память не выделяется.
+ */
+public final class SeedFill implements AutoCloseable {
+    private static final int INITIAL_STACK = 1024;
+    // Больше холста 1280x720 битовая карта не бывает, но огромный стек пул не удерживает
+    private static final int MAX_POOLED_STACK = 1 << 20;
+    // Попиксельная заливка проверяет отмену раз в столько извлечённых из стека пикселей
+    private static final int CANCELLATION_CHECK_MASK = 1023;
+    private static final ThreadLocal<ArrayDeque<SeedFill>> POOL = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private long[] visited = new long[0];
+    private int[] stack = new int[INITIAL_STACK];
+    private int stackSize;
+
+    // Окно битовой карты: пересечение ограничивающего прямоугольника многоугольника с холстом
+    private int left, top, right, bottom, width;
+
+    private ScanlineIntervals inside;
+    private FrameBuffer canvas;
+    private int targetColor, boundaryColor;
+
+    private SeedFill() {
+    }
+
+    public static SeedFill acquire() {
+        SeedFill fill = POOL.get().pollFirst();
+        return fill != null ? fill : new SeedFill();
+    }
+
+    /**
+     * Попиксельная заливка: из стека извлекается пиксель, закрашивается, и в стек кладутся его 4 соседа.
+     */
+    public void fillPixels(int seedX, int seedY, ScanlineIntervals inside, FrameBuffer canvas,
+                           int boundaryColor, int argb, PixelSink sink) {
+        fillPixels(seedX, seedY, inside, canvas, boundaryColor, argb, sink, CancellationToken.NONE);
+    }
+
+    public void fillPixels(int seedX, int seedY, ScanlineIntervals inside, FrameBuffer canvas,
+                           int boundaryColor, int argb, PixelSink sink, CancellationToken cancellation) {
+        if (!start(seedX, seedY, inside, canvas, boundaryColor)) {
+            return;
+        }
+        push(seedX, seedY);
+        mark(seedX, seedY);
+        int popped = 0;
+        while (stackSize > 0) {
+            if ((++popped & CANCELLATION_CHECK_MASK) == 0) {
+                cancellation.throwIfCancelled();
+            }
+            int y = stack[--stackSize];
+            int x = stack[--stackSize];
+            sink.plot(x, y, argb);
+            visit(x + 1, y);
+            visit(x - 1, y);
+            visit(x, y + 1);
+            visit(x, y - 1);
+        }
+    }
+
+    /**
+     * Построчная заливка: из стека извлекается затравка, от неё закрашивается интервал строки,
+     * а на соседних строках под ним в стек кладётся по одной затравке на каждый незакрашенный отрезок.
+     */
+    public void fillSpans(int seedX, int seedY, ScanlineIntervals inside, FrameBuffer canvas,
+                          int boundaryColor, int argb, List<Span> spans) {
+        fillSpans(seedX, seedY, inside, canvas, boundaryColor, argb, spans, CancellationToken.NONE);
+    }
+
+    // Отмена проверяется на каждом интервале строки
+    public void fillSpans(int seedX, int seedY, ScanlineIntervals inside, FrameBuffer canvas,
+                          int boundaryColor, int argb, List<Span> spans, CancellationToken cancellation) {
+        if (!start(seedX, seedY, inside, canvas, boundaryColor)) {
+            return;
+        }
+        push(seedX, seedY);
+        while (stackSize > 0) {
+            cancellation.throwIfCancelled();
+            int y = stack[--stackSize];
+            int x = stack[--stackSize];
+            if (isVisited(x, y)) {
+                continue;
+            }
+
+            // Интервал строки не выходит за внутренний интервал многоугольника
+            int minX = Math.max(left, inside.intervalStart(x, y));
+            int maxX = Math.min(right, inside.intervalEnd(x, y));
+            int xLeft = x;
+            while (xLeft > minX && isOpen(xLeft - 1, y)) {
+                xLeft--;
+            }
+            int xRight = x;
+            while (xRight < maxX && isOpen(xRight + 1, y)) {
+                xRight++;
+            }
+            for (int i = xLeft; i <= xRight; i++) {
+                mark(i, y);
+            }
+            spans.add(new Span(y, xLeft, xRight, argb));
+
+            if (y > top) {
+                pushRuns(xLeft, xRight, y - 1);
+            }
+            if (y < bottom) {
+                pushRuns(xLeft, xRight, y + 1);
+            }
+        }
+    }
+
+    // Кладёт в стек начало каждого незакрашенного заливаемого отрезка строки y в пределах [from, to]
+    private void pushRuns(int from, int to, int y) {
+        int x = from;
+        while (x <= to) {
+            x = inside.nextInside(x, y);
+            if (x > to) {
+                return;
+            }
+            int end = Math.min(to, inside.intervalEnd(x, y));
+            while (x <= end) {
+                if (!isOpen(x, y)) {
+                    x++;
+                    continue;
+                }
+                push(x, y);
+                while (x <= end && isOpen(x, y)) {
+                    x++;
+                }
+            }
+        }
+    }
+
+    private boolean start(int seedX, int seedY, ScanlineIntervals inside, FrameBuffer canvas, int boundaryColor) {
+        this.inside = inside;
+        this.canvas = canvas;
+        this.boundaryColor = boundaryColor;
+        left = Math.max(0, inside.getMinX());
+        right = Math.min(canvas.getWidth() - 1, inside.getMaxX());
+        top = Math.max(0, inside.getMinY());
+        bottom = Math.min(canvas.getHeight() - 1, inside.getMaxY());
+        if (seedX < left || seedX > right || seedY < top || seedY > bottom || !inside.contains(seedX, seedY)) {
+            return false;
+        }
+        targetColor = canvas.get(seedX, seedY);
+        if (targetColor == boundaryColor) {
+            return false;
+        }
+
+        width = right - left + 1;
+        int words = (int) (((long) width * (bottom - top + 1) + 63) >>> 6);
+        if (visited.length < words) {
+            visited = new long[words];
+        } else {
+            Arrays.fill(visited, 0, words, 0);
+        }
+        stackSize = 0;
+        return true;
+    }
+
+    private void visit(int x, int y) {
+        if (x >= left && x <= right && y >= top && y <= bottom && !isVisited(x, y)
+                && isFillable(x, y) && inside.contains(x, y)) {
+            mark(x, y);
+            push(x, y);
+        }
+    }
+
+    // Пиксель ещё не закрашен и совпадает с цветом затравки; принадлежность многоугольнику проверяет вызывающий
+    private boolean isOpen(int x, int y) {
+        return !isVisited(x, y) && isFillable(x, y);
+    }
+
+    private boolean isFillable(int x, int y) {
+        int color = canvas.get(x, y);
+        return color != boundaryColor && color == targetColor;
+    }
+
+    private boolean isVisited(int x, int y) {
+        int bit = (y - top) * width + (x - left);
+        return (visited[bit >>> 6] & 1L << bit) != 0;
+    }
+
+    private void mark(int x, int y) {
+        int bit = (y - top) * width + (x - left);
+        visited[bit >>> 6] |= 1L << bit;
+    }
+
+    private void push(int x, int y) {
+        if (stackSize + 2 > stack.length) {
+            stack = Arrays.copyOf(stack, stack.length * 2);
+        }
+        stack[stackSize++] = x;
+        stack[stackSize++] = y;
+    }
+
+    @Override
+    public void close() {
+        inside = null;
+        canvas = null;
+        stackSize = 0;
+        if (stack.length <= MAX_POOLED_STACK) {
+            POOL.get().offerFirst(this);
+        }
+    }
+}
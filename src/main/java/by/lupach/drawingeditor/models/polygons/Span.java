@@ -0,0 +1,26 @@
+package by.lupach.drawingeditor.models.polygons;
+
+import by.lupach.drawingeditor.models.ArgbColorJson;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Горизонтальный интервал строки развёртки [xStart, xEnd] одного цвета.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Span {
+    private int y;
+    @JsonProperty("xStart")
+    private int xStart;
+    @JsonProperty("xEnd")
+    private int xEnd;
+    @JsonSerialize(using = ArgbColorJson.Serializer.class)
+    @JsonDeserialize(using = ArgbColorJson.Deserializer.class)
+    private int color;
+}
@@ -0,0 +1,8 @@
+package by.lupach.drawingeditor.models.raster;
+
+import lombok.Data;
+
+@Data
+public class CanvasJoinRequest {
+    private String canvasId;
+}
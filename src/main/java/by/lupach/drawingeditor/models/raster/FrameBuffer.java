@@ -0,0 +1,99 @@
+package by.lupach.drawingeditor.models.raster;
+
+import by.lupach.drawingeditor.models.ArgbColor;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+
+/**
+ * Растровый холст сеанса: упакованные ARGB-пиксели в прямом (off-heap) буфере.
+ * Изначально холст прозрачный, как и canvas в браузере.
+ */
+public class FrameBuffer {
+    private final int width;
+    private final int height;
+    private final IntBuffer pixels;
+
+    public FrameBuffer(int width, int height) {
+        this(width, height, ByteBuffer.allocateDirect(width * height * Integer.BYTES)
+                .order(ByteOrder.nativeOrder())
+                .asIntBuffer());
+    }
+
+    private FrameBuffer(int width, int height, IntBuffer pixels) {
+        this.width = width;
+        this.height = height;
+        this.pixels = pixels;
+    }
+
+    /**
+     * Копия холста в куче. Её можно читать без блокировки, пока оригинал меняют другие запросы.
+     */
+    public FrameBuffer snapshot() {
+        IntBuffer copy = IntBuffer.allocate(width * height);
+        copy.put(pixels.duplicate().clear());
+        return new FrameBuffer(width, height, copy);
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public boolean contains(int x, int y) {
+        return x >= 0 && x < width && y >= 0 && y < height;
+    }
+
+    /**
+     * Цвет пикселя; за пределами холста — прозрачный.
+     */
+    public int get(int x, int y) {
+        return contains(x, y) ? pixels.get(y * width + x) : 0;
+    }
+
+    /**
+     * Накладывает цвет на пиксель по правилу source-over (как fillRect на canvas).
+     * Возвращает true, если пиксель холста изменился.
+     */
+    public boolean blend(int x, int y, int argb) {
+        if (!contains(x, y)) {
+            return false;
+        }
+        int index = y * width + x;
+        int dst = pixels.get(index);
+        int result = sourceOver(argb, dst);
+        if (result == dst) {
+            return false;
+        }
+        pixels.put(index, result);
+        return true;
+    }
+
+    public void clear() {
+        for (int i = 0, n = width * height; i < n; i++) {
+            pixels.put(i, 0);
+        }
+    }
+
+    static int sourceOver(int src, int dst) {
+        int sa = ArgbColor.alpha(src);
+        if (sa == 0) {
+            return dst;
+        }
+        if (sa == 255) {
+            return src;
+        }
+        int da = ArgbColor.alpha(dst);
+        int dw = da * (255 - sa);               // вес холста, масштаб 255*255
+        int total = sa * 255 + dw;              // итоговая альфа, масштаб 255*255
+        int a = (total + 127) / 255;
+        int r = (ArgbColor.red(src) * sa * 255 + ArgbColor.red(dst) * dw + total / 2) / total;
+        int g = (ArgbColor.green(src) * sa * 255 + ArgbColor.green(dst) * dw + total / 2) / total;
+        int b = (ArgbColor.blue(src) * sa * 255 + ArgbColor.blue(dst) * dw + total / 2) / total;
+        return ArgbColor.argb(a, r, g, b);
+    }
+}
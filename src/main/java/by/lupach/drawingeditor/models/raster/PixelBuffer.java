@@ -0,0 +1,86 @@
+package by.lupach.drawingeditor.models.raster;
+
+import by.lupach.drawingeditor.models.Pixel;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Растущий буфер пикселей на примитивных массивах.
+ * Экземпляры берутся из пула потока через {@link #acquire()} и возвращаются в него в {@link #close()},
+ * поэтому при повторных запросах массивы переиспользуются без выделения памяти.
+ */
+public final class PixelBuffer implements PixelSink, AutoCloseable {
+    private static final int INITIAL_CAPACITY = 1024;
+    // Слишком разросшиеся буферы не удерживаются пулом
+    private static final int MAX_POOLED_CAPACITY = 1 << 20;
+    private static final ThreadLocal<ArrayDeque<PixelBuffer>> POOL = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private int[] xs = new int[INITIAL_CAPACITY];
+    private int[] ys = new int[INITIAL_CAPACITY];
+    private int[] colors = new int[INITIAL_CAPACITY];
+    private int size;
+
+    private PixelBuffer() {
+    }
+
+    public static PixelBuffer acquire() {
+        PixelBuffer buffer = POOL.get().pollFirst();
+        return buffer != null ? buffer : new PixelBuffer();
+    }
+
+    @Override
+    public void plot(int x, int y, int argb) {
+        if (size == xs.length) {
+            int capacity = size * 2;
+            xs = Arrays.copyOf(xs, capacity);
+            ys = Arrays.copyOf(ys, capacity);
+            colors = Arrays.copyOf(colors, capacity);
+        }
+        xs[size] = x;
+        ys[size] = y;
+        colors[size] = argb;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getX(int index) {
+        return xs[index];
+    }
+
+    public int getY(int index) {
+        return ys[index];
+    }
+
+    public int getColor(int index) {
+        return colors[index];
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Преобразование в список {@link Pixel} для JSON-ответов.
+     */
+    public List<Pixel> toPixels() {
+        List<Pixel> pixels = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            pixels.add(new Pixel(xs[i], ys[i], colors[i]));
+        }
+        return pixels;
+    }
+
+    @Override
+    public void close() {
+        size = 0;
+        if (xs.length <= MAX_POOLED_CAPACITY) {
+            POOL.get().offerFirst(this);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package by.lupach.drawingeditor.models.raster;
+
+/**
+ * Приёмник пикселей растеризаторов. Цвет передаётся упакованным ARGB-значением.
+ */
+@FunctionalInterface
+public interface PixelSink {
+    void plot(int x, int y, int argb);
+}
@@ -0,0 +1,17 @@
+package by.lupach.drawingeditor.models.threeD;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Ответ на загрузку объекта: идентификатор, по которому клиент затем отправляет только преобразования.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MeshHandle {
+    private String meshId;
+    private int vertexCount;
+    private int edgeCount;
+}
@@ -0,0 +1,13 @@
+package by.lupach.drawingeditor.models.threeD;
+
+import lombok.Data;
+
+@Data
+public class MeshUploadRequest {
+    // Вершины – двумерный массив [N][4] (однородные координаты)
+    private double[][] vertices;
+    // Рёбра – двумерный массив [M][2]
+    private int[][] edges;
+    // Грани – индексы вершин против часовой стрелки при взгляде снаружи (необязательно)
+    private int[][] faces;
+}
@@ -0,0 +1,43 @@
+package by.lupach.drawingeditor.models.threeD;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 3D-сцена одного WebSocket-сеанса: загруженные объекты по идентификаторам.
+ * Хранится не больше MAX_MESHES объектов, при переполнении вытесняется самый старый.
+ */
+public class Scene {
+    private static final int MAX_MESHES = 16;
+
+    private long lastId;
+    private final Map<String, SceneMesh> meshes = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, SceneMesh> eldest) {
+            return size() > MAX_MESHES;
+        }
+    };
+
+    public synchronized String add(SceneMesh mesh) {
+        String meshId = String.valueOf(++lastId);
+        meshes.put(meshId, mesh);
+        return meshId;
+    }
+
+    public synchronized void put(String meshId, SceneMesh mesh) {
+        meshes.put(meshId, mesh);
+    }
+
+    public synchronized SceneMesh get(String meshId) {
+        SceneMesh mesh = find(meshId);
+        if (mesh == null) {
+            throw new IllegalArgumentException("Unknown mesh: " + meshId);
+        }
+        return mesh;
+    }
+
+    // null, если объекта нет; порядок вытеснения не меняется
+    public synchronized SceneMesh find(String meshId) {
+        return meshes.get(meshId);
+    }
+}
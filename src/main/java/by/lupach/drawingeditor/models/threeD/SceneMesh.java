@@ -0,0 +1,96 @@
+package by.lupach.drawingeditor.models.threeD;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Загруженный объект сцены и накопленная матрица его преобразований.
+ *
+ * Рёбра хранятся без повторов: ребро, общее для двух граней, растеризуется один раз.
+ * Для каждого ребра известны смежные грани (edgeFaces[edgeFaceOffsets[e] .. edgeFaceOffsets[e + 1])),
+ * по ним при отсечении нелицевых граней определяется, видно ли ребро.
+ */
+@Getter
+public class SceneMesh {
+    private final VertexArrays vertices;
+    private final int[][] edges;
+    private final int[][] faces;
+    private final int[] edgeFaceOffsets;
+    private final int[] edgeFaces;
+    // Снимок заменяется целиком, поэтому читается без блокировки
+    private volatile double[] matrix = Matrix4f.identity();
+
+    /**
+     * @param edges рёбра [M][2]; могут отсутствовать, если заданы грани
+     * @param faces грани — индексы вершин против часовой стрелки при взгляде снаружи; могут отсутствовать
+     */
+    public SceneMesh(double[][] vertices, int[][] edges, int[][] faces) {
+        this.vertices = VertexArrays.of(vertices);
+        this.faces = faces == null ? new int[0][] : faces;
+
+        Map<Long, Integer> edgeIndex = new HashMap<>();
+        List<int[]> uniqueEdges = new ArrayList<>();
+        List<int[]> incidences = new ArrayList<>();
+        if (edges != null) {
+            for (int[] edge : edges) {
+                if (edge.length != 2) {
+                    throw new IllegalArgumentException("Edge must have 2 vertices");
+                }
+                addEdge(edge[0], edge[1], edgeIndex, uniqueEdges);
+            }
+        }
+        for (int f = 0; f < this.faces.length; f++) {
+            int[] face = this.faces[f];
+            if (face.length < 3) {
+                throw new IllegalArgumentException("Face must have at least 3 vertices");
+            }
+            for (int i = 0; i < face.length; i++) {
+                int edge = addEdge(face[i], face[(i + 1) % face.length], edgeIndex, uniqueEdges);
+                incidences.add(new int[]{edge, f});
+            }
+        }
+        this.edges = uniqueEdges.toArray(new int[0][]);
+
+        // Смежность рёбер и граней в сжатом виде: подсчёт, префиксные суммы, раскладка
+        edgeFaceOffsets = new int[this.edges.length + 1];
+        for (int[] incidence : incidences) {
+            edgeFaceOffsets[incidence[0] + 1]++;
+        }
+        for (int e = 0; e < this.edges.length; e++) {
+            edgeFaceOffsets[e + 1] += edgeFaceOffsets[e];
+        }
+        edgeFaces = new int[incidences.size()];
+        int[] next = edgeFaceOffsets.clone();
+        for (int[] incidence : incidences) {
+            edgeFaces[next[incidence[0]]++] = incidence[1];
+        }
+    }
+
+    private int addEdge(int a, int b, Map<Long, Integer> edgeIndex, List<int[]> uniqueEdges) {
+        int n = vertices.getCount();
+        if (a < 0 || a >= n || b < 0 || b >= n) {
+            throw new IllegalArgumentException("Edge refers to a missing vertex");
+        }
+        long key = (long) Math.min(a, b) << 32 | Math.max(a, b);
+        Integer index = edgeIndex.get(key);
+        if (index == null) {
+            index = uniqueEdges.size();
+            edgeIndex.put(key, index);
+            uniqueEdges.add(new int[]{a, b});
+        }
+        return index;
+    }
+
+    /**
+     * Домножает накопленную матрицу слева на transform и возвращает результат.
+     * Матрица не изменяется на месте, поэтому возвращённый снимок можно использовать без блокировки.
+     */
+    public synchronized double[] apply(double[] transform) {
+        matrix = Matrix4f.multiply(transform, matrix);
+        return matrix;
+    }
+}
@@ -0,0 +1,114 @@
+package by.lupach.drawingeditor.models.threeD;
+
+/**
+ * Перевод преобразованных вершин в экранные координаты с отсечением рёбер.
+ *
+ * Ребро сначала отсекается ближней плоскостью w = NEAR_W в однородных координатах: точки с меньшим w
+ * лежат позади наблюдателя или вплотную к нему, и после деления на w улетают в огромные координаты.
+ * Затем ребро на экране отсекается прямоугольником холста (Лианг–Барски), так что растеризуются
+ * только видимые пиксели, сколько бы ни было вне холста.
+ */
+public class ScreenProjection {
+    private static final double NEAR_W = 1e-2;
+
+    private final double centerX, centerY, scale;
+    private final double maxX, maxY;
+
+    /**
+     * Начало координат отображается в экранную точку (centerX, centerY), единица длины — в scale пикселей,
+     * видимая область — холст width x height.
+     */
+    public ScreenProjection(double centerX, double centerY, double scale, int width, int height) {
+        this.centerX = centerX;
+        this.centerY = centerY;
+        this.scale = scale;
+        this.maxX = width - 1;
+        this.maxY = height - 1;
+    }
+
+    /**
+     * Отсекает ребро (a, b) и записывает концы видимой части в out = {x0, y0, x1, y1}.
+     * vertices — результат VertexTransform: x, y, z уже разделены на w, если оно не ноль.
+     *
+     * @return false, если ребро не видно
+     */
+    public boolean clipEdge(VertexArrays vertices, int a, int b, int[] out) {
+        double[] xs = vertices.getX(), ys = vertices.getY(), ws = vertices.getW();
+        double wa = ws[a], wb = ws[b];
+        if (wa < NEAR_W && wb < NEAR_W) {
+            return false;
+        }
+
+        double xa, ya, xb, yb;
+        if (wa >= NEAR_W && wb >= NEAR_W) {
+            xa = xs[a];
+            ya = ys[a];
+            xb = xs[b];
+            yb = ys[b];
+        } else {
+            // Одна вершина за ближней плоскостью: пересечение ищется до деления на w
+            int front = wa >= NEAR_W ? a : b, back = front == a ? b : a;
+            double wf = ws[front], wk = ws[back];
+            double t = (wf - NEAR_W) / (wf - wk);
+            double xk = homogeneous(xs[back], wk), yk = homogeneous(ys[back], wk);
+            double xf = xs[front] * wf, yf = ys[front] * wf;
+            xa = xs[front];
+            ya = ys[front];
+            xb = (xf + t * (xk - xf)) / NEAR_W;
+            yb = (yf + t * (yk - yf)) / NEAR_W;
+        }
+        return clipToScreen(centerX + xa * scale, centerY - ya * scale,
+                centerX + xb * scale, centerY - yb * scale, out);
+    }
+
+    /**
+     * Грань видна лицевой стороной, если её проекция обходится против часовой стрелки
+     * (в координатах с осью y вверх). Грань, задевающая ближнюю плоскость, считается лицевой.
+     */
+    public static boolean isFrontFacing(VertexArrays vertices, int[] face) {
+        double[] xs = vertices.getX(), ys = vertices.getY(), ws = vertices.getW();
+        double area = 0;
+        for (int i = 0; i < face.length; i++) {
+            int p = face[i], q = face[(i + 1) % face.length];
+            if (ws[p] < NEAR_W) {
+                return true;
+            }
+            area += xs[p] * ys[q] - xs[q] * ys[p];
+        }
+        return area > 0;
+    }
+
+    // Координата до деления на w: VertexTransform не делит, если w равно нулю
+    private static double homogeneous(double projected, double w) {
+        return w != 0 ? projected * w : projected;
+    }
+
+    private boolean clipToScreen(double x0, double y0, double x1, double y1, int[] out) {
+        double dx = x1 - x0, dy = y1 - y0;
+        double t0 = 0, t1 = 1;
+        double[] p = {-dx, dx, -dy, dy};
+        double[] q = {x0, maxX - x0, y0, maxY - y0};
+        for (int i = 0; i < 4; i++) {
+            if (p[i] == 0) {
+                if (q[i] < 0) {
+                    return false;
+                }
+            } else {
+                double t = q[i] / p[i];
+                if (p[i] < 0) {
+                    t0 = Math.max(t0, t);
+                } else {
+                    t1 = Math.min(t1, t);
+                }
+            }
+        }
+        if (t0 > t1 || Double.isNaN(t0) || Double.isNaN(t1)) {
+            return false;
+        }
+        out[0] = (int) Math.round(x0 + t0 * dx);
+        out[1] = (int) Math.round(y0 + t0 * dy);
+        out[2] = (int) Math.round(x0 + t1 * dx);
+        out[3] = (int) Math.round(y0 + t1 * dy);
+        return true;
+    }
+}
@@ -8,9 +8,17 @@ public class TransformationRequest {
     private String transformationType;
     private double x, y, z, sx, sy, sz, angle, d;
 
-    // Данные объекта: вершины и рёбра (индексы вершин)
+    // Идентификатор объекта, загруженного через /app/scene/upload
+    private String meshId;
+
+    // Данные объекта без загрузки: вершины и рёбра (индексы вершин)
     // Вершины – двумерный массив [N][4] (однородные координаты)
     private double[][] vertices;
     // Рёбра – двумерный массив [M][2]
     private int[][] edges;
+    // Грани – индексы вершин против часовой стрелки при взгляде снаружи (необязательно)
+    private int[][] faces;
+
+    // Не рисовать рёбра, все грани которых повёрнуты от наблюдателя (нужны грани)
+    private boolean cullBackFaces;
 }
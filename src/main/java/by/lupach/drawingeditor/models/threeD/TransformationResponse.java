@@ -12,5 +12,6 @@ import java.util.List;
 @AllArgsConstructor
 public class TransformationResponse {
     private List<Pixel> pixels;
-    private double[][] matrix;
+    // Накопленная матрица по строкам, double[16]
+    private double[] matrix;
 }
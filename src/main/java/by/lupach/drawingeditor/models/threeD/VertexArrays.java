@@ -0,0 +1,42 @@
+package by.lupach.drawingeditor.models.threeD;
+
+import lombok.Getter;
+
+/**
+ * Вершины в однородных координатах, разложенные по отдельным массивам x, y, z, w
+ * (structure of arrays), чтобы ядро преобразования читало и писало их векторами.
+ */
+@Getter
+public class VertexArrays {
+    private final int count;
+    private final double[] x;
+    private final double[] y;
+    private final double[] z;
+    private final double[] w;
+
+    public VertexArrays(int count) {
+        this.count = count;
+        this.x = new double[count];
+        this.y = new double[count];
+        this.z = new double[count];
+        this.w = new double[count];
+    }
+
+    /**
+     * Раскладывает вершины [N][4] из запроса по массивам.
+     */
+    public static VertexArrays of(double[][] vertices) {
+        VertexArrays result = new VertexArrays(vertices.length);
+        for (int i = 0; i < vertices.length; i++) {
+            double[] vertex = vertices[i];
+            if (vertex.length != 4) {
+                throw new IllegalArgumentException("Vertex must have 4 homogeneous coordinates");
+            }
+            result.x[i] = vertex[0];
+            result.y[i] = vertex[1];
+            result.z[i] = vertex[2];
+            result.w[i] = vertex[3];
+        }
+        return result;
+    }
+}
@@ -0,0 +1,14 @@
+package by.lupach.drawingeditor.models.threeD;
+
+/**
+ * Ускоренный цикл преобразования вершин, подключаемый к VertexTransform.
+ */
+interface VertexKernel {
+    boolean isSupported();
+
+    /**
+     * Преобразует вершины диапазона [from, to) и возвращает индекс первой необработанной вершины,
+     * остаток досчитывается скалярно.
+     */
+    int transform(double[] m, VertexArrays in, VertexArrays out, int from, int to);
+}
@@ -0,0 +1,113 @@
+package by.lupach.drawingeditor.models.threeD;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Пакетное преобразование вершин матрицей с перспективным делением.
+ *
+ * Для каждой вершины (x, y, z, w) вычисляется m * v, затем x, y, z делятся на полученное w
+ * (если оно не ноль), а само w сохраняется — по нему видно, была ли вершина за наблюдателем.
+ * Если приложение собрано в профиле vector (mvn -Pvector) и JVM запущена с --add-modules jdk.incubator.vector,
+ * основной цикл выполняется векторами Vector API, иначе — скалярно; результаты обоих вариантов совпадают побитово,
+ * так как операции выполняются в одном порядке.
+ */
+public final class VertexTransform {
+    // Меньше этого числа вершин на подзадачу распараллеливание не окупается
+    private static final int MIN_GRAIN = 8192;
+
+    private static final String VECTOR_KERNEL = VertexTransform.class.getPackageName() + ".VectorVertexKernel";
+
+    // null — векторного ядра нет в сборке, модуль не подключён или SIMD для double недоступен
+    private static final VertexKernel KERNEL = loadVectorKernel();
+
+    private VertexTransform() {
+    }
+
+    public static boolean isVectorized() {
+        return KERNEL != null;
+    }
+
+    private static VertexKernel loadVectorKernel() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return null;
+        }
+        try {
+            VertexKernel kernel = (VertexKernel) Class.forName(VECTOR_KERNEL).getDeclaredConstructor().newInstance();
+            return kernel.isSupported() ? kernel : null;
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+
+    /**
+     * Преобразует вершины in в out; начиная с parallelThreshold вершин диапазон делится между потоками pool.
+     */
+    public static void transform(double[] m, VertexArrays in, VertexArrays out, ForkJoinPool pool, int parallelThreshold) {
+        int count = in.getCount();
+        if (out.getCount() < count) {
+            throw new IllegalArgumentException("Output holds fewer vertices than input");
+        }
+        if (count < parallelThreshold || pool.getParallelism() < 2) {
+            transform(m, in, out, 0, count);
+        } else {
+            int grain = Math.max(MIN_GRAIN, count / (4 * pool.getParallelism()));
+            pool.invoke(new Range(m, in, out, 0, count, grain));
+        }
+    }
+
+    /**
+     * Преобразует вершины с индексами [from, to) в текущем потоке.
+     */
+    public static void transform(double[] m, VertexArrays in, VertexArrays out, int from, int to) {
+        int tail = KERNEL != null ? KERNEL.transform(m, in, out, from, to) : from;
+        transformScalar(m, in, out, tail, to);
+    }
+
+    static void transformScalar(double[] m, VertexArrays in, VertexArrays out, int from, int to) {
+        double[] xs = in.getX(), ys = in.getY(), zs = in.getZ(), ws = in.getW();
+        double[] ox = out.getX(), oy = out.getY(), oz = out.getZ(), ow = out.getW();
+        for (int i = from; i < to; i++) {
+            double x = xs[i], y = ys[i], z = zs[i], w = ws[i];
+            double rx = m[0] * x + m[1] * y + m[2] * z + m[3] * w;
+            double ry = m[4] * x + m[5] * y + m[6] * z + m[7] * w;
+            double rz = m[8] * x + m[9] * y + m[10] * z + m[11] * w;
+            double rw = m[12] * x + m[13] * y + m[14] * z + m[15] * w;
+            if (rw != 0) {
+                rx /= rw;
+                ry /= rw;
+                rz /= rw;
+            }
+            ox[i] = rx;
+            oy[i] = ry;
+            oz[i] = rz;
+            ow[i] = rw;
+        }
+    }
+
+    // Подзадача пишет только в свой диапазон индексов out, поэтому синхронизация не нужна
+    private static class Range extends RecursiveAction {
+        private final double[] m;
+        private final VertexArrays in, out;
+        private final int from, to, grain;
+
+        Range(double[] m, VertexArrays in, VertexArrays out, int from, int to, int grain) {
+            this.m = m;
+            this.in = in;
+            this.out = out;
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= grain) {
+                transform(m, in, out, from, to);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new Range(m, in, out, from, middle, grain), new Range(m, in, out, middle, to, grain));
+        }
+    }
+}
@@ -0,0 +1,794 @@
+package by.lupach.drawingeditor.models.voronoi;
+
+import by.lupach.drawingeditor.models.CancellationToken;
+import by.lupach.drawingeditor.models.Pixel;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * Триангуляция Делоне на массивах смежности (инкрементальный алгоритм Bowyer–Watson).
+ *
+ * Треугольник t хранится тройкой вершин triangleVertices[3t..3t+2] против часовой стрелки,
+ * neighbours[3t+i] — соседний треугольник через ребро, противолежащее вершине i.
+ * Снаружи выпуклой оболочки лежат "призрачные" треугольники с фиктивной вершиной GHOST,
+ * поэтому точки вне оболочки вставляются так же, как внутренние, без супер-треугольника.
+ *
+ * Вставка точки:
+ * 1. Треугольник, содержащий точку, ищется проходом по соседям от последнего созданного треугольника.
+ * 2. Полость (треугольники, чья описанная окружность содержит точку) обходится только через смежность.
+ * 3. Полость заменяется веером треугольников из новой точки.
+ * При вставке в порядке BRIO (случайные раунды, внутри раунда — по кривой Гильберта)
+ * ожидаемое время построения O(n log n).
+ *
+ * Удаление точки заменяет её звезду триангуляцией многоугольника из соседних вершин:
+ * по очереди отрезаются "уши", описанная окружность которых не содержит других вершин многоугольника.
+ * Стоимость вставки и удаления пропорциональна числу изменённых треугольников,
+ * об изменениях сообщается слушателю {@link ChangeListener}.
+ *
+ * Координаты точек должны лежать в диапазоне [-2^30, 2^30], чтобы ориентация считалась точно в long.
+ */
+public class DelaunayMesh {
+    static final int GHOST = -1;
+    private static final int NONE = -1;
+    // Метка освобождённого треугольника и удалённой вершины
+    private static final int DELETED = -2;
+    private static final int MAX_COORDINATE = 1 << 30;
+    private static final int INITIAL_CAPACITY = 64;
+
+    // Порядок BRIO: номер раунда, индекс Гильберта и номер точки упаковываются в один long
+    private static final int MAX_ROUND = 20;
+    private static final int INDEX_BITS = 26;
+    private static final int HILBERT_ORDER = 16;
+
+    // Оценка погрешности incircle в double (Shewchuk, iccerrboundA)
+    private static final double INCIRCLE_ERROR_BOUND = (10 + 96 * 0x1p-53) * 0x1p-53;
+
+    private final List<Pixel> sites = new ArrayList<>();
+    private int[] xs = new int[INITIAL_CAPACITY];
+    private int[] ys = new int[INITIAL_CAPACITY];
+
+    private int[] triangleVertices = new int[3 * INITIAL_CAPACITY];
+    private int[] neighbours = new int[3 * INITIAL_CAPACITY];
+    private int triangleCount;
+    private int realTriangleCount;
+    private int lastTriangle = NONE;
+    // Свободные места удалённых треугольников
+    private int[] freeTriangles = new int[INITIAL_CAPACITY];
+    private int freeCount;
+    // Любой треугольник, содержащий вершину; NONE — вершина ждёт в pending, DELETED — удалена
+    private int[] vertexTriangle = new int[INITIAL_CAPACITY];
+
+    // Вершины, пока все они лежат на одной прямой и треугольников ещё нет
+    private final List<Integer> pending = new ArrayList<>();
+    private final Set<Long> pendingKeys = new HashSet<>();
+
+    private ChangeListener listener;
+
+    // Рабочие массивы вставки, переиспользуются между вызовами
+    private int[] marks = new int[INITIAL_CAPACITY];
+    private int stamp;
+    private int[] stack = new int[INITIAL_CAPACITY];
+    private int[] cavity = new int[INITIAL_CAPACITY];
+    private int cavitySize;
+    // Граничное ребро полости: a, b, внешний сосед, затем созданный по ребру треугольник
+    private int[] boundary = new int[4 * INITIAL_CAPACITY];
+    private int[] startingAt = new int[INITIAL_CAPACITY];
+    private int[] endingAt = new int[INITIAL_CAPACITY];
+    private int walkSeed = 0x9E3779B9;
+    // Рабочие массивы удаления: многоугольник соседей, внешние соседи его рёбер, треугольники звезды
+    private int[] polygon = new int[INITIAL_CAPACITY];
+    private int[] polygonOuter = new int[INITIAL_CAPACITY];
+    private int[] star = new int[INITIAL_CAPACITY];
+
+    /**
+     * Получает номер треугольника, который удаляется (до изменения) или создаётся (после связывания с соседями).
+     * Место удалённого треугольника может быть сразу занято новым — тогда слушатель получит номер дважды.
+     */
+    @FunctionalInterface
+    public interface ChangeListener {
+        void triangleChanged(int triangle);
+    }
+
+    public void setChangeListener(ChangeListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Вставляет все точки в порядке BRIO.
+     */
+    public void insertAll(List<Pixel> points) {
+        insertAll(points, CancellationToken.NONE);
+    }
+
+    // Отмена проверяется перед каждой вставкой
+    public void insertAll(List<Pixel> points, CancellationToken cancellation) {
+        if (points.size() >= 1 << INDEX_BITS) {
+            throw new IllegalArgumentException("Too many points: " + points.size());
+        }
+        for (Pixel point : brioOrder(points)) {
+            cancellation.throwIfCancelled();
+            insert(point);
+        }
+    }
+
+    /**
+     * Вставляет точку и возвращает номер её вершины, либо -1, если точка совпадает с уже вставленной.
+     */
+    public int insert(Pixel site) {
+        int x = site.getX(), y = site.getY();
+        if (Math.abs(x) > MAX_COORDINATE || Math.abs(y) > MAX_COORDINATE) {
+            throw new IllegalArgumentException("Point is out of range: " + site);
+        }
+        if (lastTriangle == NONE) {
+            return insertPending(site);
+        }
+
+        int start = locate(x, y);
+        if (vertexAt(start, x, y) != NONE) {
+            return NONE;
+        }
+        int vertex = addVertex(site);
+        insertVertex(vertex, start);
+        return vertex;
+    }
+
+    /**
+     * Номер вершины с заданными координатами либо -1.
+     */
+    public int findVertex(int x, int y) {
+        if (Math.abs(x) > MAX_COORDINATE || Math.abs(y) > MAX_COORDINATE) {
+            return NONE;
+        }
+        if (lastTriangle == NONE) {
+            for (int vertex : pending) {
+                if (xs[vertex] == x && ys[vertex] == y) {
+                    return vertex;
+                }
+            }
+            return NONE;
+        }
+        return vertexAt(locate(x, y), x, y);
+    }
+
+    /**
+     * Удаляет вершину; возвращает false, если она уже удалена.
+     */
+    public boolean delete(int vertex) {
+        if (vertex < 0 || vertex >= sites.size() || vertexTriangle[vertex] == DELETED) {
+            return false;
+        }
+        if (lastTriangle == NONE) {
+            pending.remove(Integer.valueOf(vertex));
+            pendingKeys.remove(key(xs[vertex], ys[vertex]));
+            vertexTriangle[vertex] = DELETED;
+            return true;
+        }
+        deleteFromTriangulation(vertex);
+        vertexTriangle[vertex] = DELETED;
+        if (realTriangleCount == 0) {
+            // Оставшиеся точки лежат на одной прямой: возвращаемся к ожиданию
+            resetToPending();
+        }
+        return true;
+    }
+
+    public int getVertexCount() {
+        return sites.size();
+    }
+
+    public boolean isDeleted(int vertex) {
+        return vertexTriangle[vertex] == DELETED;
+    }
+
+    public Pixel getSite(int vertex) {
+        return sites.get(vertex);
+    }
+
+    /**
+     * Треугольники внутри выпуклой оболочки (без призрачных).
+     */
+    public List<Triangle> getTriangles() {
+        List<Triangle> triangles = new ArrayList<>(realTriangleCount);
+        for (int t = 0; t < triangleCount; t++) {
+            if (!isFree(t) && !isGhost(t)) {
+                triangles.add(new Triangle(sites.get(triangleVertices[3 * t]),
+                        sites.get(triangleVertices[3 * t + 1]), sites.get(triangleVertices[3 * t + 2])));
+            }
+        }
+        return triangles;
+    }
+
+    /**
+     * Треугольник, содержащий ребро между вершинами u и v (в любом направлении), либо -1.
+     */
+    int findEdge(int u, int v) {
+        if (lastTriangle == NONE || u < 0 || u >= sites.size() || vertexTriangle[u] < 0) {
+            return NONE;
+        }
+        // Обход звезды u против часовой стрелки
+        int first = vertexTriangle[u];
+        int t = first;
+        do {
+            int i = indexOf(t, u);
+            if (triangleVertices[3 * t + (i + 1) % 3] == v || triangleVertices[3 * t + (i + 2) % 3] == v) {
+                return t;
+            }
+            t = neighbours[3 * t + (i + 1) % 3];
+        } while (t != first);
+        return NONE;
+    }
+
+    int getTriangleVertex(int t, int i) {
+        return triangleVertices[3 * t + i];
+    }
+
+    int getNeighbour(int t, int i) {
+        return neighbours[3 * t + i];
+    }
+
+    private int insertPending(Pixel site) {
+        if (!pendingKeys.add(key(site.getX(), site.getY()))) {
+            return NONE;
+        }
+        int vertex = addVertex(site);
+        pending.add(vertex);
+        if (pending.size() < 3 || orientation(pending.get(0), pending.get(1), vertex) == 0) {
+            return vertex;
+        }
+
+        // Первая точка вне общей прямой: строим начальный треугольник и вставляем остальные
+        int a = pending.get(0), b = pending.get(1);
+        if (orientation(a, b, vertex) < 0) {
+            int swap = a;
+            a = b;
+            b = swap;
+        }
+        createInitialTriangle(a, b, vertex);
+
+        List<Integer> rest = new ArrayList<>(pending.subList(2, pending.size() - 1));
+        pending.clear();
+        pendingKeys.clear();
+        for (int point : rest) {
+            insertVertex(point, locate(xs[point], ys[point]));
+        }
+        return vertex;
+    }
+
+    private void resetToPending() {
+        triangleCount = 0;
+        realTriangleCount = 0;
+        freeCount = 0;
+        lastTriangle = NONE;
+        for (int vertex = 0; vertex < sites.size(); vertex++) {
+            if (vertexTriangle[vertex] != DELETED) {
+                vertexTriangle[vertex] = NONE;
+                pending.add(vertex);
+                pendingKeys.add(key(xs[vertex], ys[vertex]));
+            }
+        }
+    }
+
+    private void insertVertex(int vertex, int start) {
+        int boundaryCount = collectCavity(start, xs[vertex], ys[vertex]);
+        fillCavity(vertex, boundaryCount);
+    }
+
+    // Вершина треугольника с координатами (x, y) либо NONE
+    private int vertexAt(int t, int x, int y) {
+        if (isGhost(t)) {
+            return NONE;
+        }
+        for (int i = 0; i < 3; i++) {
+            int v = triangleVertices[3 * t + i];
+            if (xs[v] == x && ys[v] == y) {
+                return v;
+            }
+        }
+        return NONE;
+    }
+
+    // Треугольник abc (против часовой) и три призрачных треугольника за его рёбрами
+    private void createInitialTriangle(int a, int b, int c) {
+        int t = newTriangle(a, b, c);
+        int ghostAB = newTriangle(b, a, GHOST);
+        int ghostBC = newTriangle(c, b, GHOST);
+        int ghostCA = newTriangle(a, c, GHOST);
+        setNeighbours(t, ghostBC, ghostCA, ghostAB);
+        // Для призрачного треугольника (v, u, G): напротив v — ребро (u, G), напротив u — (G, v)
+        setNeighbours(ghostAB, ghostCA, ghostBC, t);
+        setNeighbours(ghostBC, ghostAB, ghostCA, t);
+        setNeighbours(ghostCA, ghostBC, ghostAB, t);
+        lastTriangle = t;
+        notifyChanged(t);
+        notifyChanged(ghostAB);
+        notifyChanged(ghostBC);
+        notifyChanged(ghostCA);
+    }
+
+    /**
+     * Проход по соседям к треугольнику, содержащему точку; призрачный треугольник — если точка вне оболочки.
+     */
+    private int locate(int x, int y) {
+        int t = lastTriangle;
+        while (!isGhost(t)) {
+            // Случайный порядок проверки рёбер исключает зацикливание прохода
+            walkSeed = walkSeed * 1103515245 + 12345;
+            int offset = (walkSeed >>> 16) % 3;
+            int next = NONE;
+            for (int k = 0; k < 3 && next == NONE; k++) {
+                int i = (offset + k) % 3;
+                int a = triangleVertices[3 * t + (i + 1) % 3];
+                int b = triangleVertices[3 * t + (i + 2) % 3];
+                if (orientation(xs[a], ys[a], xs[b], ys[b], x, y) < 0) {
+                    next = neighbours[3 * t + i];
+                }
+            }
+            if (next == NONE) {
+                return t;
+            }
+            t = next;
+        }
+        return t;
+    }
+
+    /**
+     * Обходит полость через смежность, собирая её граничные рёбра.
+     * Возвращает число граничных рёбер.
+     */
+    private int collectCavity(int start, int x, int y) {
+        ensureTriangleScratch();
+        stamp++;
+        int stackSize = 0, cavityCount = 0, boundaryCount = 0;
+        marks[start] = stamp;
+        stack[stackSize++] = start;
+        while (stackSize > 0) {
+            int t = stack[--stackSize];
+            cavity[cavityCount++] = t;
+            removed(t);
+            for (int i = 0; i < 3; i++) {
+                int n = neighbours[3 * t + i];
+                if (marks[n] == stamp) {
+                    continue;
+                }
+                if (conflicts(n, x, y)) {
+                    marks[n] = stamp;
+                    stack[stackSize++] = n;
+                } else {
+                    if (4 * (boundaryCount + 1) > boundary.length) {
+                        boundary = Arrays.copyOf(boundary, boundary.length * 2);
+                    }
+                    boundary[4 * boundaryCount] = triangleVertices[3 * t + (i + 1) % 3];
+                    boundary[4 * boundaryCount + 1] = triangleVertices[3 * t + (i + 2) % 3];
+                    boundary[4 * boundaryCount + 2] = n;
+                    boundaryCount++;
+                }
+            }
+        }
+        cavitySize = cavityCount;
+        return boundaryCount;
+    }
+
+    /**
+     * Заменяет полость веером треугольников (a, b, vertex) по граничным рёбрам (a, b).
+     * Граничных рёбер всегда на два больше, чем треугольников полости, поэтому их места переиспользуются.
+     */
+    private void fillCavity(int vertex, int boundaryCount) {
+        ensureVertexScratch();
+        for (int k = 0; k < boundaryCount; k++) {
+            int a = boundary[4 * k], b = boundary[4 * k + 1];
+            int outside = boundary[4 * k + 2];
+            int t = k < cavitySize ? reuseTriangle(cavity[k], a, b, vertex) : newTriangle(a, b, vertex);
+            neighbours[3 * t + 2] = outside;
+            replaceNeighbour(outside, b, a, t);
+            startingAt[a + 1] = t;
+            endingAt[b + 1] = t;
+            boundary[4 * k + 3] = t;
+        }
+        for (int k = 0; k < boundaryCount; k++) {
+            int t = boundary[4 * k + 3];
+            int a = boundary[4 * k], b = boundary[4 * k + 1];
+            neighbours[3 * t] = startingAt[b + 1];
+            neighbours[3 * t + 1] = endingAt[a + 1];
+            if (!isGhost(t)) {
+                lastTriangle = t;
+            }
+            notifyChanged(t);
+        }
+    }
+
+    /**
+     * Удаление вершины из триангуляции. Звезда вершины (треугольники (vertex, p[j], p[j+1]))
+     * заменяется триангуляцией многоугольника p. Если вершина лежит на оболочке, среди p есть GHOST:
+     * сначала отрезаются настоящие уши, оставшаяся выпуклая цепочка соединяется с GHOST веером.
+     */
+    private void deleteFromTriangulation(int vertex) {
+        int size = 0;
+        int first = vertexTriangle[vertex];
+        int t = first;
+        do {
+            if (size == star.length) {
+                polygon = Arrays.copyOf(polygon, size * 2);
+                polygonOuter = Arrays.copyOf(polygonOuter, size * 2);
+                star = Arrays.copyOf(star, size * 2);
+            }
+            int i = indexOf(t, vertex);
+            star[size] = t;
+            polygon[size] = triangleVertices[3 * t + (i + 1) % 3];
+            polygonOuter[size] = neighbours[3 * t + i];
+            size++;
+            t = neighbours[3 * t + (i + 1) % 3];
+        } while (t != first);
+        int starSize = size;
+        for (int k = 0; k < starSize; k++) {
+            removed(star[k]);
+        }
+        rotateGhostToEnd(size);
+
+        int created = 0;
+        while (size > 3) {
+            int ear = findEar(size);
+            int b = (ear + 1) % size, c = (ear + 2) % size;
+            int triangle = reuseTriangle(star[created++], polygon[ear], polygon[b], polygon[c]);
+            link(triangle, 2, polygonOuter[ear], polygon[b], polygon[ear]);
+            link(triangle, 0, polygonOuter[b], polygon[c], polygon[b]);
+            // Вершина b уходит из многоугольника, ребро (ear, c) теперь граничит с новым треугольником
+            polygonOuter[ear] = triangle;
+            System.arraycopy(polygon, b + 1, polygon, b, size - b - 1);
+            System.arraycopy(polygonOuter, b + 1, polygonOuter, b, size - b - 1);
+            size--;
+        }
+        int triangle = reuseTriangle(star[created++], polygon[0], polygon[1], polygon[2]);
+        link(triangle, 2, polygonOuter[0], polygon[1], polygon[0]);
+        link(triangle, 0, polygonOuter[1], polygon[2], polygon[1]);
+        link(triangle, 1, polygonOuter[2], polygon[0], polygon[2]);
+
+        // Треугольников стало на два меньше
+        for (int k = created; k < starSize; k++) {
+            freeTriangle(star[k]);
+        }
+        lastTriangle = NONE;
+        for (int k = 0; k < created; k++) {
+            if (!isGhost(star[k])) {
+                lastTriangle = star[k];
+            }
+            notifyChanged(star[k]);
+        }
+        if (lastTriangle == NONE) {
+            lastTriangle = anyRealTriangle();
+        }
+    }
+
+    // Сдвигает многоугольник так, чтобы GHOST (если он есть) оказался последним
+    private void rotateGhostToEnd(int size) {
+        for (int g = 0; g < size - 1; g++) {
+            if (polygon[g] == GHOST) {
+                int shift = g + 1;
+                int[] vertices = Arrays.copyOf(polygon, size);
+                int[] outer = Arrays.copyOf(polygonOuter, size);
+                for (int k = 0; k < size; k++) {
+                    polygon[k] = vertices[(k + shift) % size];
+                    polygonOuter[k] = outer[(k + shift) % size];
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Ухо (p[j], p[j+1], p[j+2]), которое является треугольником Делоне: выпуклое
+     * и без вершин многоугольника внутри описанной окружности. Если таких нет и многоугольник
+     * содержит GHOST, остаток — выпуклая часть оболочки, и ухом служит вершина сразу после GHOST.
+     */
+    private int findEar(int size) {
+        int fallback = NONE;
+        for (int j = 0; j < size; j++) {
+            int a = polygon[j], b = polygon[(j + 1) % size], c = polygon[(j + 2) % size];
+            if (a == GHOST || b == GHOST || c == GHOST
+                    || orientation(xs[a], ys[a], xs[b], ys[b], xs[c], ys[c]) <= 0) {
+                continue;
+            }
+            if (fallback == NONE) {
+                fallback = j;
+            }
+            boolean empty = true;
+            for (int k = 0; k < size && empty; k++) {
+                int d = polygon[k];
+                empty = d == GHOST || d == a || d == b || d == c
+                        || inCircle(xs[a], ys[a], xs[b], ys[b], xs[c], ys[c], xs[d], ys[d]) <= 0;
+            }
+            if (empty) {
+                return j;
+            }
+        }
+        if (polygon[size - 1] == GHOST) {
+            return size - 1;
+        }
+        if (fallback == NONE) {
+            throw new IllegalStateException("Star polygon has no convex ear");
+        }
+        return fallback;
+    }
+
+    // Связывает ребро (из вершин b -> a во внешнем треугольнике) нового треугольника с внешним соседом
+    private void link(int triangle, int opposite, int outer, int b, int a) {
+        neighbours[3 * triangle + opposite] = outer;
+        replaceNeighbour(outer, b, a, triangle);
+    }
+
+    private int anyRealTriangle() {
+        for (int t = 0; t < triangleCount; t++) {
+            if (!isFree(t) && !isGhost(t)) {
+                return t;
+            }
+        }
+        return NONE;
+    }
+
+    private int indexOf(int t, int vertex) {
+        return triangleVertices[3 * t] == vertex ? 0 : triangleVertices[3 * t + 1] == vertex ? 1 : 2;
+    }
+
+    private void removed(int t) {
+        notifyChanged(t);
+        if (!isGhost(t)) {
+            realTriangleCount--;
+        }
+    }
+
+    private void notifyChanged(int t) {
+        if (listener != null) {
+            listener.triangleChanged(t);
+        }
+    }
+
+    private boolean conflicts(int t, int x, int y) {
+        int a = triangleVertices[3 * t], b = triangleVertices[3 * t + 1], c = triangleVertices[3 * t + 2];
+        if (a == GHOST) {
+            return ghostConflicts(b, c, x, y);
+        }
+        if (b == GHOST) {
+            return ghostConflicts(c, a, x, y);
+        }
+        if (c == GHOST) {
+            return ghostConflicts(a, b, x, y);
+        }
+        return inCircle(xs[a], ys[a], xs[b], ys[b], xs[c], ys[c], x, y) > 0;
+    }
+
+    // Призрачный треугольник с ребром оболочки u -> v: точка слева от ребра или на самом ребре
+    private boolean ghostConflicts(int u, int v, int x, int y) {
+        long orientation = orientation(xs[u], ys[u], xs[v], ys[v], x, y);
+        if (orientation != 0) {
+            return orientation > 0;
+        }
+        // Точка на прямой ребра: строго между u и v по той оси, вдоль которой ребро не вырождено
+        if (xs[u] != xs[v]) {
+            return strictlyBetween(x, xs[u], xs[v]);
+        }
+        return strictlyBetween(y, ys[u], ys[v]);
+    }
+
+    private static boolean strictlyBetween(int value, int from, int to) {
+        return from < to ? from < value && value < to : to < value && value < from;
+    }
+
+    boolean isGhost(int t) {
+        return triangleVertices[3 * t] == GHOST || triangleVertices[3 * t + 1] == GHOST
+                || triangleVertices[3 * t + 2] == GHOST;
+    }
+
+    private int addVertex(Pixel site) {
+        int vertex = sites.size();
+        if (vertex == xs.length) {
+            xs = Arrays.copyOf(xs, vertex * 2);
+            ys = Arrays.copyOf(ys, vertex * 2);
+        }
+        if (vertex == vertexTriangle.length) {
+            vertexTriangle = Arrays.copyOf(vertexTriangle, vertex * 2);
+        }
+        xs[vertex] = site.getX();
+        ys[vertex] = site.getY();
+        vertexTriangle[vertex] = NONE;
+        sites.add(site);
+        return vertex;
+    }
+
+    private int newTriangle(int a, int b, int c) {
+        if (freeCount > 0) {
+            return reuseTriangle(freeTriangles[--freeCount], a, b, c);
+        }
+        int t = triangleCount++;
+        if (3 * triangleCount > triangleVertices.length) {
+            triangleVertices = Arrays.copyOf(triangleVertices, triangleVertices.length * 2);
+            neighbours = Arrays.copyOf(neighbours, neighbours.length * 2);
+        }
+        return reuseTriangle(t, a, b, c);
+    }
+
+    private int reuseTriangle(int t, int a, int b, int c) {
+        triangleVertices[3 * t] = a;
+        triangleVertices[3 * t + 1] = b;
+        triangleVertices[3 * t + 2] = c;
+        if (a != GHOST && b != GHOST && c != GHOST) {
+            realTriangleCount++;
+        }
+        // Призрачная вершина не хранит свой треугольник
+        for (int i = 0; i < 3; i++) {
+            if (triangleVertices[3 * t + i] != GHOST) {
+                vertexTriangle[triangleVertices[3 * t + i]] = t;
+            }
+        }
+        return t;
+    }
+
+    private void freeTriangle(int t) {
+        if (freeCount == freeTriangles.length) {
+            freeTriangles = Arrays.copyOf(freeTriangles, freeCount * 2);
+        }
+        freeTriangles[freeCount++] = t;
+        triangleVertices[3 * t] = DELETED;
+        triangleVertices[3 * t + 1] = DELETED;
+        triangleVertices[3 * t + 2] = DELETED;
+    }
+
+    private boolean isFree(int t) {
+        return triangleVertices[3 * t] == DELETED;
+    }
+
+    private void setNeighbours(int t, int oppositeA, int oppositeB, int oppositeC) {
+        neighbours[3 * t] = oppositeA;
+        neighbours[3 * t + 1] = oppositeB;
+        neighbours[3 * t + 2] = oppositeC;
+    }
+
+    // Ребро ищется по вершинам: места треугольников полости уже могли быть переиспользованы
+    private void replaceNeighbour(int t, int a, int b, int to) {
+        for (int i = 0; i < 3; i++) {
+            if (triangleVertices[3 * t + (i + 1) % 3] == a && triangleVertices[3 * t + (i + 2) % 3] == b) {
+                neighbours[3 * t + i] = to;
+                return;
+            }
+        }
+    }
+
+    private void ensureTriangleScratch() {
+        // В полость могут попасть все треугольники, после вставки их станет на два больше
+        int capacity = triangleCount + 2;
+        if (marks.length < capacity) {
+            int size = Math.max(capacity, marks.length * 2);
+            marks = Arrays.copyOf(marks, size);
+            stack = new int[size];
+            cavity = new int[size];
+        }
+    }
+
+    private void ensureVertexScratch() {
+        if (startingAt.length < sites.size() + 1) {
+            int size = Math.max(sites.size() + 1, startingAt.length * 2);
+            startingAt = new int[size];
+            endingAt = new int[size];
+        }
+    }
+
+    /**
+     * Порядок вставки BRIO: точка попадает в раунд r с вероятностью 2^-(r+1), раунды вставляются
+     * от редких к частым, внутри раунда точки упорядочены по кривой Гильберта.
+     */
+    private static List<Pixel> brioOrder(List<Pixel> points) {
+        int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE;
+        for (Pixel p : points) {
+            minX = Math.min(minX, p.getX());
+            minY = Math.min(minY, p.getY());
+            maxX = Math.max(maxX, p.getX());
+            maxY = Math.max(maxY, p.getY());
+        }
+        long span = Math.max(1L, Math.max((long) maxX - minX, (long) maxY - minY));
+        int gridMax = (1 << HILBERT_ORDER) - 1;
+
+        SplittableRandom random = new SplittableRandom(points.size());
+        long[] keys = new long[points.size()];
+        for (int i = 0; i < keys.length; i++) {
+            Pixel p = points.get(i);
+            int round = Integer.numberOfTrailingZeros(random.nextInt() | 1 << MAX_ROUND);
+            int hx = (int) (((long) p.getX() - minX) * gridMax / span);
+            int hy = (int) (((long) p.getY() - minY) * gridMax / span);
+            keys[i] = (long) (MAX_ROUND - round) << (2 * HILBERT_ORDER + INDEX_BITS)
+                    | hilbertIndex(hx, hy) << INDEX_BITS
+                    | i;
+        }
+        Arrays.sort(keys);
+
+        List<Pixel> ordered = new ArrayList<>(keys.length);
+        for (long key : keys) {
+            ordered.add(points.get((int) (key & ((1 << INDEX_BITS) - 1))));
+        }
+        return ordered;
+    }
+
+    private static long hilbertIndex(int x, int y) {
+        int n = 1 << HILBERT_ORDER;
+        long d = 0;
+        for (int s = n / 2; s > 0; s /= 2) {
+            int rx = (x & s) > 0 ? 1 : 0;
+            int ry = (y & s) > 0 ? 1 : 0;
+            d += (long) s * s * ((3 * rx) ^ ry);
+            if (ry == 0) {
+                if (rx == 1) {
+                    x = n - 1 - x;
+                    y = n - 1 - y;
+                }
+                int swap = x;
+                x = y;
+                y = swap;
+            }
+        }
+        return d;
+    }
+
+    private static long key(int x, int y) {
+        return (long) x << 32 | (y & 0xFFFFFFFFL);
+    }
+
+    private long orientation(int a, int b, int c) {
+        return orientation(xs[a], ys[a], xs[b], ys[b], xs[c], ys[c]);
+    }
+
+    /**
+     * Положительна, если a, b, c идут против часовой стрелки (в системе координат с осью Y вверх).
+     */
+    static long orientation(int ax, int ay, int bx, int by, int cx, int cy) {
+        // Разности считаются в long: при |координата| <= 2^30 они достигают 2^31 и переполняют int.
+        // Результат — удвоенная площадь треугольника в квадрате со стороной 2^31, т.е. не больше 2^62
+        return ((long) bx - ax) * ((long) cy - ay) - ((long) by - ay) * ((long) cx - ax);
+    }
+
+    /**
+     * Знак определителя incircle: положителен, если d строго внутри окружности через a, b, c
+     * (a, b, c против часовой стрелки). Быстрая проверка в double, при неуверенности — точный расчёт.
+     */
+    static int inCircle(int ax, int ay, int bx, int by, int cx, int cy, int dx, int dy) {
+        double adx = (double) ax - dx, ady = (double) ay - dy;
+        double bdx = (double) bx - dx, bdy = (double) by - dy;
+        double cdx = (double) cx - dx, cdy = (double) cy - dy;
+
+        double bdxcdy = bdx * cdy, cdxbdy = cdx * bdy;
+        double cdxady = cdx * ady, adxcdy = adx * cdy;
+        double adxbdy = adx * bdy, bdxady = bdx * ady;
+        double alift = adx * adx + ady * ady;
+        double blift = bdx * bdx + bdy * bdy;
+        double clift = cdx * cdx + cdy * cdy;
+
+        double det = alift * (bdxcdy - cdxbdy) + blift * (cdxady - adxcdy) + clift * (adxbdy - bdxady);
+        double permanent = (Math.abs(bdxcdy) + Math.abs(cdxbdy)) * alift
+                + (Math.abs(cdxady) + Math.abs(adxcdy)) * blift
+                + (Math.abs(adxbdy) + Math.abs(bdxady)) * clift;
+        double bound = INCIRCLE_ERROR_BOUND * permanent;
+        if (det > bound) {
+            return 1;
+        }
+        if (-det > bound) {
+            return -1;
+        }
+        return exactInCircle(ax, ay, bx, by, cx, cy, dx, dy);
+    }
+
+    private static int exactInCircle(int ax, int ay, int bx, int by, int cx, int cy, int dx, int dy) {
+        BigInteger adx = BigInteger.valueOf((long) ax - dx), ady = BigInteger.valueOf((long) ay - dy);
+        BigInteger bdx = BigInteger.valueOf((long) bx - dx), bdy = BigInteger.valueOf((long) by - dy);
+        BigInteger cdx = BigInteger.valueOf((long) cx - dx), cdy = BigInteger.valueOf((long) cy - dy);
+        BigInteger alift = adx.multiply(adx).add(ady.multiply(ady));
+        BigInteger blift = bdx.multiply(bdx).add(bdy.multiply(bdy));
+        BigInteger clift = cdx.multiply(cdx).add(cdy.multiply(cdy));
+        return alift.multiply(bdx.multiply(cdy).subtract(cdx.multiply(bdy)))
+                .add(blift.multiply(cdx.multiply(ady).subtract(adx.multiply(cdy))))
+                .add(clift.multiply(adx.multiply(bdy).subtract(bdx.multiply(ady))))
+                .signum();
+    }
+}
@@ -0,0 +1,387 @@
+package by.lupach.drawingeditor.models.voronoi;
+
+import by.lupach.drawingeditor.models.CancellationToken;
+import by.lupach.drawingeditor.models.Pixel;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Триангуляция Делоне методом "разделяй и властвуй" (Guibas–Stolfi) с параллельной рекурсией.
+ *
+ * Точки сортируются по x (затем по y), множество делится пополам по медиане, половины триангулируются
+ * независимо в ForkJoinPool и сшиваются: от нижней общей касательной вверх добавляются рёбра между
+ * половинами, а рёбра, чья окружность содержит кандидата, удаляются.
+ *
+ * Рёбра хранятся в структуре quad-edge на массивах: ребро s занимает четыре "четверти" 4s..4s+3
+ * (ребро, его поворот, обратное ребро и обратный поворот), onext[q] — следующее ребро против часовой
+ * стрелки вокруг начала q. Планарный граф на k вершинах имеет не больше 3k рёбер, поэтому диапазону
+ * точек [lo, hi) принадлежат места рёбер [3lo, 3hi), и параллельные подзадачи не пересекаются в памяти.
+ *
+ * Координаты точек должны лежать в диапазоне [-2^30, 2^30], как и в {@link DelaunayMesh}.
+ */
+public class DivideAndConquerDelaunay {
+    private static final int NONE = -1;
+    private static final int MAX_COORDINATE = 1 << 30;
+    // Меньшие подзадачи решаются последовательно: накладные расходы fork/join больше выигрыша
+    private static final int MIN_FORK_SIZE = 4096;
+
+    private final ForkJoinPool pool;
+    private final CancellationToken cancellation;
+
+    private Pixel[] sites;
+    private int[] xs;
+    private int[] ys;
+    private int[] onext;
+    // Начало ребра для четвертей 4s и 4s+2, NONE — место свободно
+    private int[] origin;
+    // Свободные места рёбер образуют список; у каждой подзадачи он свой
+    private int[] freeNext;
+    private int forkSize;
+
+    public DivideAndConquerDelaunay(ForkJoinPool pool) {
+        this(pool, CancellationToken.NONE);
+    }
+
+    // Отмена проверяется перед каждым сшиванием половин
+    public DivideAndConquerDelaunay(ForkJoinPool pool, CancellationToken cancellation) {
+        this.pool = pool;
+        this.cancellation = cancellation;
+    }
+
+    public List<Triangle> triangulate(List<Pixel> points) {
+        prepareSites(points);
+        int n = sites.length;
+        if (n < 3) {
+            return new ArrayList<>();
+        }
+        onext = new int[12 * n];
+        origin = new int[6 * n];
+        freeNext = new int[3 * n];
+        Arrays.fill(origin, NONE);
+        forkSize = Math.max(MIN_FORK_SIZE, n / (4 * pool.getParallelism()));
+        pool.invoke(new Subdivision(0, n));
+        return pool.invoke(new TriangleCollector(0, freeNext.length));
+    }
+
+    private void prepareSites(List<Pixel> points) {
+        Pixel[] sorted = points.toArray(new Pixel[0]);
+        for (Pixel p : sorted) {
+            if (Math.abs(p.getX()) > MAX_COORDINATE || Math.abs(p.getY()) > MAX_COORDINATE) {
+                throw new IllegalArgumentException("Point is out of range: " + p);
+            }
+        }
+        Arrays.parallelSort(sorted, Comparator.comparingInt(Pixel::getX).thenComparingInt(Pixel::getY));
+
+        // Совпадающие точки после сортировки стоят рядом
+        int distinct = 0;
+        for (Pixel p : sorted) {
+            if (distinct == 0 || p.getX() != sorted[distinct - 1].getX() || p.getY() != sorted[distinct - 1].getY()) {
+                sorted[distinct++] = p;
+            }
+        }
+        sites = Arrays.copyOf(sorted, distinct);
+        xs = new int[distinct];
+        ys = new int[distinct];
+        for (int i = 0; i < distinct; i++) {
+            xs[i] = sites[i].getX();
+            ys[i] = sites[i].getY();
+        }
+    }
+
+    /**
+     * Оболочка триангулированного диапазона: left — ребро оболочки против часовой стрелки из самой левой точки,
+     * right — ребро по часовой стрелке из самой правой; плюс список свободных мест рёбер диапазона.
+     */
+    private static final class Hull {
+        int left;
+        int right;
+        int freeHead;
+        int freeTail;
+    }
+
+    private final class Subdivision extends RecursiveTask<Hull> {
+        private final int lo;
+        private final int hi;
+
+        Subdivision(int lo, int hi) {
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected Hull compute() {
+            if (hi - lo <= forkSize) {
+                return triangulate(lo, hi);
+            }
+            int mid = (lo + hi) >>> 1;
+            Subdivision left = new Subdivision(lo, mid);
+            left.fork();
+            Hull right = new Subdivision(mid, hi).compute();
+            Hull leftHull = left.join();
+            cancellation.throwIfCancelled();
+            return merge(leftHull, right);
+        }
+    }
+
+    private Hull triangulate(int lo, int hi) {
+        int size = hi - lo;
+        if (size <= 3) {
+            return triangulateLeaf(lo, size);
+        }
+        int mid = (lo + hi) >>> 1;
+        Hull left = triangulate(lo, mid);
+        Hull right = triangulate(mid, hi);
+        cancellation.throwIfCancelled();
+        return merge(left, right);
+    }
+
+    private Hull triangulateLeaf(int lo, int size) {
+        Hull hull = new Hull();
+        // Места рёбер [3lo, 3(lo+size)) — свободный список листа
+        hull.freeHead = 3 * lo;
+        hull.freeTail = 3 * (lo + size) - 1;
+        for (int slot = hull.freeHead; slot < hull.freeTail; slot++) {
+            freeNext[slot] = slot + 1;
+        }
+        freeNext[hull.freeTail] = NONE;
+
+        int a = makeEdge(hull, lo, lo + 1);
+        if (size == 2) {
+            hull.left = a;
+            hull.right = sym(a);
+            return hull;
+        }
+        int b = makeEdge(hull, lo + 1, lo + 2);
+        splice(sym(a), b);
+        long orientation = orientation(lo, lo + 1, lo + 2);
+        if (orientation > 0) {
+            connect(hull, b, a);
+            hull.left = a;
+            hull.right = sym(b);
+        } else if (orientation < 0) {
+            int c = connect(hull, b, a);
+            hull.left = sym(c);
+            hull.right = c;
+        } else {
+            hull.left = a;
+            hull.right = sym(b);
+        }
+        return hull;
+    }
+
+    /**
+     * Сшивает триангуляции левой и правой половин.
+     */
+    private Hull merge(Hull leftHull, Hull rightHull) {
+        Hull hull = leftHull;
+        if (hull.freeHead == NONE) {
+            hull.freeHead = rightHull.freeHead;
+        } else {
+            freeNext[hull.freeTail] = rightHull.freeHead;
+        }
+        if (rightHull.freeHead != NONE) {
+            hull.freeTail = rightHull.freeTail;
+        }
+
+        int ldo = leftHull.left, ldi = leftHull.right;
+        int rdi = rightHull.left, rdo = rightHull.right;
+        // Нижняя общая касательная
+        while (true) {
+            if (leftOf(org(rdi), ldi)) {
+                ldi = lnext(ldi);
+            } else if (rightOf(org(ldi), rdi)) {
+                rdi = rprev(rdi);
+            } else {
+                break;
+            }
+        }
+
+        int basel = connect(hull, sym(rdi), ldi);
+        if (org(ldi) == org(ldo)) {
+            ldo = sym(basel);
+        }
+        if (org(rdi) == org(rdo)) {
+            rdo = basel;
+        }
+
+        // Подъём: на каждом шаге добавляется ребро к левому или правому кандидату
+        while (true) {
+            int lcand = onext[sym(basel)];
+            if (valid(lcand, basel)) {
+                while (inCircle(dest(basel), org(basel), dest(lcand), dest(onext[lcand]))) {
+                    int t = onext[lcand];
+                    deleteEdge(hull, lcand);
+                    lcand = t;
+                }
+            }
+            int rcand = oprev(basel);
+            if (valid(rcand, basel)) {
+                while (inCircle(dest(basel), org(basel), dest(rcand), dest(oprev(rcand)))) {
+                    int t = oprev(rcand);
+                    deleteEdge(hull, rcand);
+                    rcand = t;
+                }
+            }
+            boolean leftValid = valid(lcand, basel), rightValid = valid(rcand, basel);
+            if (!leftValid && !rightValid) {
+                break;
+            }
+            if (!leftValid || (rightValid && inCircle(dest(lcand), org(lcand), org(rcand), dest(rcand)))) {
+                basel = connect(hull, rcand, sym(basel));
+            } else {
+                basel = connect(hull, sym(basel), sym(lcand));
+            }
+        }
+        hull.left = ldo;
+        hull.right = rdo;
+        return hull;
+    }
+
+    /**
+     * Сбор треугольников по диапазону мест рёбер [from, to), также параллельно.
+     * Треугольник — грань слева от ребра e, если три шага lnext возвращают к e и обход идёт против часовой стрелки.
+     * Каждый треугольник выдаётся один раз — для ребра с наименьшим номером.
+     */
+    private final class TriangleCollector extends RecursiveTask<List<Triangle>> {
+        private final int from;
+        private final int to;
+
+        TriangleCollector(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected List<Triangle> compute() {
+            if (to - from > 3 * forkSize) {
+                int mid = (from + to) >>> 1;
+                TriangleCollector left = new TriangleCollector(from, mid);
+                left.fork();
+                List<Triangle> right = new TriangleCollector(mid, to).compute();
+                List<Triangle> triangles = left.join();
+                triangles.addAll(right);
+                return triangles;
+            }
+            List<Triangle> triangles = new ArrayList<>(to - from);
+            for (int slot = from; slot < to; slot++) {
+                if (origin[2 * slot] == NONE) {
+                    continue;
+                }
+                for (int e = 4 * slot; e <= 4 * slot + 2; e += 2) {
+                    int e1 = lnext(e), e2 = lnext(e1);
+                    if (lnext(e2) == e && e < e1 && e < e2 && orientation(org(e), dest(e), dest(e1)) > 0) {
+                        triangles.add(new Triangle(sites[org(e)], sites[dest(e)], sites[dest(e1)]));
+                    }
+                }
+            }
+            return triangles;
+        }
+    }
+
+    // Операции quad-edge
+
+    private int makeEdge(Hull hull, int from, int to) {
+        int slot = hull.freeHead;
+        hull.freeHead = freeNext[slot];
+        if (hull.freeHead == NONE) {
+            hull.freeTail = NONE;
+        }
+        int e = 4 * slot;
+        onext[e] = e;
+        onext[e + 1] = e + 3;
+        onext[e + 2] = e + 2;
+        onext[e + 3] = e + 1;
+        origin[2 * slot] = from;
+        origin[2 * slot + 1] = to;
+        return e;
+    }
+
+    // Новое ребро из конца a в начало b, слева от a и b
+    private int connect(Hull hull, int a, int b) {
+        int e = makeEdge(hull, dest(a), org(b));
+        splice(e, lnext(a));
+        splice(sym(e), b);
+        return e;
+    }
+
+    private void deleteEdge(Hull hull, int e) {
+        splice(e, oprev(e));
+        splice(sym(e), oprev(sym(e)));
+        int slot = e >> 2;
+        origin[2 * slot] = NONE;
+        freeNext[slot] = hull.freeHead;
+        hull.freeHead = slot;
+        if (hull.freeTail == NONE) {
+            hull.freeTail = slot;
+        }
+    }
+
+    private void splice(int a, int b) {
+        int alpha = rot(onext[a]), beta = rot(onext[b]);
+        int t = onext[a];
+        onext[a] = onext[b];
+        onext[b] = t;
+        t = onext[alpha];
+        onext[alpha] = onext[beta];
+        onext[beta] = t;
+    }
+
+    private static int rot(int e) {
+        return (e & ~3) | ((e + 1) & 3);
+    }
+
+    private static int sym(int e) {
+        return e ^ 2;
+    }
+
+    private static int rotInverse(int e) {
+        return (e & ~3) | ((e + 3) & 3);
+    }
+
+    private int oprev(int e) {
+        return rot(onext[rot(e)]);
+    }
+
+    private int lnext(int e) {
+        return rot(onext[rotInverse(e)]);
+    }
+
+    private int rprev(int e) {
+        return onext[sym(e)];
+    }
+
+    private int org(int e) {
+        return origin[e >> 1];
+    }
+
+    private int dest(int e) {
+        return origin[sym(e) >> 1];
+    }
+
+    // Геометрические предикаты (точные, см. DelaunayMesh)
+
+    private long orientation(int a, int b, int c) {
+        return DelaunayMesh.orientation(xs[a], ys[a], xs[b], ys[b], xs[c], ys[c]);
+    }
+
+    private boolean leftOf(int vertex, int e) {
+        return orientation(vertex, org(e), dest(e)) > 0;
+    }
+
+    private boolean rightOf(int vertex, int e) {
+        return orientation(vertex, dest(e), org(e)) > 0;
+    }
+
+    private boolean valid(int e, int basel) {
+        return rightOf(dest(e), basel);
+    }
+
+    private boolean inCircle(int a, int b, int c, int d) {
+        return DelaunayMesh.inCircle(xs[a], ys[a], xs[b], ys[b], xs[c], ys[c], xs[d], ys[d]) > 0;
+    }
+}
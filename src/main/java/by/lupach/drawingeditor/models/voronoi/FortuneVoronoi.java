@@ -0,0 +1,366 @@
+package by.lupach.drawingeditor.models.voronoi;
+
+import by.lupach.drawingeditor.models.CancellationToken;
+import by.lupach.drawingeditor.models.Pixel;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.SplittableRandom;
+
+/**
+ * Диаграмма Вороного алгоритмом Форчуна (заметающая прямая), O(n log n) без триангуляции.
+ *
+ * Прямая движется в сторону увеличения y. Береговая линия — последовательность дуг парабол,
+ * хранится в декартовом дереве (treap) по порядку дуг слева направо; при поиске дуги над
+ * новой точкой точки излома вычисляются для текущего положения прямой.
+ * События: точки (отсортированы заранее) и события окружности (очередь с приоритетом).
+ * Каждая точка излома прочерчивает полуребро Вороного, которое завершается в вершине
+ * при событии окружности либо уходит в бесконечность и отсекается ограничивающим прямоугольником.
+ */
+public class FortuneVoronoi {
+    private final SplittableRandom random = new SplittableRandom(0x5DEECE66DL);
+    private final List<HalfEdge> halfEdges = new ArrayList<>();
+    private final PriorityQueue<CircleEvent> circleEvents = new PriorityQueue<>(
+            Comparator.<CircleEvent>comparingDouble(e -> e.y).thenComparingDouble(e -> e.x));
+    private final CancellationToken cancellation;
+    private Arc root;
+    private double sweepY;
+
+    public FortuneVoronoi() {
+        this(CancellationToken.NONE);
+    }
+
+    // Отмена проверяется на каждом событии заметающей прямой
+    public FortuneVoronoi(CancellationToken cancellation) {
+        this.cancellation = cancellation;
+    }
+
+    /**
+     * Рёбра диаграммы, отсечённые прямоугольником boundingBox.
+     */
+    public List<LineSegment> getVoronoiEdges(List<Pixel> points, Rectangle boundingBox) {
+        List<LineSegment> segments = new ArrayList<>();
+        for (HalfEdge edge : computeHalfEdges(points)) {
+            LineSegment segment = clip(edge, boundingBox);
+            if (segment != null) {
+                segments.add(segment);
+            }
+        }
+        return segments;
+    }
+
+    List<HalfEdge> computeHalfEdges(List<Pixel> points) {
+        halfEdges.clear();
+        circleEvents.clear();
+        root = null;
+
+        List<Pixel> sites = new ArrayList<>(points);
+        sites.sort(Comparator.comparingInt(Pixel::getY).thenComparingInt(Pixel::getX));
+
+        int siteIndex = 0;
+        Pixel previous = null;
+        while (siteIndex < sites.size() || !circleEvents.isEmpty()) {
+            cancellation.throwIfCancelled();
+            CircleEvent event = circleEvents.peek();
+            Pixel site = siteIndex < sites.size() ? sites.get(siteIndex) : null;
+            if (event != null && (site == null || event.y < site.getY()
+                    || event.y == site.getY() && event.x < site.getX())) {
+                circleEvents.poll();
+                if (event.valid) {
+                    sweepY = event.y;
+                    handleCircleEvent(event);
+                }
+            } else {
+                siteIndex++;
+                // Совпадающие точки дают одну ячейку
+                if (previous == null || previous.getX() != site.getX() || previous.getY() != site.getY()) {
+                    sweepY = site.getY();
+                    handleSiteEvent(site);
+                }
+                previous = site;
+            }
+        }
+        return halfEdges;
+    }
+
+    private void handleSiteEvent(Pixel site) {
+        Arc arc = new Arc(site, random.nextInt());
+        if (root == null) {
+            root = arc;
+            return;
+        }
+
+        Arc above = findArcAbove(site.getX());
+        invalidate(above);
+        Pixel focus = above.site;
+        if (focus.getY() == site.getY()) {
+            // Первый ряд точек с одинаковым y: парабола вырождена в вертикальный луч,
+            // ребро — вертикальная прямая посередине, приходящая из бесконечности
+            HalfEdge edge = newHalfEdge(focus, site, (focus.getX() + site.getX()) / 2.0, site.getY());
+            edge.fromInfinity = true;
+            arc.rightEdge = above.rightEdge;
+            above.rightEdge = edge;
+            insertAfter(above, arc);
+            checkCircleEvent(above);
+            checkCircleEvent(arc);
+            return;
+        }
+
+        // Дуга над точкой делится на две, между ними — дуга новой точки нулевой ширины
+        double startY = parabolaY(focus, site.getX(), sweepY);
+        Arc right = new Arc(focus, random.nextInt());
+        right.rightEdge = above.rightEdge;
+        above.rightEdge = newHalfEdge(focus, site, site.getX(), startY);
+        arc.rightEdge = newHalfEdge(site, focus, site.getX(), startY);
+        insertAfter(above, arc);
+        insertAfter(arc, right);
+        checkCircleEvent(above);
+        checkCircleEvent(right);
+    }
+
+    private void handleCircleEvent(CircleEvent event) {
+        Arc arc = event.arc;
+        Arc left = arc.prev, right = arc.next;
+        left.rightEdge.finish(event.x, event.centerY);
+        arc.rightEdge.finish(event.x, event.centerY);
+        invalidate(left);
+        invalidate(right);
+        remove(arc);
+
+        left.rightEdge = newHalfEdge(left.site, right.site, event.x, event.centerY);
+        checkCircleEvent(left);
+        checkCircleEvent(right);
+    }
+
+    // Дуга исчезнет, если точки излома по обе стороны от неё сходятся
+    private void checkCircleEvent(Arc arc) {
+        Arc left = arc.prev, right = arc.next;
+        if (left == null || right == null || left.site == right.site) {
+            return;
+        }
+        Pixel a = left.site, b = arc.site, c = right.site;
+        long cross = (long) (b.getX() - a.getX()) * (c.getY() - b.getY())
+                - (long) (b.getY() - a.getY()) * (c.getX() - b.getX());
+        if (cross <= 0) {
+            return;
+        }
+
+        double bx = b.getX() - a.getX(), by = b.getY() - a.getY();
+        double cx = c.getX() - a.getX(), cy = c.getY() - a.getY();
+        double d = 2 * (bx * cy - by * cx);
+        double bLift = bx * bx + by * by, cLift = cx * cx + cy * cy;
+        double ux = (cy * bLift - by * cLift) / d;
+        double uy = (bx * cLift - cx * bLift) / d;
+        double radius = Math.sqrt(ux * ux + uy * uy);
+
+        CircleEvent event = new CircleEvent(arc, a.getX() + ux, a.getY() + uy, a.getY() + uy + radius);
+        arc.circleEvent = event;
+        circleEvents.add(event);
+    }
+
+    private void invalidate(Arc arc) {
+        if (arc.circleEvent != null) {
+            arc.circleEvent.valid = false;
+            arc.circleEvent = null;
+        }
+    }
+
+    // Спуск по дереву: в каждом узле сравниваем x с точками излома дуги при текущем положении прямой
+    private Arc findArcAbove(double x) {
+        Arc node = root;
+        while (true) {
+            if (node.prev != null && x < breakpoint(node.prev.site, node.site, sweepY) && node.left != null) {
+                node = node.left;
+            } else if (node.next != null && x > breakpoint(node.site, node.next.site, sweepY) && node.right != null) {
+                node = node.right;
+            } else {
+                return node;
+            }
+        }
+    }
+
+    /**
+     * Абсцисса точки излома между дугой left (слева) и дугой right при положении прямой sweep.
+     */
+    static double breakpoint(Pixel left, Pixel right, double sweep) {
+        double lx = left.getX(), ly = left.getY();
+        double rx = right.getX(), ry = right.getY();
+        if (ly == ry) {
+            return (lx + rx) / 2;
+        }
+        if (ly == sweep) {
+            return lx;
+        }
+        if (ry == sweep) {
+            return rx;
+        }
+        // Равенство парабол: a x^2 + b x + c = 0; левее излома выше (ближе к прямой) парабола left
+        double dl = 2 * (ly - sweep), dr = 2 * (ry - sweep);
+        double a = 1 / dl - 1 / dr;
+        double b = -2 * (lx / dl - rx / dr);
+        double c = (lx * lx + ly * ly - sweep * sweep) / dl - (rx * rx + ry * ry - sweep * sweep) / dr;
+        double sqrtD = Math.sqrt(Math.max(0, b * b - 4 * a * c));
+        return b >= 0 ? (-b - sqrtD) / (2 * a) : 2 * c / (-b + sqrtD);
+    }
+
+    private static double parabolaY(Pixel focus, double x, double sweep) {
+        double dx = x - focus.getX();
+        return (dx * dx + (double) focus.getY() * focus.getY() - sweep * sweep) / (2 * (focus.getY() - sweep));
+    }
+
+    private HalfEdge newHalfEdge(Pixel left, Pixel right, double x, double y) {
+        // Точка излома между left и right смещается перпендикулярно отрезку left-right
+        HalfEdge edge = new HalfEdge(left, right, x, y,
+                left.getY() - right.getY(), right.getX() - left.getX());
+        halfEdges.add(edge);
+        return edge;
+    }
+
+    /**
+     * Отсечение полуребра прямоугольником (Лианг–Барски); null, если полуребро не видно.
+     */
+    private static LineSegment clip(HalfEdge edge, Rectangle box) {
+        double t0 = edge.fromInfinity ? Double.NEGATIVE_INFINITY : 0;
+        double t1 = Double.POSITIVE_INFINITY;
+        if (edge.finished) {
+            t1 = ((edge.endX - edge.x) * edge.dx + (edge.endY - edge.y) * edge.dy)
+                    / (edge.dx * edge.dx + edge.dy * edge.dy);
+        }
+        return box.clip(edge.x, edge.y, edge.dx, edge.dy, t0, t1);
+    }
+
+    private void insertAfter(Arc node, Arc arc) {
+        arc.prev = node;
+        arc.next = node.next;
+        if (node.next != null) {
+            node.next.prev = arc;
+        }
+        node.next = arc;
+
+        // В дереве новая дуга — самый левый узел правого поддерева node либо его правый сын
+        if (node.right == null) {
+            node.right = arc;
+            arc.parent = node;
+        } else {
+            Arc leftmost = node.right;
+            while (leftmost.left != null) {
+                leftmost = leftmost.left;
+            }
+            leftmost.left = arc;
+            arc.parent = leftmost;
+        }
+        while (arc.parent != null && arc.priority < arc.parent.priority) {
+            rotateUp(arc);
+        }
+    }
+
+    private void remove(Arc arc) {
+        // Опускаем узел поворотами до листа, сохраняя свойство кучи по приоритетам
+        while (arc.left != null || arc.right != null) {
+            Arc child = arc.right == null || arc.left != null && arc.left.priority < arc.right.priority
+                    ? arc.left : arc.right;
+            rotateUp(child);
+        }
+        if (arc.parent == null) {
+            root = null;
+        } else if (arc.parent.left == arc) {
+            arc.parent.left = null;
+        } else {
+            arc.parent.right = null;
+        }
+
+        if (arc.prev != null) {
+            arc.prev.next = arc.next;
+        }
+        if (arc.next != null) {
+            arc.next.prev = arc.prev;
+        }
+    }
+
+    private void rotateUp(Arc node) {
+        Arc parent = node.parent;
+        Arc grandparent = parent.parent;
+        if (parent.left == node) {
+            parent.left = node.right;
+            if (node.right != null) {
+                node.right.parent = parent;
+            }
+            node.right = parent;
+        } else {
+            parent.right = node.left;
+            if (node.left != null) {
+                node.left.parent = parent;
+            }
+            node.left = parent;
+        }
+        parent.parent = node;
+        node.parent = grandparent;
+        if (grandparent == null) {
+            root = node;
+        } else if (grandparent.left == parent) {
+            grandparent.left = node;
+        } else {
+            grandparent.right = node;
+        }
+    }
+
+    // Дуга береговой линии: узел дерева и элемент двусвязного списка дуг
+    private static class Arc {
+        final Pixel site;
+        final int priority;
+        Arc left, right, parent;
+        Arc prev, next;
+        // Полуребро, которое прочерчивает точка излома между этой дугой и следующей
+        HalfEdge rightEdge;
+        CircleEvent circleEvent;
+
+        Arc(Pixel site, int priority) {
+            this.site = site;
+            this.priority = priority;
+        }
+    }
+
+    private static class CircleEvent {
+        final Arc arc;
+        final double x, centerY, y;
+        boolean valid = true;
+
+        CircleEvent(Arc arc, double x, double centerY, double y) {
+            this.arc = arc;
+            this.x = x;
+            this.centerY = centerY;
+            this.y = y;
+        }
+    }
+
+    /**
+     * Часть ребра Вороного между ячейками left и right: луч из (x, y) в направлении (dx, dy),
+     * завершённый в (endX, endY) при событии окружности.
+     */
+    static class HalfEdge {
+        final Pixel left, right;
+        final double x, y, dx, dy;
+        boolean fromInfinity;
+        boolean finished;
+        double endX, endY;
+
+        HalfEdge(Pixel left, Pixel right, double x, double y, double dx, double dy) {
+            this.left = left;
+            this.right = right;
+            this.x = x;
+            this.y = y;
+            this.dx = dx;
+            this.dy = dy;
+        }
+
+        void finish(double endX, double endY) {
+            if (!finished) {
+                finished = true;
+                this.endX = endX;
+                this.endY = endY;
+            }
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package by.lupach.drawingeditor.models.voronoi;
 
+import by.lupach.drawingeditor.models.Pixel;
+
 public class Rectangle {
     private int x;
     private int y;
@@ -16,6 +18,35 @@ public class Rectangle {
     public int getY() { return y; }
     public int getWidth() { return width; }
     public int getHeight() { return height; }
+
+    /**
+     * Отсекает часть прямой (x + t*dx, y + t*dy), t из [t0, t1], прямоугольником (Лианг–Барски).
+     * Границы t0, t1 могут быть бесконечными; null, если отрезок не виден.
+     */
+    public LineSegment clip(double px, double py, double dx, double dy, double t0, double t1) {
+        double[] p = {-dx, dx, -dy, dy};
+        double[] q = {px - x, x + width - px, py - y, y + height - py};
+        for (int i = 0; i < 4; i++) {
+            if (p[i] == 0) {
+                if (q[i] < 0) {
+                    return null;
+                }
+            } else {
+                double t = q[i] / p[i];
+                if (p[i] < 0) {
+                    t0 = Math.max(t0, t);
+                } else {
+                    t1 = Math.min(t1, t);
+                }
+            }
+        }
+        if (t0 > t1) {
+            return null;
+        }
+        return new LineSegment(
+                new Pixel((int) Math.round(px + t0 * dx), (int) Math.round(py + t0 * dy)),
+                new Pixel((int) Math.round(px + t1 * dx), (int) Math.round(py + t1 * dy)));
+    }
     @Override
     public String toString() {
         return "Rectangle{" + "x=" + x + ", y=" + y +
@@ -1,11 +1,13 @@
 package by.lupach.drawingeditor.models.voronoi;
 
 
+import by.lupach.drawingeditor.models.CancellationToken;
 import by.lupach.drawingeditor.models.Pixel;
 import lombok.Data;
 import lombok.Getter;
 
-import java.util.*;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 @Getter
 @Data
@@ -13,74 +15,30 @@ public class Triangulation {
     private List<Triangle> triangles;
 
     public Triangulation(List<Pixel> points) {
-        triangles = new ArrayList<>();
-        performTriangulation(points);
+        // Триангуляция Делоне строится инкрементально с локализацией точек (см. DelaunayMesh)
+        DelaunayMesh mesh = new DelaunayMesh();
+        mesh.insertAll(points);
+        triangles = mesh.getTriangles();
     }
 
-    private void performTriangulation(List<Pixel> points) {
-        // Создаём супер-треугольник, охватывающий все точки
-        int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE;
-        int maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE;
-
-        for (Pixel p : points) {
-            minX = Math.min(minX, p.getX());
-            minY = Math.min(minY, p.getY());
-            maxX = Math.max(maxX, p.getX());
-            maxY = Math.max(maxY, p.getY());
-        }
-
-        int dx = maxX - minX;
-        int dy = maxY - minY;
-        int deltaMax = Math.max(dx, dy) * 10;
-
-        Pixel p1 = new Pixel(minX - deltaMax, minY - deltaMax);
-        Pixel p2 = new Pixel(minX + deltaMax, minY - deltaMax);
-        Pixel p3 = new Pixel(minX, minY + deltaMax * 2);
-
-        Triangle superTriangle = new Triangle(p1, p2, p3);
-        triangles.add(superTriangle);
-
-        // Добавляем точки по одной
-        for (Pixel p : points) {
-            List<Triangle> badTriangles = new ArrayList<>();
-            List<Edge> edges = new ArrayList<>();
-
-            for (Triangle t : triangles) {
-                if (t.containsInCircumcircle(p)) {
-                    badTriangles.add(t);
-                    edges.addAll(t.getEdges());
-                }
-            }
-
-            triangles.removeAll(badTriangles);
-
-            // Убираем дублирующиеся рёбра (оставляем только уникальные)
-            edges = removeDuplicateEdges(edges);
-
-            for (Edge edge : edges) {
-                triangles.add(new Triangle(edge.getA(), edge.getB(), p));
-            }
-        }
-
-        // Убираем треугольники, содержащие вершины супер-треугольника
-        triangles.removeIf(t -> t.hasVertex(p1) || t.hasVertex(p2) || t.hasVertex(p3));
+    /**
+     * Начиная с parallelThreshold точек триангуляция строится параллельно методом "разделяй и властвуй".
+     */
+    public Triangulation(List<Pixel> points, int parallelThreshold) {
+        this(points, parallelThreshold, CancellationToken.NONE);
     }
 
-    private List<Edge> removeDuplicateEdges(List<Edge> edges) {
-        Map<Edge, Integer> edgeCount = new HashMap<>();
-
-        for (Edge edge : edges) {
-            edgeCount.put(edge, edgeCount.getOrDefault(edge, 0) + 1);
+    /**
+     * Построение прерывается CancellationException, если токен отменён: проверка идёт перед каждой вставкой точки
+     * или сшиванием половин.
+     */
+    public Triangulation(List<Pixel> points, int parallelThreshold, CancellationToken cancellation) {
+        if (points.size() >= parallelThreshold) {
+            triangles = new DivideAndConquerDelaunay(ForkJoinPool.commonPool(), cancellation).triangulate(points);
+        } else {
+            DelaunayMesh mesh = new DelaunayMesh();
+            mesh.insertAll(points, cancellation);
+            triangles = mesh.getTriangles();
         }
-
-        List<Edge> uniqueEdges = new ArrayList<>();
-        for (Map.Entry<Edge, Integer> entry : edgeCount.entrySet()) {
-            if (entry.getValue() == 1) {
-                uniqueEdges.add(entry.getKey());
-            }
-        }
-
-        return uniqueEdges;
     }
-
 }
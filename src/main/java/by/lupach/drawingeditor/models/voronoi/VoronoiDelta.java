@@ -0,0 +1,16 @@
+package by.lupach.drawingeditor.models.voronoi;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Изменение диаграммы после одной операции: сначала удаляются отрезки removed,
+ * затем добавляются (или заменяются по id) отрезки added.
+ */
+@Data
+public class VoronoiDelta {
+    private List<VoronoiSegment> added = new ArrayList<>();
+    private List<String> removed = new ArrayList<>();
+}
@@ -0,0 +1,13 @@
+package by.lupach.drawingeditor.models.voronoi;
+
+import by.lupach.drawingeditor.models.Pixel;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class VoronoiRequest {
+    private List<Pixel> points;
+    // "delaunay" — через триангуляцию (с отрисовкой треугольников), "fortune" — только рёбра Вороного
+    private String engine = "delaunay";
+}
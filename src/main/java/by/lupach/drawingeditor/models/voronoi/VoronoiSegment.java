@@ -0,0 +1,21 @@
+package by.lupach.drawingeditor.models.voronoi;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Отрезок инкрементальной диаграммы: ребро Делоне ("delaunay") или дуальное ему ребро Вороного ("voronoi").
+ * Идентификатор строится из номеров вершин ребра Делоне и не меняется, пока ребро существует.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VoronoiSegment {
+    private String id;
+    private String kind;
+    private int x1;
+    private int y1;
+    private int x2;
+    private int y2;
+}
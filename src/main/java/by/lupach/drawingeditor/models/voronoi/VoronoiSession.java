@@ -0,0 +1,165 @@
+package by.lupach.drawingeditor.models.voronoi;
+
+import by.lupach.drawingeditor.models.Pixel;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Диаграмма Вороного, которая обновляется по одной точке.
+ *
+ * Триангуляция Делоне хранится между сообщениями; при вставке и удалении точки сеть сообщает
+ * о заменённых треугольниках, и пересчитываются только рёбра этих треугольников.
+ * Клиенту отправляется разница: удалённые и новые (или изменившиеся) отрезки Делоне и Вороного.
+ */
+public class VoronoiSession {
+    private static final int NONE = -1;
+
+    private final Rectangle boundingBox;
+    private DelaunayMesh mesh;
+    // Номер вершины по координатам точки
+    private final Map<Long, Integer> vertices = new HashMap<>();
+    // Рёбра Делоне (пары вершин), затронутые текущей операцией
+    private final Set<Long> touchedEdges = new HashSet<>();
+    // Отрезки, которые уже есть у клиента
+    private final Set<String> published = new HashSet<>();
+
+    public VoronoiSession(Rectangle boundingBox) {
+        this.boundingBox = boundingBox;
+        this.mesh = newMesh();
+    }
+
+    public VoronoiDelta insert(Pixel site) {
+        int vertex = mesh.insert(site);
+        if (vertex != NONE) {
+            vertices.put(key(site), vertex);
+        }
+        return collectDelta();
+    }
+
+    public VoronoiDelta delete(Pixel site) {
+        Integer vertex = vertices.remove(key(site));
+        if (vertex != null) {
+            mesh.delete(vertex);
+        }
+        return collectDelta();
+    }
+
+    /**
+     * Удаляет все точки; разница содержит все отрезки, отправленные клиенту ранее.
+     */
+    public VoronoiDelta clear() {
+        VoronoiDelta delta = new VoronoiDelta();
+        delta.getRemoved().addAll(published);
+        published.clear();
+        vertices.clear();
+        touchedEdges.clear();
+        mesh = newMesh();
+        return delta;
+    }
+
+    private DelaunayMesh newMesh() {
+        DelaunayMesh created = new DelaunayMesh();
+        created.setChangeListener(this::touchEdges);
+        return created;
+    }
+
+    private void touchEdges(int triangle) {
+        for (int i = 0; i < 3; i++) {
+            int u = mesh.getTriangleVertex(triangle, (i + 1) % 3);
+            int v = mesh.getTriangleVertex(triangle, (i + 2) % 3);
+            if (u != DelaunayMesh.GHOST && v != DelaunayMesh.GHOST) {
+                touchedEdges.add((long) Math.min(u, v) << 32 | Math.max(u, v));
+            }
+        }
+    }
+
+    /**
+     * Для каждого затронутого ребра проверяет, существует ли оно после операции, и строит его отрезки заново.
+     */
+    private VoronoiDelta collectDelta() {
+        VoronoiDelta delta = new VoronoiDelta();
+        for (long edge : touchedEdges) {
+            int u = (int) (edge >>> 32), v = (int) edge;
+            String id = u + "-" + v;
+            int t = mesh.findEdge(u, v);
+            LineSegment delaunay = null, voronoi = null;
+            if (t != NONE) {
+                delaunay = new LineSegment(mesh.getSite(u), mesh.getSite(v));
+                voronoi = dualSegment(t, u, v);
+            }
+            update(delta, "d" + id, "delaunay", delaunay);
+            update(delta, "v" + id, "voronoi", voronoi);
+        }
+        touchedEdges.clear();
+        return delta;
+    }
+
+    private void update(VoronoiDelta delta, String id, String kind, LineSegment segment) {
+        if (segment == null) {
+            if (published.remove(id)) {
+                delta.getRemoved().add(id);
+            }
+            return;
+        }
+        published.add(id);
+        delta.getAdded().add(new VoronoiSegment(id, kind, segment.getStart().getX(), segment.getStart().getY(),
+                segment.getEnd().getX(), segment.getEnd().getY()));
+    }
+
+    /**
+     * Ребро Вороного, дуальное ребру (u, v) треугольника t: отрезок между центрами описанных окружностей
+     * двух соседних треугольников либо, для ребра оболочки, луч наружу, отсечённые прямоугольником.
+     */
+    private LineSegment dualSegment(int t, int u, int v) {
+        int other = mesh.getNeighbour(t, thirdIndex(t, u, v));
+        if (mesh.isGhost(t)) {
+            int swap = t;
+            t = other;
+            other = swap;
+        }
+        if (mesh.isGhost(t)) {
+            return null;
+        }
+        double[] center = circumcenter(t);
+        if (!mesh.isGhost(other)) {
+            double[] otherCenter = circumcenter(other);
+            return boundingBox.clip(center[0], center[1],
+                    otherCenter[0] - center[0], otherCenter[1] - center[1], 0, 1);
+        }
+        // Ребро p -> q идёт против часовой стрелки вокруг t, наружу — поворот по часовой
+        int k = thirdIndex(t, u, v);
+        Pixel p = mesh.getSite(mesh.getTriangleVertex(t, (k + 1) % 3));
+        Pixel q = mesh.getSite(mesh.getTriangleVertex(t, (k + 2) % 3));
+        return boundingBox.clip(center[0], center[1],
+                q.getY() - p.getY(), p.getX() - q.getX(), 0, Double.POSITIVE_INFINITY);
+    }
+
+    private int thirdIndex(int t, int u, int v) {
+        for (int i = 0; i < 3; i++) {
+            int vertex = mesh.getTriangleVertex(t, i);
+            if (vertex != u && vertex != v) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("Triangle " + t + " is degenerate");
+    }
+
+    private double[] circumcenter(int t) {
+        Pixel a = mesh.getSite(mesh.getTriangleVertex(t, 0));
+        Pixel b = mesh.getSite(mesh.getTriangleVertex(t, 1));
+        Pixel c = mesh.getSite(mesh.getTriangleVertex(t, 2));
+        double ax = a.getX(), ay = a.getY(), bx = b.getX(), by = b.getY(), cx = c.getX(), cy = c.getY();
+        double d = 2 * (ax * (by - cy) + bx * (cy - ay) + cx * (ay - by));
+        double aLift = ax * ax + ay * ay, bLift = bx * bx + by * by, cLift = cx * cx + cy * cy;
+        return new double[]{
+                (aLift * (by - cy) + bLift * (cy - ay) + cLift * (ay - by)) / d,
+                (aLift * (cx - bx) + bLift * (ax - cx) + cLift * (bx - ax)) / d};
+    }
+
+    private static long key(Pixel site) {
+        return (long) site.getX() << 32 | (site.getY() & 0xFFFFFFFFL);
+    }
+}
@@ -1,28 +1,36 @@
 package by.lupach.drawingeditor.services;
 
+import by.lupach.drawingeditor.models.ArgbColor;
 import by.lupach.drawingeditor.models.Pixel;
+import by.lupach.drawingeditor.models.raster.PixelBuffer;
+import by.lupach.drawingeditor.models.raster.PixelSink;
 import org.springframework.stereotype.Service;
 
-import java.util.ArrayList;
 import java.util.List;
 
 @Service
 public class CurveDrawingService {
     public List<Pixel> generateCircle(int x0, int y0, double r) {
-        List<Pixel> pixels = new ArrayList<>();
+        try (PixelBuffer pixels = PixelBuffer.acquire()) {
+            generateCircle(x0, y0, r, pixels);
+            return pixels.toPixels();
+        }
+    }
+
+    public void generateCircle(int x0, int y0, double r, PixelSink sink) {
         int x = (int) r;
         int y = 0;
         int err = 0;
 
         while (x >= y) {
-            pixels.add(new Pixel(x0 + x, y0 + y,  "rgba(0, 0, 0, 255)"));
-            pixels.add(new Pixel(x0 + y, y0 + x,  "rgba(0, 0, 0, 255)"));
-            pixels.add(new Pixel(x0 - y, y0 + x,  "rgba(0, 0, 0, 255)"));
-            pixels.add(new Pixel(x0 - x, y0 + y,  "rgba(0, 0, 0, 255)"));
-            pixels.add(new Pixel(x0 - x, y0 - y,  "rgba(0, 0, 0, 255)"));
-            pixels.add(new Pixel(x0 - y, y0 - x,  "rgba(0, 0, 0, 255)"));
-            pixels.add(new Pixel(x0 + y, y0 - x,  "rgba(0, 0, 0, 255)"));
-            pixels.add(new Pixel(x0 + x, y0 - y,  "rgba(0, 0, 0, 255)"));
+            sink.plot(x0 + x, y0 + y, ArgbColor.BLACK);
+            sink.plot(x0 + y, y0 + x, ArgbColor.BLACK);
+            sink.plot(x0 - y, y0 + x, ArgbColor.BLACK);
+            sink.plot(x0 - x, y0 + y, ArgbColor.BLACK);
+            sink.plot(x0 - x, y0 - y, ArgbColor.BLACK);
+            sink.plot(x0 - y, y0 - x, ArgbColor.BLACK);
+            sink.plot(x0 + y, y0 - x, ArgbColor.BLACK);
+            sink.plot(x0 + x, y0 - y, ArgbColor.BLACK);
 
             y++;
             err += 2 * y + 1;
@@ -31,12 +39,16 @@ public class CurveDrawingService {
                 err -= 2 * x + 1;
             }
         }
-
-        return pixels;
     }
 
     public List<Pixel> generateEllipse(int x0, int y0, double a, double b) {
-        List<Pixel> pixels = new ArrayList<>();
+        try (PixelBuffer pixels = PixelBuffer.acquire()) {
+            generateEllipse(x0, y0, a, b, pixels);
+            return pixels.toPixels();
+        }
+    }
+
+    public void generateEllipse(int x0, int y0, double a, double b, PixelSink sink) {
         int x = 0;
         int y = (int) b;
         int a2 = (int) (a * a);
@@ -44,10 +56,10 @@ public class CurveDrawingService {
         int err = (int) (b2 - a2 * b + (double) a2 / 4);
 
         while (a2 * y > b2 * x) {
-            pixels.add(new Pixel(x0 + x, y0 + y,  "rgba(0, 0, 0, 255)"));
-            pixels.add(new Pixel(x0 - x, y0 + y,  "rgba(0, 0, 0, 255)"));
-            pixels.add(new Pixel(x0 + x, y0 - y,  "rgba(0, 0, 0, 255)"));
-            pixels.add(new Pixel(x0 - x, y0 - y,  "rgba(0, 0, 0, 255)"));
+            sink.plot(x0 + x, y0 + y, ArgbColor.BLACK);
+            sink.plot(x0 - x, y0 + y, ArgbColor.BLACK);
+            sink.plot(x0 + x, y0 - y, ArgbColor.BLACK);
+            sink.plot(x0 - x, y0 - y, ArgbColor.BLACK);
 
             if (err <= 0) {
                 err += 2 * b2 * x + 3 * b2;
@@ -63,10 +75,10 @@ public class CurveDrawingService {
         err = (int) (a2 - b2 * a + (double) b2 / 4);
 
         while (b2 * x > a2 * y) {
-            pixels.add(new Pixel(x0 + x, y0 + y,  "rgba(0, 0, 0, 255)"));
-            pixels.add(new Pixel(x0 - x, y0 + y,  "rgba(0, 0, 0, 255)"));
-            pixels.add(new Pixel(x0 + x, y0 - y,  "rgba(0, 0, 0, 255)"));
-            pixels.add(new Pixel(x0 - x, y0 - y,  "rgba(0, 0, 0, 255)"));
+            sink.plot(x0 + x, y0 + y, ArgbColor.BLACK);
+            sink.plot(x0 - x, y0 + y, ArgbColor.BLACK);
+            sink.plot(x0 + x, y0 - y, ArgbColor.BLACK);
+            sink.plot(x0 - x, y0 - y, ArgbColor.BLACK);
 
             if (err <= 0) {
                 err += 2 * a2 * y + 3 * a2;
@@ -76,14 +88,17 @@ public class CurveDrawingService {
             }
             y++;
         }
-
-        return pixels;
     }
 
 
     public List<Pixel> generateParabola(int x0, int y0, double a) {
-        List<Pixel> pixels = new ArrayList<>();
+        try (PixelBuffer pixels = PixelBuffer.acquire()) {
+            generateParabola(x0, y0, a, pixels);
+            return pixels.toPixels();
+        }
+    }
 
+    public void generateParabola(int x0, int y0, double a, PixelSink sink) {
         int xLimit = (int) Math.sqrt(720 / Math.abs(a)); // Оценка предела x по высоте 720
 
         double div = 0.5 / a;
@@ -92,8 +107,8 @@ public class CurveDrawingService {
         double postErr = 1 - a * Math.ceil(div) - 0.25 * a;
 
         while (x <= xLimit) {
-            pixels.add(new Pixel(x + x0, y + y0, "rgba(0, 0, 0, 255)"));
-            pixels.add(new Pixel(-x + x0, y + y0, "rgba(0, 0, 0, 255)"));
+            sink.plot(x + x0, y + y0, ArgbColor.BLACK);
+            sink.plot(-x + x0, y + y0, ArgbColor.BLACK);
 
             if (x < div) {
                 double tmp = -2 * a * x - 3 * a;
@@ -115,13 +130,17 @@ public class CurveDrawingService {
                 }
             }
         }
-        return pixels;
     }
 
 
     public List<Pixel> generateHyperbola(int x0, int y0, double a, double b) {
-        List<Pixel> pixels = new ArrayList<>();
+        try (PixelBuffer pixels = PixelBuffer.acquire()) {
+            generateHyperbola(x0, y0, a, b, pixels);
+            return pixels.toPixels();
+        }
+    }
 
+    public void generateHyperbola(int x0, int y0, double a, double b, PixelSink sink) {
         a = Math.pow(a, 2);
         b = Math.pow(b, 2);
 
@@ -136,10 +155,10 @@ public class CurveDrawingService {
             boolean f1 = (err <= 0) || (2 * err - b * (2 * x + 1) <= 0);
             boolean f2 = (err <= 0) || (2 * err - a * (2 * y + 1) > 0);
 
-            pixels.add(new Pixel(x0 - x, y0 - y, "rgba(0, 0, 0, 255)"));
-            pixels.add(new Pixel(x0 + x, y0 + y, "rgba(0, 0, 0, 255)"));
-            pixels.add(new Pixel(x0 + x, y0 - y, "rgba(0, 0, 0, 255)"));
-            pixels.add(new Pixel(x0 - x, y0 + y, "rgba(0, 0, 0, 255)"));
+            sink.plot(x0 - x, y0 - y, ArgbColor.BLACK);
+            sink.plot(x0 + x, y0 + y, ArgbColor.BLACK);
+            sink.plot(x0 + x, y0 - y, ArgbColor.BLACK);
+            sink.plot(x0 - x, y0 + y, ArgbColor.BLACK);
 
             if (f1) {
                 x++;
@@ -155,7 +174,5 @@ public class CurveDrawingService {
                 err -= (int) (a * (2 * y - 1));
             }
         }
-
-        return pixels;
     }
 }
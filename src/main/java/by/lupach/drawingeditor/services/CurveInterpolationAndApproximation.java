@@ -1,9 +1,12 @@
 package by.lupach.drawingeditor.services;
 
+import by.lupach.drawingeditor.models.ArgbColor;
+import by.lupach.drawingeditor.models.CancellationToken;
 import by.lupach.drawingeditor.models.Pixel;
+import by.lupach.drawingeditor.models.raster.PixelBuffer;
+import by.lupach.drawingeditor.models.raster.PixelSink;
 import org.springframework.stereotype.Service;
 
-import java.util.ArrayList;
 import java.util.List;
 
 @Service
@@ -14,10 +17,16 @@ public class CurveInterpolationAndApproximation {
      * P(t) = h1(t)*p0 + h2(t)*p1+h3(t)*r0+h4(t)*r1
      */
     public List<Pixel> generateHermiteCurve(List<Pixel> points) {
-        List<Pixel> pixels = new ArrayList<>();
+        try (PixelBuffer pixels = PixelBuffer.acquire()) {
+            generateHermiteCurve(points, pixels);
+            return pixels.toPixels();
+        }
+    }
+
+    public void generateHermiteCurve(List<Pixel> points, PixelSink sink) {
 
         if (points == null || points.size() != 4) {
-            return pixels;
+            return;
         }
 
 
@@ -39,10 +48,8 @@ public class CurveInterpolationAndApproximation {
             double y = hermiteBasis[0] * p0.getY() + hermiteBasis[1] * p1.getY() +
                     hermiteBasis[2] * r0.getY() + hermiteBasis[3] * r1.getY();
 
-            pixels.add(new Pixel((int) x, (int) y,  "rgba(0, 0, 0, 255)"));
+            sink.plot((int) x, (int) y, ArgbColor.BLACK);
         }
-
-        return pixels;
     }
 
     private double[] getHermiteBasis(double t) {
@@ -58,10 +65,16 @@ public class CurveInterpolationAndApproximation {
      * P(t) = (1-t)^3*p0 + 3t(1-t)^2*p1+3t^2(1-t)*p2+t3*p3
      */
     public List<Pixel> generateBezierCurve(List<Pixel> points) {
-        List<Pixel> pixels = new ArrayList<>();
+        try (PixelBuffer pixels = PixelBuffer.acquire()) {
+            generateBezierCurve(points, pixels);
+            return pixels.toPixels();
+        }
+    }
+
+    public void generateBezierCurve(List<Pixel> points, PixelSink sink) {
 
         if (points == null || points.size() != 4) {
-            return pixels;
+            return;
         }
 
         Pixel p0 = points.get(0);
@@ -83,11 +96,9 @@ public class CurveInterpolationAndApproximation {
                     3 * Math.pow(t, 2) * (1 - t) * p2.getY() +
                     Math.pow(t, 3) * p3.getY();
 
-            pixels.add(new Pixel((int) x, (int) y,  "rgba(0, 0, 0, 255)"));
+            sink.plot((int) x, (int) y, ArgbColor.BLACK);
 
         }
-
-        return pixels;
     }
 
     /**
@@ -102,10 +113,21 @@ public class CurveInterpolationAndApproximation {
      **/
 
     public List<Pixel> generateBSplineCurve(List<Pixel> points) {
-        List<Pixel> pixels = new ArrayList<>();
+        try (PixelBuffer pixels = PixelBuffer.acquire()) {
+            generateBSplineCurve(points, pixels);
+            return pixels.toPixels();
+        }
+    }
+
+    public void generateBSplineCurve(List<Pixel> points, PixelSink sink) {
+        generateBSplineCurve(points, sink, CancellationToken.NONE);
+    }
+
+    // Каждая точка кривой суммирует базисные функции всех контрольных точек, поэтому отмена проверяется на каждой
+    public void generateBSplineCurve(List<Pixel> points, PixelSink sink, CancellationToken cancellation) {
 
         if (points == null || points.size() < 4) {
-            return pixels;
+            return;
         }
 
         int degree = 3;                     // Степень сплайна (кубический сплайн)
@@ -122,6 +144,7 @@ public class CurveInterpolationAndApproximation {
         }
 
         for (int i = 0; i < pointsNum; i++) {
+            cancellation.throwIfCancelled();
             double t = tStart + (tEnd - tStart) * i / (pointsNum - 1);
             double x = 0.0;
             double y = 0.0;
@@ -130,10 +153,8 @@ public class CurveInterpolationAndApproximation {
                 x += points.get(j).getX() * b;
                 y += points.get(j).getY() * b;
             }
-            pixels.add(new Pixel((int) Math.round(x), (int) Math.round(y), "rgba(0, 0, 0, 255)"));
+            sink.plot((int) Math.round(x), (int) Math.round(y), ArgbColor.BLACK);
         }
-
-        return pixels;
     }
 
     private double[] bSplineGenerateKnots(int m, int degree){
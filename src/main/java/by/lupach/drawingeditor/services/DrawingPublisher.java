@@ -0,0 +1,126 @@
+package by.lupach.drawingeditor.services;
+
+import by.lupach.drawingeditor.models.Pixel;
+import by.lupach.drawingeditor.models.frames.PackedPixelFrame;
+import by.lupach.drawingeditor.models.polygons.Span;
+import by.lupach.drawingeditor.models.raster.PixelBuffer;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static by.lupach.drawingeditor.configs.FrameFormatInterceptor.FRAME_FORMAT_HEADER;
+import static by.lupach.drawingeditor.configs.FrameFormatInterceptor.PACKED_FORMAT;
+import static by.lupach.drawingeditor.configs.FrameFormatInterceptor.PACKED_SUFFIX;
+
+/**
+ * Публикация результатов растеризации.
+ * Результат уходит только отправившему запрос сеансу (/user/queue/drawings), а если сеанс присоединился
+ * к общему холсту — всем его участникам (/topic/canvas/{canvasId}).
+ * Очистка и замена общего холста сообщаются участникам через /topic/canvas/{canvasId}/clear.
+ * JSON и упакованный кадр формируются только при наличии подписчиков соответствующего формата.
+ * SockJS передаёт только текстовые фреймы, поэтому бинарный кадр кодируется в Base64.
+ */
+@Service
+public class DrawingPublisher {
+    public static final String DRAWINGS_QUEUE = "/queue/drawings";
+    public static final String SHARED_CANVAS_TOPIC = "/topic/canvas/";
+    public static final String CLEAR_SUFFIX = "/clear";
+    private static final String USER_PREFIX = "/user";
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final FrameSubscriptionRegistry subscriptionRegistry;
+    private final SharedCanvasService sharedCanvasService;
+
+    public DrawingPublisher(SimpMessagingTemplate messagingTemplate, FrameSubscriptionRegistry subscriptionRegistry,
+                            SharedCanvasService sharedCanvasService) {
+        this.messagingTemplate = messagingTemplate;
+        this.subscriptionRegistry = subscriptionRegistry;
+        this.sharedCanvasService = sharedCanvasService;
+    }
+
+    public void publish(String sessionId, List<Pixel> pixels) {
+        send(sessionId, pixels, Function.identity(), PackedPixelFrame::encode);
+    }
+
+    public void publish(String sessionId, PixelBuffer pixels) {
+        send(sessionId, pixels, PixelBuffer::toPixels, PackedPixelFrame::encode);
+    }
+
+    public void publishSpans(String sessionId, List<Span> spans) {
+        send(sessionId, spans, Function.identity(), PackedPixelFrame::encodeSpans);
+    }
+
+    /**
+     * Сообщает участникам общего холста, что он очищен. Сеанс без общего холста очищает свой холст сам.
+     */
+    public void publishClear(String sessionId) {
+        String canvasId = sharedCanvasService.canvasOf(sessionId);
+        if (canvasId == null) {
+            return;
+        }
+        String topic = SHARED_CANVAS_TOPIC + canvasId + CLEAR_SUFFIX;
+        if (subscriptionRegistry.hasSubscribers(topic)) {
+            messagingTemplate.convertAndSend(topic, Map.of());
+        }
+    }
+
+    /**
+     * Рассылает участникам общего холста его новое содержимое: очистку и затем все пиксели.
+     * Сеанс без общего холста получает заменённую сцену в собственном ответе.
+     */
+    public void publishReplace(String sessionId, List<Pixel> pixels) {
+        if (sharedCanvasService.canvasOf(sessionId) == null) {
+            return;
+        }
+        publishClear(sessionId);
+        publish(sessionId, pixels);
+    }
+
+    /**
+     * Сообщение только указанному сеансу: клиент подписывается на /user{destination}.
+     */
+    public void sendToSession(String sessionId, String destination, Object payload) {
+        sendToSession(sessionId, destination, payload, Map.of());
+    }
+
+    private <T> void send(String sessionId, T payload, Function<T, ?> json, Function<T, byte[]> packer) {
+        String canvasId = sharedCanvasService.canvasOf(sessionId);
+        if (canvasId != null) {
+            String topic = SHARED_CANVAS_TOPIC + canvasId;
+            if (subscriptionRegistry.hasSubscribers(topic)) {
+                messagingTemplate.convertAndSend(topic, json.apply(payload));
+            }
+            if (subscriptionRegistry.hasSubscribers(topic + PACKED_SUFFIX)) {
+                messagingTemplate.convertAndSend(topic + PACKED_SUFFIX, pack(payload, packer),
+                        Map.of(FRAME_FORMAT_HEADER, PACKED_FORMAT));
+            }
+            return;
+        }
+
+        if (subscriptionRegistry.isSubscribed(sessionId, USER_PREFIX + DRAWINGS_QUEUE)) {
+            sendToSession(sessionId, DRAWINGS_QUEUE, json.apply(payload), Map.of());
+        }
+        if (subscriptionRegistry.isSubscribed(sessionId, USER_PREFIX + DRAWINGS_QUEUE + PACKED_SUFFIX)) {
+            sendToSession(sessionId, DRAWINGS_QUEUE + PACKED_SUFFIX, pack(payload, packer),
+                    Map.of(FRAME_FORMAT_HEADER, PACKED_FORMAT));
+        }
+    }
+
+    private static <T> String pack(T payload, Function<T, byte[]> packer) {
+        return Base64.getEncoder().encodeToString(packer.apply(payload));
+    }
+
+    private void sendToSession(String sessionId, String destination, Object payload, Map<String, String> nativeHeaders) {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        headers.setSessionId(sessionId);
+        nativeHeaders.forEach(headers::setNativeHeader);
+        headers.setLeaveMutable(true);
+        messagingTemplate.convertAndSendToUser(sessionId, destination, payload, headers.getMessageHeaders());
+    }
+}
@@ -0,0 +1,143 @@
+package by.lupach.drawingeditor.services;
+
+import by.lupach.drawingeditor.models.Pixel;
+import by.lupach.drawingeditor.models.polygons.Span;
+import by.lupach.drawingeditor.models.raster.FrameBuffer;
+import by.lupach.drawingeditor.models.raster.PixelBuffer;
+import by.lupach.drawingeditor.models.raster.PixelSink;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import static by.lupach.drawingeditor.configs.ScreenConstants.SCREEN_HEIGHT;
+import static by.lupach.drawingeditor.configs.ScreenConstants.SCREEN_WIDTH;
+
+/**
+ * Холсты WebSocket-сеансов. Каждый результат растеризации накладывается на холст сеанса,
+ * а клиенту уходят только те пиксели, которые действительно изменили холст.
+ * Холст ищется по ключу: это идентификатор сеанса или ключ общего холста (см. SharedCanvasService).
+ */
+@Service
+public class FrameBufferService {
+    private final Map<String, FrameBuffer> frameBuffers = new ConcurrentHashMap<>();
+
+    public FrameBuffer get(String sessionId) {
+        return frameBuffers.computeIfAbsent(sessionId, k -> new FrameBuffer(SCREEN_WIDTH, SCREEN_HEIGHT));
+    }
+
+    /**
+     * Выполняет чтение холста под блокировкой, чтобы параллельные сообщения сеанса его не меняли.
+     */
+    public <T> T read(String sessionId, Function<FrameBuffer, T> reader) {
+        FrameBuffer frameBuffer = get(sessionId);
+        synchronized (frameBuffer) {
+            return reader.apply(frameBuffer);
+        }
+    }
+
+    /**
+     * Копия холста, снятая под блокировкой: долгие чтения (заливки с затравкой) выполняются по ней,
+     * не задерживая наложение результатов других запросов.
+     */
+    public FrameBuffer snapshot(String sessionId) {
+        return read(sessionId, FrameBuffer::snapshot);
+    }
+
+    public void clear(String sessionId) {
+        FrameBuffer frameBuffer = frameBuffers.get(sessionId);
+        if (frameBuffer != null) {
+            synchronized (frameBuffer) {
+                frameBuffer.clear();
+            }
+        }
+    }
+
+    public void remove(String sessionId) {
+        frameBuffers.remove(sessionId);
+    }
+
+    /**
+     * Накладывает пиксели на холст и возвращает изменившие его.
+     */
+    public List<Pixel> composite(String sessionId, List<Pixel> pixels) {
+        FrameBuffer frameBuffer = get(sessionId);
+        List<Pixel> changed = new ArrayList<>();
+        synchronized (frameBuffer) {
+            for (Pixel pixel : pixels) {
+                if (frameBuffer.blend(pixel.getX(), pixel.getY(), pixel.getColor())) {
+                    changed.add(pixel);
+                }
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Накладывает пиксели буфера на холст, изменившие его пиксели передаются в changed.
+     */
+    public void composite(String sessionId, PixelBuffer pixels, PixelSink changed) {
+        FrameBuffer frameBuffer = get(sessionId);
+        synchronized (frameBuffer) {
+            for (int i = 0; i < pixels.size(); i++) {
+                int x = pixels.getX(i), y = pixels.getY(i), argb = pixels.getColor(i);
+                if (frameBuffer.blend(x, y, argb)) {
+                    changed.plot(x, y, argb);
+                }
+            }
+        }
+    }
+
+    /**
+     * Накладывает интервалы на холст и возвращает их части, изменившие холст.
+     */
+    public List<Span> compositeSpans(String sessionId, List<Span> spans) {
+        FrameBuffer frameBuffer = get(sessionId);
+        List<Span> changed = new ArrayList<>();
+        synchronized (frameBuffer) {
+            for (Span span : spans) {
+                // Интервал обрезается по холсту один раз, а не проверкой каждого пикселя
+                int x0 = Math.max(span.getXStart(), 0);
+                int x1 = Math.min(span.getXEnd(), frameBuffer.getWidth() - 1);
+                if (span.getY() < 0 || span.getY() >= frameBuffer.getHeight() || x0 > x1) {
+                    continue;
+                }
+                int argb = span.getColor();
+                int runStart = Integer.MIN_VALUE;
+                for (int x = x0; x <= x1 + 1; x++) {
+                    boolean pixelChanged = x <= x1 && frameBuffer.blend(x, span.getY(), argb);
+                    if (pixelChanged && runStart == Integer.MIN_VALUE) {
+                        runStart = x;
+                    } else if (!pixelChanged && runStart != Integer.MIN_VALUE) {
+                        changed.add(new Span(span.getY(), runStart, x - 1, span.getColor()));
+                        runStart = Integer.MIN_VALUE;
+                    }
+                }
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Заменяет содержимое холста (3D-сцена перерисовывается клиентом целиком).
+     */
+    public void replace(String sessionId, List<Pixel> pixels) {
+        FrameBuffer frameBuffer = get(sessionId);
+        synchronized (frameBuffer) {
+            frameBuffer.clear();
+            for (Pixel pixel : pixels) {
+                frameBuffer.blend(pixel.getX(), pixel.getY(), pixel.getColor());
+            }
+        }
+    }
+
+    @EventListener
+    public void onSessionDisconnect(SessionDisconnectEvent event) {
+        frameBuffers.remove(event.getSessionId());
+    }
+}
@@ -0,0 +1,65 @@
+package by.lupach.drawingeditor.services;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Учёт активных STOMP-подписок по направлениям.
+ * Позволяет не сериализовывать результат в формат, на который никто не подписан.
+ */
+@Component
+public class FrameSubscriptionRegistry {
+    // sessionId -> (subscriptionId -> destination)
+    private final Map<String, Map<String, String>> sessions = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> subscriberCounts = new ConcurrentHashMap<>();
+
+    public void subscribe(String sessionId, String subscriptionId, String destination) {
+        String previous = sessions.computeIfAbsent(sessionId, k -> new ConcurrentHashMap<>())
+                .put(subscriptionId, destination);
+        if (previous != null) {
+            decrement(previous);
+        }
+        subscriberCounts.computeIfAbsent(destination, k -> new AtomicInteger()).incrementAndGet();
+    }
+
+    public void unsubscribe(String sessionId, String subscriptionId) {
+        Map<String, String> subscriptions = sessions.get(sessionId);
+        if (subscriptions == null) {
+            return;
+        }
+        String destination = subscriptions.remove(subscriptionId);
+        if (destination != null) {
+            decrement(destination);
+        }
+    }
+
+    public void removeSession(String sessionId) {
+        Map<String, String> subscriptions = sessions.remove(sessionId);
+        if (subscriptions != null) {
+            subscriptions.values().forEach(this::decrement);
+        }
+    }
+
+    public boolean hasSubscribers(String destination) {
+        AtomicInteger count = subscriberCounts.get(destination);
+        return count != null && count.get() > 0;
+    }
+
+    /**
+     * Подписан ли сеанс на направление (для /user/... — в том виде, в котором клиент его указал).
+     */
+    public boolean isSubscribed(String sessionId, String destination) {
+        Map<String, String> subscriptions = sessions.get(sessionId);
+        return subscriptions != null && subscriptions.containsValue(destination);
+    }
+
+    private void decrement(String destination) {
+        AtomicInteger count = subscriberCounts.get(destination);
+        if (count != null) {
+            count.decrementAndGet();
+        }
+    }
+}
@@ -1,15 +1,23 @@
 package by.lupach.drawingeditor.services;
 
+import by.lupach.drawingeditor.models.ArgbColor;
 import by.lupach.drawingeditor.models.Pixel;
+import by.lupach.drawingeditor.models.raster.PixelBuffer;
+import by.lupach.drawingeditor.models.raster.PixelSink;
 import org.springframework.stereotype.Service;
 
-import java.util.ArrayList;
 import java.util.List;
 
 @Service
 public class LineDrawingService {
     public List<Pixel> generateDDALine(int x1, int y1, int x2, int y2) {
-        List<Pixel> pixels = new ArrayList<>();
+        try (PixelBuffer pixels = PixelBuffer.acquire()) {
+            generateDDALine(x1, y1, x2, y2, ArgbColor.BLACK, pixels);
+            return pixels.toPixels();
+        }
+    }
+
+    public void generateDDALine(int x1, int y1, int x2, int y2, int argb, PixelSink sink) {
         int dx = x2 - x1;
         int dy = y2 - y1;
         int steps = Math.max(Math.abs(dx), Math.abs(dy));
@@ -18,20 +26,24 @@ public class LineDrawingService {
         float x = x1, y = y1;
 
         for (int i = 0; i <= steps; i++) {
-            pixels.add(new Pixel(Math.round(x), Math.round(y),"rgba(0, 0, 0, 255)"));
+            sink.plot(Math.round(x), Math.round(y), argb);
             x += xIncrement;
             y += yIncrement;
         }
-
-        return pixels;
     }
 
     public List<Pixel> generateBresenhamLine(int x1, int y1, int x2, int y2) {
-        return generateBresenhamLineWithColor(x1, y1, x2, y2, "rgba(0, 0, 0, 255)");
+        return generateBresenhamLineWithColor(x1, y1, x2, y2, ArgbColor.BLACK);
+    }
+
+    public List<Pixel> generateBresenhamLineWithColor(int x1, int y1, int x2, int y2, int argb) {
+        try (PixelBuffer pixels = PixelBuffer.acquire()) {
+            generateBresenhamLine(x1, y1, x2, y2, argb, pixels);
+            return pixels.toPixels();
+        }
     }
 
-    public List<Pixel> generateBresenhamLineWithColor(int x1, int y1, int x2, int y2, String color) {
-        List<Pixel> pixels = new ArrayList<>();
+    public void generateBresenhamLine(int x1, int y1, int x2, int y2, int argb, PixelSink sink) {
         int dx = Math.abs(x2 - x1);
         int dy = Math.abs(y2 - y1);
         int sx = x1 < x2 ? 1 : -1;
@@ -39,7 +51,7 @@ public class LineDrawingService {
         int err = dx - dy;
 
         while (true) {
-            pixels.add(new Pixel(x1, y1, color));
+            sink.plot(x1, y1, argb);
             if (x1 == x2 && y1 == y2) {
                 break;
             }
@@ -51,13 +63,16 @@ public class LineDrawingService {
                 err += dx; y1 += sy;
             }
         }
-
-        return pixels;
     }
 
     public List<Pixel> generateWuLine(int x1, int y1, int x2, int y2) {
-        List<Pixel> pixels = new ArrayList<>();
+        try (PixelBuffer pixels = PixelBuffer.acquire()) {
+            generateWuLine(x1, y1, x2, y2, ArgbColor.BLACK, pixels);
+            return pixels.toPixels();
+        }
+    }
 
+    public void generateWuLine(int x1, int y1, int x2, int y2, int argb, PixelSink sink) {
         boolean isSteep = Math.abs(y2 - y1) > Math.abs(x2 - x1);
         if (isSteep) {
             // Swap x and y coordinates for steep line
@@ -89,14 +104,14 @@ public class LineDrawingService {
         int xPxl1 = (int) roundedStartX;
         int yPxl1 = (int) Math.floor(initialY);
 
-        wuHelperAddPixel(pixels, xPxl1, yPxl1, initialY, isSteep);
+        wuHelperAddPixel(sink, xPxl1, yPxl1, initialY, isSteep, argb);
 
         float yPosition = initialY + gradient;
 
         // Draw intermediate points
         for (int x = xPxl1 + 1; x <= x2; x++) {
             int yPxl = (int) Math.floor(yPosition);
-            wuHelperAddPixel(pixels, x, yPxl, yPosition, isSteep);
+            wuHelperAddPixel(sink, x, yPxl, yPosition, isSteep, argb);
             yPosition += gradient;
         }
 
@@ -104,21 +119,27 @@ public class LineDrawingService {
         float roundedEndX = Math.round(x2);
         int endXPixel = (int) roundedEndX;
         int endYPixel = (int) Math.floor(yPosition);
-        wuHelperAddPixel(pixels, endXPixel, endYPixel, yPosition, isSteep);
-
-        return pixels;
+        wuHelperAddPixel(sink, endXPixel, endYPixel, yPosition, isSteep, argb);
     }
 
-    private void wuHelperAddPixel(List<Pixel> pixels, int x, int y, float position, boolean isSteep) {
+    private void wuHelperAddPixel(PixelSink sink, int x, int y, float position, boolean isSteep, int argb) {
+        int mainColor = withIntensity(argb, rfPart(position));
+        int sideColor = withIntensity(argb, fPart(position));
         if (isSteep) {
-            pixels.add(new Pixel(y, x, "rgba(0, 0, 0," + rfPart(position) + ")"));
-            pixels.add(new Pixel(y + 1, x, "rgba(0, 0, 0," + fPart(position) + ")"));
+            sink.plot(y, x, mainColor);
+            sink.plot(y + 1, x, sideColor);
         } else {
-            pixels.add(new Pixel(x, y, "rgba(0, 0, 0," + rfPart(position) + ")"));
-            pixels.add(new Pixel(x, y + 1, "rgba(0, 0, 0," + fPart(position) + ")"));
+            sink.plot(x, y, mainColor);
+            sink.plot(x, y + 1, sideColor);
         }
     }
 
+    // Яркость пикселя Ву передаётся альфой цвета линии
+    private int withIntensity(int argb, float intensity) {
+        return ArgbColor.argb(Math.round(intensity * ArgbColor.alpha(argb)),
+                ArgbColor.red(argb), ArgbColor.green(argb), ArgbColor.blue(argb));
+    }
+
     private float fPart(float x) {
         return x - (int) x;
     }
@@ -0,0 +1,86 @@
+package by.lupach.drawingeditor.services;
+
+import by.lupach.drawingeditor.models.Pixel;
+import by.lupach.drawingeditor.models.polygons.IndexedPolygon;
+import by.lupach.drawingeditor.models.polygons.PolygonHandle;
+import jakarta.servlet.http.HttpSessionEvent;
+import jakarta.servlet.http.HttpSessionListener;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Реестр многоугольников для повторяющихся запросов: многоугольник загружается один раз,
+ * индексы строятся при регистрации, а запросы ссылаются на него по polygonId.
+ * У каждого владельца (HTTP-сеанса) свой реестр: чужие многоугольники не видны и не вытесняют его собственные.
+ * Владелец хранит не больше drawing.polygons.registry-capacity многоугольников, при переполнении вытесняется
+ * дольше всех не запрашивавшийся; с окончанием HTTP-сеанса его многоугольники удаляются.
+ */
+@Service
+public class PolygonRegistryService implements HttpSessionListener {
+    @Value("${drawing.polygons.registry-capacity:32}")
+    int capacity = 32;
+
+    private final Map<String, Map<String, IndexedPolygon>> owners = new ConcurrentHashMap<>();
+
+    @Autowired
+    private PolygonService polygonService;
+
+    public PolygonHandle register(String ownerId, List<Pixel> vertices) {
+        // Индексы строятся вне блокировки: регистрация большого многоугольника не задерживает запросы
+        IndexedPolygon polygon = new IndexedPolygon(vertices, polygonService.isConvex(vertices),
+                polygonService.convexHull(vertices));
+        // Случайный идентификатор нельзя подобрать перебором соседних номеров
+        String polygonId = UUID.randomUUID().toString();
+        Map<String, IndexedPolygon> polygons = owners.computeIfAbsent(ownerId, k -> newRegistry());
+        synchronized (polygons) {
+            polygons.put(polygonId, polygon);
+        }
+        return new PolygonHandle(polygonId, vertices.size(), polygon.isConvex());
+    }
+
+    public IndexedPolygon get(String ownerId, String polygonId) {
+        Map<String, IndexedPolygon> polygons = owners.get(ownerId);
+        IndexedPolygon polygon = null;
+        if (polygons != null) {
+            synchronized (polygons) {
+                polygon = polygons.get(polygonId);
+            }
+        }
+        if (polygon == null) {
+            throw new NoSuchElementException("Unknown polygon: " + polygonId);
+        }
+        return polygon;
+    }
+
+    public void remove(String ownerId, String polygonId) {
+        Map<String, IndexedPolygon> polygons = owners.get(ownerId);
+        if (polygons != null) {
+            synchronized (polygons) {
+                polygons.remove(polygonId);
+            }
+        }
+    }
+
+    @Override
+    public void sessionDestroyed(HttpSessionEvent event) {
+        owners.remove(event.getSession().getId());
+    }
+
+    // Порядок доступа: при переполнении удаляется многоугольник, к которому дольше всех не обращались
+    private Map<String, IndexedPolygon> newRegistry() {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, IndexedPolygon> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+}
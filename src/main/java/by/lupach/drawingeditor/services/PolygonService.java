@@ -1,17 +1,53 @@
 package by.lupach.drawingeditor.services;
 
+import by.lupach.drawingeditor.models.ArgbColor;
+import by.lupach.drawingeditor.models.CancellationToken;
 import by.lupach.drawingeditor.models.Pixel;
-import by.lupach.drawingeditor.models.polygons.PolygonEdge;
+import by.lupach.drawingeditor.models.polygons.ActiveEdgeTable;
+import by.lupach.drawingeditor.models.polygons.BandedScanlineFill;
+import by.lupach.drawingeditor.models.polygons.ConvexHullEngine;
+import by.lupach.drawingeditor.models.polygons.EdgeSlabs;
+import by.lupach.drawingeditor.models.polygons.EdgeTable;
+import by.lupach.drawingeditor.models.polygons.IndexedPolygon;
+import by.lupach.drawingeditor.models.polygons.ScanlineIntervals;
+import by.lupach.drawingeditor.models.polygons.SeedFill;
+import by.lupach.drawingeditor.models.polygons.Span;
+import by.lupach.drawingeditor.models.raster.FrameBuffer;
+import by.lupach.drawingeditor.models.raster.PixelBuffer;
+import by.lupach.drawingeditor.models.raster.PixelSink;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
 
 import static by.lupach.drawingeditor.configs.ScreenConstants.SCREEN_HEIGHT;
-import static by.lupach.drawingeditor.configs.ScreenConstants.SCREEN_WIDTH;
 
 @Service
 public class PolygonService {
+    // Полупрозрачные цвета заливок, альфа 51 = 0.2
+    private static final int SCANLINE_FILL_COLOR = ArgbColor.argb(51, 205, 20, 217);
+    private static final int ACTIVE_EDGE_FILL_COLOR = ArgbColor.argb(51, 255, 20, 147);
+    private static final int FLOOD_FILL_COLOR = ArgbColor.argb(51, 115, 255, 136);
+    private static final int SCANLINE_FLOOD_FILL_COLOR = ArgbColor.argb(51, 105, 120, 255);
+    // Порядок обхода монотонных цепочек: по x, при равных x — по y
+    private static final Comparator<Pixel> X_THEN_Y = Comparator.comparingInt(Pixel::getX).thenComparingInt(Pixel::getY);
+
+    // Число вершин, начиная с которого построчная заливка выполняется параллельно по полосам строк
+    @Value("${drawing.fill.parallel-threshold:1024}")
+    int parallelThreshold = 1024;
+
+    // Число точек, начиная с которого выпуклая оболочка строится параллельным движком с отсевом Акла–Туссена
+    @Value("${drawing.hull.parallel-threshold:100000}")
+    int hullParallelThreshold = 100000;
+
+    // Число запросов в пакете, начиная с которого ответы вычисляются параллельно
+    @Value("${drawing.polygons.batch-parallel-threshold:4096}")
+    int batchParallelThreshold = 4096;
+
         // Проверка, является ли полигон выпуклым
     public boolean isConvex(List<Pixel> polygon) {
         int n = polygon.size();
@@ -42,33 +78,34 @@ public class PolygonService {
      *    - Если новая точка образует "правый поворот" относительно предыдущих двух, убираем предыдущую.
      *    - Если "левый поворот" — добавляем в стек.
      * 4. В стеке остаются точки выпуклой оболочки.
+     * Начиная с hullParallelThreshold точек внутренние точки сначала отсеиваются ConvexHullEngine.
      **/
     public List<Pixel> convexHullGraham(List<Pixel> points) {
         if (points.size() < 3) return points;
 
-        points.sort(Comparator.comparingInt(Pixel::getX));
-
-        Stack<Pixel> hull = new Stack<>();
-        for (int i = 0; i < 2; i++) hull.push(points.get(i));
+        // Сортируется копия: список вызывающего не меняется
+        List<Pixel> sorted = new ArrayList<>(prefilter(points));
+        sorted.sort(X_THEN_Y);
 
-        for (int i = 2; i < points.size(); i++) {
-            while (hull.size() >= 2 && crossProduct(hull.get(hull.size() - 2), hull.peek(), points.get(i)) <= 0) {
-                hull.pop();
+        List<Pixel> hull = new ArrayList<>();
+        for (Pixel point : sorted) {
+            while (hull.size() >= 2 && crossProduct(hull.get(hull.size() - 2), hull.get(hull.size() - 1), point) <= 0) {
+                hull.remove(hull.size() - 1);
             }
-            hull.push(points.get(i));
+            hull.add(point);
         }
 
         int lowerSize = hull.size();
-        for (int i = points.size() - 2; i >= 0; i--) {
-            while (hull.size() > lowerSize && crossProduct(hull.get(hull.size() - 2), hull.peek(), points.get(i)) <= 0) {
-                hull.pop();
+        for (int i = sorted.size() - 2; i >= 0; i--) {
+            while (hull.size() > lowerSize && crossProduct(hull.get(hull.size() - 2), hull.get(hull.size() - 1), sorted.get(i)) <= 0) {
+                hull.remove(hull.size() - 1);
             }
-            hull.push(points.get(i));
+            hull.add(sorted.get(i));
         }
 
-        hull.pop(); // Убираем дублирующую вершину
+        hull.remove(hull.size() - 1); // Убираем дублирующую вершину
 
-        return new ArrayList<>(hull);
+        return hull;
     }
 
     // Алгоритм Джарвиса
@@ -77,27 +114,58 @@ public class PolygonService {
      * 2. Выбираем точку, образующую самый левый поворот.
      * 3. Повторяем процесс, пока не вернемся в начальную точку.
      * 4. Итоговый список содержит точки выпуклой оболочки.
+     * Начиная с hullParallelThreshold точек перебор идёт только по точкам, оставшимся после отсева.
      **/
     public List<Pixel> convexHullJarvis(List<Pixel> points) {
         if (points.size() < 3) return points;
 
+        points = prefilter(points);
         List<Pixel> hull = new ArrayList<>();
-        Pixel leftmost = points.stream().min(Comparator.comparingInt(Pixel::getX)).orElse(points.get(0));
+        // Среди самых левых точек берётся нижняя: средняя точка вертикального ребра не вершина оболочки
+        Pixel leftmost = points.stream().min(X_THEN_Y).orElse(points.get(0));
         Pixel p = leftmost;
 
         do {
             hull.add(p);
-            Pixel q = points.get(0);
+            // Точки сравниваются по координатам: повторы текущей точки пропускаются,
+            // из коллинеарных берётся дальняя, иначе обход зацикливается
+            Pixel q = null;
             for (Pixel r : points) {
-                if (q == p || crossProduct(p, q, r) < 0) q = r;
+                if (samePoint(r, p)) continue;
+                if (q == null) {
+                    q = r;
+                    continue;
+                }
+                int turn = crossProduct(p, q, r);
+                if (turn < 0 || turn == 0 && squaredDistance(p, r) > squaredDistance(p, q)) q = r;
             }
+            if (q == null) break; // Все точки совпадают
             p = q;
-        } while (p != leftmost);
-
+        } while (!samePoint(p, leftmost));
 
         return hull;
     }
 
+    /**
+     * Выпуклая оболочка с выбором алгоритма по размеру входа: до hullParallelThreshold точек —
+     * монотонные цепочки по списку точек, дальше — ConvexHullEngine на массивах координат
+     * с параллельным отсевом внутренних точек и параллельной сортировкой.
+     */
+    public List<Pixel> convexHull(List<Pixel> points) {
+        if (points.size() < hullParallelThreshold) {
+            return convexHullGraham(points);
+        }
+        return new ConvexHullEngine(ForkJoinPool.commonPool(), hullParallelThreshold).hull(points);
+    }
+
+    // На больших входах отбрасывает точки, которые не могут быть вершинами оболочки
+    private List<Pixel> prefilter(List<Pixel> points) {
+        if (points.size() < hullParallelThreshold) {
+            return points;
+        }
+        return new ConvexHullEngine(ForkJoinPool.commonPool(), hullParallelThreshold).filter(points);
+    }
+
     // Проверка принадлежности точки полигону
     public boolean isPointInsidePolygon(Pixel p, List<Pixel> polygon) {
         int n = polygon.size();
@@ -124,15 +192,128 @@ public class PolygonService {
         return false;
     }
 
+    /**
+     * Проверка точки для зарегистрированного многоугольника: отсечение по ограничивающему прямоугольнику,
+     * затем двоичный поиск по пересечениям строки или, если таблицы интервалов нет, обход рёбер одной полосы.
+     * Результат совпадает с isPointInsidePolygon(p, polygon.getVertices()).
+     */
+    public boolean isPointInsidePolygon(Pixel p, IndexedPolygon polygon) {
+        return isPointInside(polygon, p.getX(), p.getY());
+    }
+
+    /**
+     * Проверка отрезка для зарегистрированного многоугольника: проверяются только рёбра ячеек сетки,
+     * через которые проходит отрезок. Результат совпадает с segmentIntersectsPolygon(a, b, polygon.getVertices()).
+     */
+    public boolean segmentIntersectsPolygon(Pixel a, Pixel b, IndexedPolygon polygon) {
+        return segmentIntersects(polygon, a.getX(), a.getY(), b.getX(), b.getY());
+    }
+
+    /**
+     * Пакетная проверка точек, заданных подряд парами координат x0, y0, x1, y1, ...
+     * Ответ — битовая строка: бит i (байт i / 8, разряд i % 8 от младшего) равен 1, если точка i внутри.
+     */
+    public byte[] pointsInsidePolygon(int[] coordinates, IndexedPolygon polygon) {
+        return packBits(coordinates.length / 2,
+                i -> isPointInside(polygon, coordinates[2 * i], coordinates[2 * i + 1]));
+    }
+
+    /**
+     * Пакетная проверка отрезков, заданных подряд четвёрками координат ax, ay, bx, by; ответ как у pointsInsidePolygon.
+     */
+    public byte[] segmentsIntersectPolygon(int[] coordinates, IndexedPolygon polygon) {
+        return packBits(coordinates.length / 4, i -> segmentIntersects(polygon,
+                coordinates[4 * i], coordinates[4 * i + 1], coordinates[4 * i + 2], coordinates[4 * i + 3]));
+    }
+
+    // Начиная с batchParallelThreshold запросов слова по 64 ответа вычисляются параллельным потоком
+    private byte[] packBits(int count, IntPredicate query) {
+        long[] words = new long[(count + 63) >>> 6];
+        IntStream indices = IntStream.range(0, words.length);
+        if (count >= batchParallelThreshold) {
+            indices = indices.parallel();
+        }
+        indices.forEach(w -> {
+            long word = 0;
+            for (int i = w << 6, end = Math.min(count, i + 64); i < end; i++) {
+                if (query.test(i)) word |= 1L << (i & 63);
+            }
+            words[w] = word;
+        });
+
+        byte[] bits = new byte[(count + 7) >>> 3];
+        for (int i = 0; i < bits.length; i++) {
+            bits[i] = (byte) (words[i >>> 3] >>> ((i & 7) << 3));
+        }
+        return bits;
+    }
+
+    private boolean isPointInside(IndexedPolygon polygon, int x, int y) {
+        if (x >= polygon.getMaxX() || y < polygon.getMinY() || y >= polygon.getMaxY()) {
+            return false;
+        }
+        if (polygon.getInside() != null) {
+            return polygon.getInside().contains(x, y);
+        }
+
+        List<Pixel> vertices = polygon.getVertices();
+        int n = vertices.size();
+        EdgeSlabs edges = polygon.getEdges();
+        int slab = edges.slabOf(y);
+        boolean inside = false;
+        for (int k = edges.slabStart(slab); k < edges.slabEnd(slab); k++) {
+            int i = edges.edge(k);
+            Pixel p1 = vertices.get(i);
+            Pixel p2 = vertices.get((i + n - 1) % n);
+            if ((p1.getY() > y) != (p2.getY() > y) &&
+                    (x < (p2.getX() - p1.getX()) * (y - p1.getY()) / (p2.getY() - p1.getY()) + p1.getX())) {
+                inside = !inside;
+            }
+        }
+        return inside;
+    }
+
+    private boolean segmentIntersects(IndexedPolygon polygon, int ax, int ay, int bx, int by) {
+        if (Math.max(ay, by) < polygon.getMinY() || Math.min(ay, by) > polygon.getMaxY()
+                || Math.max(ax, bx) < polygon.getMinX() || Math.min(ax, bx) > polygon.getMaxX()) {
+            return false;
+        }
+
+        List<Pixel> vertices = polygon.getVertices();
+        int n = vertices.size();
+        // Ребро из нескольких ячеек проверяется повторно, но ответ от этого не меняется
+        return polygon.getGrid().anyEdge(ax, ay, bx, by, i -> {
+            Pixel c = vertices.get(i), d = vertices.get((i + n - 1) % n);
+            return segmentsIntersect(ax, ay, bx, by, c.getX(), c.getY(), d.getX(), d.getY());
+        });
+    }
+
+    private static boolean samePoint(Pixel a, Pixel b) {
+        return a.getX() == b.getX() && a.getY() == b.getY();
+    }
+
+    private static long squaredDistance(Pixel a, Pixel b) {
+        long dx = b.getX() - a.getX(), dy = b.getY() - a.getY();
+        return dx * dx + dy * dy;
+    }
+
     private int crossProduct(Pixel a, Pixel b, Pixel c) {
-        return (b.getX() - a.getX()) * (c.getY() - a.getY()) - (b.getY() - a.getY()) * (c.getX() - a.getX());
+        return crossProduct(a.getX(), a.getY(), b.getX(), b.getY(), c.getX(), c.getY());
+    }
+
+    private static int crossProduct(int ax, int ay, int bx, int by, int cx, int cy) {
+        return (bx - ax) * (cy - ay) - (by - ay) * (cx - ax);
     }
 
     private boolean segmentsIntersect(Pixel a, Pixel b, Pixel c, Pixel d) {
-        int d1 = crossProduct(c, d, a);
-        int d2 = crossProduct(c, d, b);
-        int d3 = crossProduct(a, b, c);
-        int d4 = crossProduct(a, b, d);
+        return segmentsIntersect(a.getX(), a.getY(), b.getX(), b.getY(), c.getX(), c.getY(), d.getX(), d.getY());
+    }
+
+    private static boolean segmentsIntersect(int ax, int ay, int bx, int by, int cx, int cy, int dx, int dy) {
+        int d1 = crossProduct(cx, cy, dx, dy, ax, ay);
+        int d2 = crossProduct(cx, cy, dx, dy, bx, by);
+        int d3 = crossProduct(ax, ay, bx, by, cx, cy);
+        int d4 = crossProduct(ax, ay, bx, by, dx, dy);
 
         return ((d1 > 0 && d2 < 0) || (d1 < 0 && d2 > 0)) &&
                 ((d3 > 0 && d4 < 0) || (d3 < 0 && d4 > 0));
@@ -146,8 +327,19 @@ public class PolygonService {
      *    - Находим точки пересечения сканирующей линии с ребрами полигона.
      *    - Сортируем точки пересечения по X-координате.
      *    - Заполняем пиксели между каждой парой точек пересечения.
+     * Начиная с parallelThreshold вершин строки делятся на полосы, которые заливаются параллельно
+     * с общей таблицей рёбер и собственным списком активных рёбер в каждой полосе.
      */
     public List<Pixel> scanlineFill(List<Pixel> polygon) {
+        return toPixels(scanlineFillSpans(polygon));
+    }
+
+    public List<Span> scanlineFillSpans(List<Pixel> polygon) {
+        if (polygon.size() >= parallelThreshold) {
+            return new BandedScanlineFill(ForkJoinPool.commonPool())
+                    .fill(new EdgeTable(polygon), SCANLINE_FILL_COLOR);
+        }
+
         // Find min and max y coordinates
         int minY = Integer.MAX_VALUE;
         int maxY = Integer.MIN_VALUE;
@@ -156,7 +348,7 @@ public class PolygonService {
             maxY = Math.max(maxY, point.getY());
         }
 
-        List<Pixel> filledPixels = new ArrayList<>();
+        List<Span> spans = new ArrayList<>();
 
         // Loop through all scanline y values from minY to maxY
         for (int y = minY; y <= maxY; y++) {
@@ -184,248 +376,97 @@ public class PolygonService {
 
             // Fill between each pair of intersections
             for (int i = 0; i < intersections.size() - 1; i += 2) {
-                int xStart = Math.round(intersections.get(i));
-                int xEnd = Math.round(intersections.get(i + 1));
-
-                for (int x = xStart; x <= xEnd; x++) {
-                    filledPixels.add(new Pixel(x, y, "rgba(205,20,217,0.2)"));
-                }
+                spans.add(new Span(y, intersections.get(i), intersections.get(i + 1), SCANLINE_FILL_COLOR));
             }
         }
 
-        return filledPixels;
+        return spans;
     }
 
     //Алгоритм растровой развертки с упорядоченным списком ребер, использующий список активных ребер
     /**
      Алгоритм:
-     * 1. Находим минимальную и максимальную Y-координаты полигона.
-     * 2. Создаем список всех ребер полигона, исключая горизонтальные ребра.
-     * 3. Для каждой строки (сканирующей линии) от minY до maxY:
-     *    - Добавляем в AEL ребра, которые начинаются на текущей строке.
+     * 1. Раскладываем ребра полигона, кроме горизонтальных, по корзинам их нижних строк (таблица ребер).
+     * 2. Для каждой строки (сканирующей линии) от minY до maxY:
+     *    - Вставляем в AEL ребра из корзины текущей строки на свои места по X.
      *    - Удаляем из AEL ребра, которые заканчиваются на текущей строке.
-     *    - Сортируем AEL по X-координате пересечения с текущей строкой.
      *    - Заполняем пиксели между каждой парой ребер в AEL.
+     *    - Сдвигаем X каждого ребра на следующую строку целочисленным шагом и восстанавливаем порядок
+     *      сортировкой вставками.
      */
     public List<Pixel> activeEdgeFill(List<Pixel> points) {
-        int minY = points.stream().min(Comparator.comparingInt(Pixel::getY)).get().getY();
-        int maxY = points.stream().max(Comparator.comparingInt(Pixel::getY)).get().getY();
-        List<Pixel> filledPoints = new ArrayList<>();
-
-        List<PolygonEdge> edges = new ArrayList<>();
-        for (int i = 0; i < points.size(); i++) {
-            Pixel point1 = points.get(i);
-            Pixel point2 = points.get((i + 1) % points.size()); // Wrap around to the first point
-            if (point1.getY() != point2.getY()) {
-                edges.add(new PolygonEdge(point1, point2));
-            }
-        }
-
-        edges.sort(Comparator.comparingInt(edge -> Math.min(edge.getPoint1().getY(), edge.getPoint2().getY())));
-
-        List<PolygonEdge> ael = new ArrayList<>();
-        int currentY = minY;
-
-        while (currentY <= maxY) {
-            // Add edges that start at currentY
-            for (PolygonEdge edge : edges) {
-                if (Math.min(edge.getPoint1().getY(), edge.getPoint2().getY()) == currentY) {
-                    ael.add(edge);
-                }
-            }
-
-            // Remove edges that have passed the currentY
-            int finalCurrentY = currentY;
-            ael.removeIf(edge -> Math.max(edge.getPoint1().getY(), edge.getPoint2().getY()) <= finalCurrentY);
-
-            // Sort by x-intercept
-            int finalCurrentY1 = currentY;
-            ael.sort(Comparator.comparingDouble(edge -> edge.getXIntercept(finalCurrentY1)));
-
-            // Fill in the pixels between pairs of edges
-            for (int i = 0; i < ael.size(); i += 2) {
-                PolygonEdge edge1 = ael.get(i);
-                PolygonEdge edge2 = ael.get(i + 1);
+        return toPixels(activeEdgeFillSpans(points));
+    }
 
-                int xStart = (int) edge1.getXIntercept(currentY);
-                int xEnd = (int) edge2.getXIntercept(currentY);
+    public List<Span> activeEdgeFillSpans(List<Pixel> points) {
+        return new ActiveEdgeTable(points, 0, SCREEN_HEIGHT - 1).fill(ACTIVE_EDGE_FILL_COLOR);
+    }
 
-                for (int x = xStart; x <= xEnd; x++) {
-                    filledPoints.add(new Pixel(x, currentY, "rgba(255,20,147,0.2)"));
-                }
+    // Разворачивает интервалы в отдельные пиксели
+    private List<Pixel> toPixels(List<Span> spans) {
+        List<Pixel> pixels = new ArrayList<>();
+        for (Span span : spans) {
+            for (int x = span.getXStart(); x <= span.getXEnd(); x++) {
+                pixels.add(new Pixel(x, span.getY(), span.getColor()));
             }
-
-            currentY++;
         }
-
-        return filledPoints;
+        return pixels;
     }
 
     //Простой алгоритм заполнения с затравкой
     /**
      * Алгоритм:
-     * 1. Проверяем, находится ли пиксель в пределах экрана и не был ли он уже обработан.
-     * 2. Если пиксель является границей или его цвет не совпадает с целевым, пропускаем его.
+     * 1. Проверяем, находится ли пиксель в пределах многоугольника и не был ли он уже обработан.
+     * 2. Если пиксель является границей или его цвет на холсте не совпадает с целевым, пропускаем его.
      * 3. Заполняем пиксель и добавляем его соседей в стек для дальнейшей обработки.
+     * Принадлежность многоугольнику проверяется по таблице внутренних интервалов строк, построенной один раз.
      */
-    public List<Pixel> floodFill(Pixel seed, List<Pixel> polygon, String boundaryColor) {
-        List<Pixel> filledPixels = new ArrayList<>();
-        boolean[][] visited = new boolean[SCREEN_WIDTH][SCREEN_HEIGHT];
-        Stack<Pixel> stack = new Stack<>();
-
-        // Исходный цвет, который будем заменять
-        String targetColor = seed.getColor();
-        String fillColor = "rgba(115,255,136,0.2)";
-        stack.push(seed);
-
-        while (!stack.isEmpty()) {
-            Pixel p = stack.pop();
-            int x = p.getX();
-            int y = p.getY();
-
-            // Проверка границ экрана
-            if (x < 0 || x >= SCREEN_WIDTH || y < 0 || y >= SCREEN_HEIGHT) {
-                continue;
-            }
-            // Если пиксель уже обработан, пропускаем его
-            if (visited[x][y]) {
-                continue;
-            }
-            visited[x][y] = true;
-
-            // Если точка находится вне полигона, пропускаем её
-            if (!isPointInsidePolygon(p, polygon)) {
-                continue;
-            }
-
-            // Если пиксель является границей, пропускаем его
-            if (isBoundary(p, boundaryColor)) {
-                continue;
-            }
-            // Если цвет пикселя не совпадает с целевым, пропускаем его
-            if (!p.getColor().equals(targetColor)) {
-                continue;
-            }
+    public List<Pixel> floodFill(Pixel seed, List<Pixel> polygon, int boundaryColor, FrameBuffer canvas) {
+        try (PixelBuffer pixels = PixelBuffer.acquire()) {
+            floodFill(seed, polygon, boundaryColor, canvas, pixels);
+            return pixels.toPixels();
+        }
+    }
 
-            // Заливаем пиксель (создаём новый объект с заливочным цветом)
-            Pixel newFilled = new Pixel(x, y, fillColor);
-            filledPixels.add(newFilled);
-            // В реальном приложении здесь следует обновить состояние холста
+    public void floodFill(Pixel seed, List<Pixel> polygon, int boundaryColor, FrameBuffer canvas, PixelSink sink) {
+        floodFill(seed, polygon, boundaryColor, canvas, sink, CancellationToken.NONE);
+    }
 
-            // Добавляем 4-связанных соседей в стек
-            stack.push(new Pixel(x + 1, y, targetColor));
-            stack.push(new Pixel(x - 1, y, targetColor));
-            stack.push(new Pixel(x, y + 1, targetColor));
-            stack.push(new Pixel(x, y - 1, targetColor));
+    public void floodFill(Pixel seed, List<Pixel> polygon, int boundaryColor, FrameBuffer canvas, PixelSink sink,
+                          CancellationToken cancellation) {
+        ScanlineIntervals inside = new ScanlineIntervals(polygon, 0, SCREEN_HEIGHT - 1);
+        try (SeedFill fill = SeedFill.acquire()) {
+            fill.fillPixels(seed.getX(), seed.getY(), inside, canvas, boundaryColor, FLOOD_FILL_COLOR, sink,
+                    cancellation);
         }
-        return filledPixels;
     }
 
     //Построчный алгоритм заполнения с затравкой
     /**
      * Алгоритм:
      * 1. Находим интервал на текущей строке, который нужно заполнить.
-     * 2. Заполняем интервал и проверяем соседние строки (выше и ниже) для каждого пикселя заполненного интервала.
-     * 3. Добавляем новые интервалы в стек для дальнейшей обработки.
+     * 2. Заполняем интервал и проверяем соседние строки (выше и ниже) под заполненным интервалом.
+     * 3. Добавляем в стек по одной затравке на каждый незаполненный отрезок соседних строк.
+     * Интервал строки сразу ограничивается внутренним интервалом многоугольника из таблицы ScanlineIntervals,
+     * поэтому при поиске его концов проверяются только цвета холста.
      */
-    public List<Pixel> scanlineFloodFill(Pixel seed, List<Pixel> polygon, String boundaryColor) {
-        List<Pixel> filledPixels = new ArrayList<>();
-        boolean[][] visited = new boolean[SCREEN_WIDTH][SCREEN_HEIGHT];
-        Stack<Pixel> stack = new Stack<>();
-
-        // Определяем исходный цвет, который будем заменять
-        String targetColor = seed.getColor();
-        String fillColor = "rgba(105,120,255,0.2)";
-        stack.push(seed);
-
-        while (!stack.isEmpty()) {
-            Pixel p = stack.pop();
-            int x = p.getX();
-            int y = p.getY();
-
-            // Проверка границ экрана
-            if (x < 0 || x >= SCREEN_WIDTH || y < 0 || y >= SCREEN_HEIGHT) {
-                continue;
-            }
-            if (visited[x][y]) {
-                continue;
-            }
-
-            // Проверяем, что пиксель находится внутри полигона
-            if (!isPointInsidePolygon(p, polygon)) {
-                continue;
-            }
-            // Если пиксель является граничным или его цвет не совпадает с targetColor, пропускаем
-            if (isBoundary(p, boundaryColor) || !p.getColor().equals(targetColor)) {
-                continue;
-            }
-
-            // Поиск левой границы интервала на текущей строке
-            int xLeft = x;
-            while (xLeft >= 0) {
-                Pixel current = new Pixel(xLeft, y, p.getColor());
-                if (visited[xLeft][y] || isBoundary(current, boundaryColor)
-                        || !current.getColor().equals(targetColor)
-                        || !isPointInsidePolygon(current, polygon)) {
-                    break;
-                }
-                xLeft--;
-            }
-            xLeft++; // корректный пиксель
-
-            // Поиск правой границы интервала на текущей строке
-            int xRight = x;
-            while (xRight < SCREEN_WIDTH) {
-                Pixel current = new Pixel(xRight, y, p.getColor());
-                if (visited[xRight][y] || isBoundary(current, boundaryColor)
-                        || !current.getColor().equals(targetColor)
-                        || !isPointInsidePolygon(current, polygon)) {
-                    break;
-                }
-                xRight++;
-            }
-            xRight--; // корректный пиксель
-
-            // Заполнение интервала от xLeft до xRight на строке y
-            for (int i = xLeft; i <= xRight; i++) {
-                visited[i][y] = true;
-                filledPixels.add(new Pixel(i, y, fillColor));
-                // При наличии холста здесь следует обновить его состояние
-            }
-
-            // Проверка соседних строк (выше и ниже) для каждого пикселя заполненного интервала
-            for (int i = xLeft; i <= xRight; i++) {
-                // Верхняя строка
-                if (y > 0) {
-                    Pixel up = new Pixel(i, y - 1, targetColor);
-                    if (!visited[i][y - 1] && !isBoundary(up, boundaryColor)
-                            && up.getColor().equals(targetColor)
-                            && isPointInsidePolygon(up, polygon)) {
-                        stack.push(up);
-                    }
-                }
-                // Нижняя строка
-                if (y < SCREEN_HEIGHT - 1) {
-                    Pixel down = new Pixel(i, y + 1, targetColor);
-                    if (!visited[i][y + 1] && !isBoundary(down, boundaryColor)
-                            && down.getColor().equals(targetColor)
-                            && isPointInsidePolygon(down, polygon)) {
-                        stack.push(down);
-                    }
-                }
-            }
-        }
-
-        return filledPixels;
+    public List<Pixel> scanlineFloodFill(Pixel seed, List<Pixel> polygon, int boundaryColor, FrameBuffer canvas) {
+        return toPixels(scanlineFloodFillSpans(seed, polygon, boundaryColor, canvas));
     }
 
+    public List<Span> scanlineFloodFillSpans(Pixel seed, List<Pixel> polygon, int boundaryColor, FrameBuffer canvas) {
+        return scanlineFloodFillSpans(seed, polygon, boundaryColor, canvas, CancellationToken.NONE);
+    }
 
-    private boolean isBoundary(Pixel p, String boundaryColor) {
-        // Получаем цвет пикселя на холсте
-        String pixelColor = p.getColor();
-
-        // Сравниваем цвет пикселя с цветом границы
-        return pixelColor.equals(boundaryColor);
+    public List<Span> scanlineFloodFillSpans(Pixel seed, List<Pixel> polygon, int boundaryColor, FrameBuffer canvas,
+                                             CancellationToken cancellation) {
+        ScanlineIntervals inside = new ScanlineIntervals(polygon, 0, SCREEN_HEIGHT - 1);
+        List<Span> spans = new ArrayList<>();
+        try (SeedFill fill = SeedFill.acquire()) {
+            fill.fillSpans(seed.getX(), seed.getY(), inside, canvas, boundaryColor, SCANLINE_FLOOD_FILL_COLOR, spans,
+                    cancellation);
+        }
+        return spans;
     }
 
 }
\ No newline at end of file
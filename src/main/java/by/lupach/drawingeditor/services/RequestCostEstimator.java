@@ -0,0 +1,106 @@
+package by.lupach.drawingeditor.services;
+
+import by.lupach.drawingeditor.models.Pixel;
+import by.lupach.drawingeditor.models.linesAndCurves.DrawingRequest;
+import by.lupach.drawingeditor.models.polygons.PolygonFillRequest;
+import by.lupach.drawingeditor.models.threeD.MeshHandle;
+import by.lupach.drawingeditor.models.threeD.TransformationRequest;
+import by.lupach.drawingeditor.models.voronoi.VoronoiRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+import static by.lupach.drawingeditor.configs.ScreenConstants.SCREEN_HEIGHT;
+import static by.lupach.drawingeditor.configs.ScreenConstants.SCREEN_WIDTH;
+
+/**
+ * Оценка стоимости запроса до его выполнения — примерное число пикселей и элементарных шагов алгоритма.
+ * Оценка грубая: она нужна только чтобы отличить мгновенный предпросмотр от долгого вычисления.
+ */
+@Service
+public class RequestCostEstimator {
+    // Вызовов рекурсии Кокса–де Бура на одну базисную функцию кубического B-сплайна
+    private static final int BSPLINE_BASIS_CALLS = 15;
+    // Шагов построения и растеризации на одну точку диаграммы Вороного, умножается на log2 числа точек
+    private static final int VORONOI_STEPS_PER_SITE = 64;
+    // Средняя длина ребра 3D-объекта на экране, пикселей
+    private static final int MESH_EDGE_PIXELS = 32;
+
+    @Autowired
+    private ThreeDSceneService threeDSceneService;
+
+    public long estimate(DrawingRequest request) {
+        if (request.getAlgorithm() != null) {
+            return Math.max(Math.abs((long) request.getX2() - request.getX1()),
+                    Math.abs((long) request.getY2() - request.getY1())) + 1;
+        }
+        if (request.getCurveType() == null) {
+            return 0;
+        }
+        return switch (request.getCurveType()) {
+            // Периметр описанного прямоугольника ограничивает число пикселей кривой второго порядка
+            case "circle", "ellipse", "parabola", "hyperbola" ->
+                    4 * (value(request.getParam1()) + value(request.getParam2())) + 1;
+            case "hermite", "bezier" -> polylineLength(request.getPoints());
+            // Каждая точка кривой суммирует базисные функции всех контрольных точек
+            case "bspline" -> polylineLength(request.getPoints()) * size(request.getPoints()) * BSPLINE_BASIS_CALLS;
+            default -> 0;
+        };
+    }
+
+    public long estimate(PolygonFillRequest request) {
+        List<Pixel> polygon = request.getPolygon();
+        if (polygon == null || polygon.isEmpty()) {
+            return 0;
+        }
+        int minX = Integer.MAX_VALUE, maxX = Integer.MIN_VALUE;
+        int minY = Integer.MAX_VALUE, maxY = Integer.MIN_VALUE;
+        for (Pixel point : polygon) {
+            minX = Math.min(minX, point.getX());
+            maxX = Math.max(maxX, point.getX());
+            minY = Math.min(minY, point.getY());
+            maxY = Math.max(maxY, point.getY());
+        }
+        // Развёртка проходит все строки многоугольника, в том числе за пределами холста
+        long rows = (long) maxY - minY + 1;
+        long width = Math.max(0, (long) Math.min(maxX, SCREEN_WIDTH - 1) - Math.max(minX, 0) + 1);
+        long height = Math.max(0, (long) Math.min(maxY, SCREEN_HEIGHT - 1) - Math.max(minY, 0) + 1);
+        return switch (request.getAlgorithm()) {
+            // Простая развёртка пересекает каждую строку со всеми рёбрами
+            case "scanline" -> polygon.size() * rows;
+            // Список активных рёбер: каждое ребро вставляется один раз, на строку — интервалы и сдвиг рёбер
+            case "aet" -> polygon.size() + rows;
+            // Заливка с затравкой проверяет каждый пиксель области на холсте
+            default -> polygon.size() + height + width * height;
+        };
+    }
+
+    public long estimate(VoronoiRequest request) {
+        long sites = size(request.getPoints());
+        return sites * VORONOI_STEPS_PER_SITE * (64 - Long.numberOfLeadingZeros(sites));
+    }
+
+    public long estimate(String sessionId, TransformationRequest request) {
+        MeshHandle mesh = threeDSceneService.describe(sessionId, request);
+        return mesh == null ? 0 : mesh.getVertexCount() + (long) mesh.getEdgeCount() * MESH_EDGE_PIXELS;
+    }
+
+    // Растровый отрезок занимает max(|dx|, |dy|) + 1 пикселей, поэтому длина звена берётся по Чебышёву
+    private static long polylineLength(List<Pixel> points) {
+        long length = 0;
+        for (int i = 1; i < size(points); i++) {
+            Pixel from = points.get(i - 1), to = points.get(i);
+            length += Math.max(Math.abs((long) to.getX() - from.getX()), Math.abs((long) to.getY() - from.getY()));
+        }
+        return length + 1;
+    }
+
+    private static long value(Double param) {
+        return param == null ? 0 : (long) Math.abs(param);
+    }
+
+    private static int size(List<Pixel> points) {
+        return points == null ? 0 : points.size();
+    }
+}
@@ -0,0 +1,332 @@
+package by.lupach.drawingeditor.services;
+
+import by.lupach.drawingeditor.models.CancellationToken;
+import by.lupach.drawingeditor.models.metrics.LaneStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Планировщик запросов рисования по полосам приоритета.
+ *
+ * Запрос с оценкой стоимости ниже drawing.scheduler.heavy-cost-threshold выполняется сразу в потоке входящего
+ * канала (интерактивная полоса): так линии и окружности не ждут ни очереди, ни переключения потока,
+ * а их параллельность ограничена пулом входящего канала. Более дорогие запросы уходят в тяжёлую полосу —
+ * отдельный пул из drawing.scheduler.heavy.concurrency потоков с общей очередью на
+ * drawing.scheduler.heavy.queue-capacity задач. Поток входящего канала сразу освобождается, и следующие
+ * сообщения сеанса обрабатываются, пока тяжёлая задача ждёт или выполняется.
+ *
+ * Тяжёлые задачи одного сеанса выполняются по очереди в порядке поступления, и сеанс занимает не больше
+ * одного потока полосы; после каждой задачи поток переходит к следующему сеансу в очереди.
+ *
+ * Потоки предпросмотра (например, 3D-преобразования на каждое нажатие клавиши) отправляются через submitLatest:
+ * дешёвые выполняются в полосе предпросмотра, дорогие — в тяжёлой. Новая задача того же сеанса и вида
+ * заменяет ещё не начатую и занимает её место в очереди, поэтому сервер выполняет столько задач, сколько
+ * успевает, а не столько, сколько событий породил клиент.
+ *
+ * Долгие алгоритмы отправляются через submitCancellable и получают CancellationToken. Токен отменяется, когда
+ * сеанс присылает новую задачу того же вида (например, диаграмму Вороного по дополненному набору точек)
+ * или отключается; алгоритм прерывается на ближайшей проверке, а ждущие задачи отключившегося сеанса
+ * снимаются с очереди.
+ */
+@Service
+public class RequestScheduler implements DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(RequestScheduler.class);
+
+    private final long heavyCostThreshold;
+    private final Lane interactive;
+    private final Lane preview;
+    private final Lane heavy;
+    // Токены принятых и ещё не завершённых отменяемых задач по сеансам
+    private final Map<String, SessionJobs> sessionJobs = new ConcurrentHashMap<>();
+
+    public RequestScheduler(@Value("${drawing.scheduler.heavy-cost-threshold:250000}") long heavyCostThreshold,
+                            @Value("${drawing.websocket.inbound.pool-size:8}") int inboundPoolSize,
+                            @Value("${drawing.scheduler.preview.concurrency:2}") int previewConcurrency,
+                            @Value("${drawing.scheduler.preview.queue-capacity:256}") int previewQueueCapacity,
+                            @Value("${drawing.scheduler.heavy.concurrency:2}") int heavyConcurrency,
+                            @Value("${drawing.scheduler.heavy.queue-capacity:64}") int heavyQueueCapacity) {
+        this.heavyCostThreshold = heavyCostThreshold;
+        // Интерактивная полоса работает в потоках входящего канала и ограничена его пулом
+        interactive = new Lane("interactive", null, inboundPoolSize, 0);
+        preview = new Lane("preview", pool("preview-lane-", previewConcurrency), previewConcurrency, previewQueueCapacity);
+        heavy = new Lane("heavy", pool("heavy-lane-", heavyConcurrency), heavyConcurrency, heavyQueueCapacity);
+    }
+
+    // Очередь пула не ограничена: число ожидающих задач ограничивает сама полоса
+    private static ExecutorService pool(String threadNamePrefix, int concurrency) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(concurrency, concurrency, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), new CustomizableThreadFactory(threadNamePrefix));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Выполняет задачу сеанса в полосе, выбранной по оценке стоимости.
+     * Если очередь тяжёлой полосы заполнена, бросает RejectedExecutionException.
+     */
+    public void submit(String sessionId, long cost, Runnable task) {
+        (cost < heavyCostThreshold ? interactive : heavy).submit(sessionId, null, task);
+    }
+
+    /**
+     * Выполняет задачу потока предпросмотра: ещё не начатая задача того же сеанса и вида kind отбрасывается.
+     * Задача должна сама брать последнее состояние (например, накопленную матрицу), а не данные своего запроса.
+     */
+    public void submitLatest(String sessionId, String kind, long cost, Runnable task) {
+        (cost < heavyCostThreshold ? preview : heavy).submit(sessionId, kind, task);
+    }
+
+    /**
+     * Выполняет отменяемую задачу. Если kind не null, задача того же сеанса и вида, принятая раньше, отменяется —
+     * и ждущая в очереди, и уже выполняемая. Задачи без вида отменяются только при отключении сеанса.
+     * Если очередь тяжёлой полосы заполнена, бросает RejectedExecutionException, а прежняя задача продолжает работу.
+     */
+    public void submitCancellable(String sessionId, String kind, long cost, Consumer<CancellationToken> task) {
+        CancellationToken token = new CancellationToken();
+        // Запись сеанса меняется только внутри compute, атомарно с её удалением в finish
+        sessionJobs.compute(sessionId, (k, jobs) -> {
+            SessionJobs result = jobs != null ? jobs : new SessionJobs();
+            result.tokens.add(token);
+            return result;
+        });
+        try {
+            submit(sessionId, cost, () -> {
+                try {
+                    token.throwIfCancelled();
+                    task.accept(token);
+                } finally {
+                    finish(sessionId, kind, token);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            finish(sessionId, kind, token);
+            throw e;
+        }
+        if (kind != null) {
+            // Прежняя задача вытесняется только после того, как новая принята
+            CancellationToken[] superseded = new CancellationToken[1];
+            sessionJobs.computeIfPresent(sessionId, (k, jobs) -> {
+                // Новая задача могла уже завершиться — тогда она не становится последней
+                superseded[0] = jobs.tokens.contains(token) ? jobs.latest.put(kind, token) : jobs.latest.remove(kind);
+                return jobs;
+            });
+            if (superseded[0] != null) {
+                superseded[0].cancel();
+            }
+        }
+    }
+
+    private void finish(String sessionId, String kind, CancellationToken token) {
+        sessionJobs.computeIfPresent(sessionId, (k, jobs) -> {
+            jobs.tokens.remove(token);
+            if (kind != null) {
+                jobs.latest.remove(kind, token);
+            }
+            return jobs.tokens.isEmpty() ? null : jobs;
+        });
+    }
+
+    @EventListener
+    public void onSessionDisconnect(SessionDisconnectEvent event) {
+        String sessionId = event.getSessionId();
+        SessionJobs jobs = sessionJobs.remove(sessionId);
+        if (jobs != null) {
+            jobs.tokens.forEach(CancellationToken::cancel);
+        }
+        preview.drop(sessionId);
+        heavy.drop(sessionId);
+    }
+
+    public List<LaneStats> stats() {
+        return List.of(interactive.stats(), preview.stats(), heavy.stats());
+    }
+
+    @Override
+    public void destroy() {
+        preview.executor.shutdownNow();
+        heavy.executor.shutdownNow();
+    }
+
+    private static final class SessionJobs {
+        private final Set<CancellationToken> tokens = new HashSet<>();
+        // Последняя принятая задача каждого вида
+        private final Map<String, CancellationToken> latest = new HashMap<>();
+    }
+
+    private static final class Job {
+        // null — задача не заменяется более новой
+        private final String kind;
+        private final long submitted;
+        private Runnable task;
+
+        Job(String kind, long submitted, Runnable task) {
+            this.kind = kind;
+            this.submitted = submitted;
+            this.task = task;
+        }
+    }
+
+    private static final class Lane {
+        private final String name;
+        // null — задачи выполняются в вызывающем потоке
+        private final ExecutorService executor;
+        private final int concurrency;
+        private final int queueCapacity;
+        // Ещё не начатые задачи сеансов, у которых есть задача в пуле; доступ под синхронизацией на самой карте
+        private final Map<String, ArrayDeque<Job>> sessions = new HashMap<>();
+
+        private final AtomicLong queued = new AtomicLong();
+        private final AtomicLong active = new AtomicLong();
+        private final AtomicLong completed = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private final AtomicLong coalesced = new AtomicLong();
+        private final AtomicLong cancelled = new AtomicLong();
+        private final LongAdder queueNanos = new LongAdder();
+        private final LongAccumulator maxQueueNanos = new LongAccumulator(Math::max, 0);
+        private final LongAdder latencyNanos = new LongAdder();
+        private final LongAccumulator maxLatencyNanos = new LongAccumulator(Math::max, 0);
+
+        Lane(String name, ExecutorService executor, int concurrency, int queueCapacity) {
+            this.name = name;
+            this.executor = executor;
+            this.concurrency = concurrency;
+            this.queueCapacity = queueCapacity;
+        }
+
+        void submit(String sessionId, String kind, Runnable task) {
+            long submitted = System.nanoTime();
+            if (executor == null) {
+                queued.incrementAndGet();
+                run(task, submitted, true);
+                return;
+            }
+
+            synchronized (sessions) {
+                ArrayDeque<Job> backlog = sessions.get(sessionId);
+                if (kind != null && backlog != null) {
+                    for (Job job : backlog) {
+                        if (kind.equals(job.kind)) {
+                            job.task = task;
+                            coalesced.incrementAndGet();
+                            return;
+                        }
+                    }
+                }
+                if (queued.get() >= queueCapacity) {
+                    rejected.incrementAndGet();
+                    throw new RejectedExecutionException("The " + name + " lane queue is full");
+                }
+                queued.incrementAndGet();
+                if (backlog != null) {
+                    backlog.add(new Job(kind, submitted, task));
+                    return;
+                }
+                backlog = new ArrayDeque<>();
+                backlog.add(new Job(kind, submitted, task));
+                sessions.put(sessionId, backlog);
+            }
+            executor.execute(() -> runNext(sessionId));
+        }
+
+        // Следующая задача сеанса ставится в конец общей очереди, чтобы не обгонять задачи других сеансов
+        private void runNext(String sessionId) {
+            Job job;
+            Runnable task;
+            synchronized (sessions) {
+                job = sessions.get(sessionId).poll();
+                // Очередь сеанса могли очистить при отключении
+                if (job == null) {
+                    sessions.remove(sessionId);
+                    return;
+                }
+                task = job.task;
+            }
+            try {
+                run(task, job.submitted, false);
+            } finally {
+                boolean more;
+                synchronized (sessions) {
+                    more = !sessions.get(sessionId).isEmpty();
+                    if (!more) {
+                        sessions.remove(sessionId);
+                    }
+                }
+                if (more) {
+                    executor.execute(() -> runNext(sessionId));
+                }
+            }
+        }
+
+        // Снимает с очереди ещё не начатые задачи сеанса; выполняемая задача доработает сама
+        void drop(String sessionId) {
+            if (executor == null) {
+                return;
+            }
+            synchronized (sessions) {
+                ArrayDeque<Job> backlog = sessions.get(sessionId);
+                if (backlog != null) {
+                    queued.addAndGet(-backlog.size());
+                    cancelled.addAndGet(backlog.size());
+                    backlog.clear();
+                }
+            }
+        }
+
+        // Во входящем канале ошибка обработчика попадает в журнал Spring; в пуле полосы её журналирует сама полоса
+        private void run(Runnable task, long submitted, boolean propagate) {
+            long started = System.nanoTime();
+            queued.decrementAndGet();
+            active.incrementAndGet();
+            queueNanos.add(started - submitted);
+            maxQueueNanos.accumulate(started - submitted);
+            try {
+                task.run();
+            } catch (CancellationException e) {
+                cancelled.incrementAndGet();
+            } catch (RuntimeException e) {
+                if (propagate) {
+                    throw e;
+                }
+                log.error("Request failed in the {} lane", name, e);
+            } finally {
+                long latency = System.nanoTime() - submitted;
+                latencyNanos.add(latency);
+                maxLatencyNanos.accumulate(latency);
+                active.decrementAndGet();
+                completed.incrementAndGet();
+            }
+        }
+
+        LaneStats stats() {
+            long done = completed.get();
+            long started = done + active.get();
+            return new LaneStats(name, concurrency, queueCapacity, queued.get(), active.get(), done, rejected.get(), coalesced.get(), cancelled.get(),
+                    started == 0 ? 0 : queueNanos.sum() / 1e6 / started, maxQueueNanos.get() / 1e6,
+                    done == 0 ? 0 : latencyNanos.sum() / 1e6 / done, maxLatencyNanos.get() / 1e6);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package by.lupach.drawingeditor.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Общие холсты для совместного рисования. По умолчанию результаты получает только отправивший их сеанс;
+ * сеанс, присоединившийся к общему холсту, рисует на нём, и результаты рассылаются всем его участникам.
+ * Холст участников один, поэтому всем уходят одни и те же изменившиеся пиксели.
+ * Холст удаляется, когда его покидает последний участник.
+ */
+@Service
+public class SharedCanvasService {
+    private static final Pattern CANVAS_ID = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+    // Ключи холстов сеансов — идентификаторы сеансов SockJS, двоеточий в них нет
+    private static final String SHARED_KEY_PREFIX = "canvas:";
+
+    // sessionId -> canvasId
+    private final Map<String, String> memberships = new ConcurrentHashMap<>();
+    private final Map<String, Integer> memberCounts = new ConcurrentHashMap<>();
+
+    @Autowired
+    private FrameBufferService frameBufferService;
+
+    public void join(String sessionId, String canvasId) {
+        if (canvasId == null || !CANVAS_ID.matcher(canvasId).matches()) {
+            throw new IllegalArgumentException("Invalid canvas id: " + canvasId);
+        }
+        leave(sessionId);
+        // Участник и счётчик меняются в одной операции над записью холста, поэтому уход последнего
+        // участника не удалит холст, к которому в это время присоединяется новый
+        memberCounts.compute(canvasId, (id, count) -> {
+            memberships.put(sessionId, id);
+            return count == null ? 1 : count + 1;
+        });
+    }
+
+    public void leave(String sessionId) {
+        String canvasId = memberships.get(sessionId);
+        if (canvasId == null) {
+            return;
+        }
+        memberCounts.computeIfPresent(canvasId, (id, count) -> {
+            if (!memberships.remove(sessionId, id)) {
+                return count;
+            }
+            if (count > 1) {
+                return count - 1;
+            }
+            frameBufferService.remove(SHARED_KEY_PREFIX + id);
+            return null;
+        });
+    }
+
+    /**
+     * Общий холст сеанса или null, если сеанс рисует только для себя.
+     */
+    public String canvasOf(String sessionId) {
+        return memberships.get(sessionId);
+    }
+
+    /**
+     * Ключ холста в FrameBufferService: общий холст сеанса или его собственный.
+     */
+    public String canvasKey(String sessionId) {
+        String canvasId = memberships.get(sessionId);
+        return canvasId == null ? sessionId : SHARED_KEY_PREFIX + canvasId;
+    }
+
+    @EventListener
+    public void onSessionDisconnect(SessionDisconnectEvent event) {
+        leave(event.getSessionId());
+    }
+}
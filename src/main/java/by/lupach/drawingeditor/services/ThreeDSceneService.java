@@ -0,0 +1,96 @@
+package by.lupach.drawingeditor.services;
+
+import by.lupach.drawingeditor.models.threeD.MeshHandle;
+import by.lupach.drawingeditor.models.threeD.MeshUploadRequest;
+import by.lupach.drawingeditor.models.threeD.Scene;
+import by.lupach.drawingeditor.models.threeD.SceneMesh;
+import by.lupach.drawingeditor.models.threeD.TransformationRequest;
+import by.lupach.drawingeditor.models.threeD.TransformationResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 3D-сцены WebSocket-сеансов. Клиент загружает объект один раз и получает его идентификатор,
+ * после чего отправляет только преобразования; матрица каждого объекта хранится на сервере.
+ */
+@Service
+public class ThreeDSceneService {
+    // Идентификатор объекта, переданного прямо в запросе преобразования (без загрузки)
+    private static final String INLINE_MESH_ID = "inline";
+
+    private final Map<String, Scene> scenes = new ConcurrentHashMap<>();
+
+    @Autowired
+    private ThreeDTransformationService transformationService;
+
+    public MeshHandle upload(String sessionId, MeshUploadRequest request) {
+        SceneMesh mesh = new SceneMesh(request.getVertices(), request.getEdges(), request.getFaces());
+        String meshId = scene(sessionId).add(mesh);
+        return new MeshHandle(meshId, mesh.getVertices().getCount(), mesh.getEdges().length);
+    }
+
+    /**
+     * Размер объекта, который затронет запрос преобразования, без его выполнения; null, если объект неизвестен.
+     * Для объекта в самом запросе число рёбер по граням оценивается как половина суммы их сторон.
+     */
+    public MeshHandle describe(String sessionId, TransformationRequest request) {
+        if (request.getMeshId() != null) {
+            Scene scene = scenes.get(sessionId);
+            SceneMesh mesh = scene == null ? null : scene.find(request.getMeshId());
+            return mesh == null ? null
+                    : new MeshHandle(request.getMeshId(), mesh.getVertices().getCount(), mesh.getEdges().length);
+        }
+        if (request.getVertices() == null) {
+            return null;
+        }
+        int edgeCount = 0;
+        if (request.getEdges() != null) {
+            edgeCount = request.getEdges().length;
+        } else if (request.getFaces() != null) {
+            for (int[] face : request.getFaces()) {
+                edgeCount += face.length;
+            }
+            edgeCount /= 2;
+        }
+        return new MeshHandle(INLINE_MESH_ID, request.getVertices().length, edgeCount);
+    }
+
+    /**
+     * Домножает накопленную матрицу объекта meshId на преобразование запроса, не растеризуя его.
+     * Если вместо идентификатора переданы вершины и рёбра, объект заменяет предыдущий такой же объект сеанса.
+     * Несколько запросов подряд складываются в одну матрицу, и растеризовать достаточно последнее состояние.
+     */
+    public SceneMesh accumulate(String sessionId, TransformationRequest request) {
+        Scene scene = scene(sessionId);
+        SceneMesh mesh;
+        if (request.getMeshId() != null) {
+            mesh = scene.get(request.getMeshId());
+        } else if (request.getVertices() != null && (request.getEdges() != null || request.getFaces() != null)) {
+            mesh = new SceneMesh(request.getVertices(), request.getEdges(), request.getFaces());
+            scene.put(INLINE_MESH_ID, mesh);
+        } else {
+            throw new IllegalArgumentException("Transformation request has neither meshId nor vertices");
+        }
+        mesh.apply(transformationService.createTransformation(request));
+        return mesh;
+    }
+
+    // Растеризация с матрицей, накопленной к моменту вызова
+    public TransformationResponse render(SceneMesh mesh, boolean cullBackFaces) {
+        return transformationService.render(mesh, mesh.getMatrix(), cullBackFaces);
+    }
+
+    private Scene scene(String sessionId) {
+        return scenes.computeIfAbsent(sessionId, k -> new Scene());
+    }
+
+    @EventListener
+    public void onSessionDisconnect(SessionDisconnectEvent event) {
+        scenes.remove(event.getSessionId());
+    }
+}
@@ -1,14 +1,22 @@
 package by.lupach.drawingeditor.services;
 
+import by.lupach.drawingeditor.models.ArgbColor;
+import by.lupach.drawingeditor.models.raster.PixelBuffer;
 import by.lupach.drawingeditor.models.threeD.Matrix4f;
-import by.lupach.drawingeditor.models.Pixel;
+import by.lupach.drawingeditor.models.threeD.SceneMesh;
+import by.lupach.drawingeditor.models.threeD.ScreenProjection;
 import by.lupach.drawingeditor.models.threeD.TransformationRequest;
 import by.lupach.drawingeditor.models.threeD.TransformationResponse;
+import by.lupach.drawingeditor.models.threeD.VertexArrays;
+import by.lupach.drawingeditor.models.threeD.VertexTransform;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static by.lupach.drawingeditor.configs.ScreenConstants.SCREEN_HEIGHT;
+import static by.lupach.drawingeditor.configs.ScreenConstants.SCREEN_WIDTH;
 
 @Service
 public class ThreeDTransformationService {
@@ -16,65 +24,84 @@ public class ThreeDTransformationService {
     private final int canvasWidth = 800;
     private final int canvasHeight = 600;
     private final double scale = 100.0;
+    private final ScreenProjection projection =
+            new ScreenProjection(canvasWidth / 2, canvasHeight / 2, scale, SCREEN_WIDTH, SCREEN_HEIGHT);
+
+    // Число вершин, начиная с которого преобразование выполняется параллельно
+    @Value("${drawing.threeD.parallel-threshold:65536}")
+    int parallelThreshold = 65536;
 
     @Autowired
     private LineDrawingService lineDrawingService;
 
-    private double[][] currentMatrix = Matrix4f.identity();
-
-    public TransformationResponse applyTransformation(TransformationRequest request) {
-        double[][] newTransform = Matrix4f.identity();
-        switch (request.getTransformationType()) {
-            case "translation":
-                newTransform = Matrix4f.translation(request.getX(), request.getY(), request.getZ());
-                break;
-            case "rotationX":
-                newTransform = Matrix4f.rotationX(request.getAngle());
-                break;
-            case "rotationY":
-                newTransform = Matrix4f.rotationY(request.getAngle());
-                break;
-            case "scaling":
-                newTransform = Matrix4f.scaling(request.getSx(), request.getSy(), request.getSz());
-                break;
-            case "perspective":
-                newTransform = Matrix4f.perspective(request.getD());
-                break;
-            default:
-                // Если тип не определён, можно оставить матрицу без изменений
-                break;
+    /**
+     * Матрица преобразования, заданного запросом; для неизвестного типа — единичная.
+     */
+    public double[] createTransformation(TransformationRequest request) {
+        if (request.getTransformationType() == null) {
+            return Matrix4f.identity();
         }
-        currentMatrix = Matrix4f.multiply(newTransform, currentMatrix);
-
-        double[][] transformedVertices = transform(request.getVertices(), currentMatrix);
+        return switch (request.getTransformationType()) {
+            case "translation" -> Matrix4f.translation(request.getX(), request.getY(), request.getZ());
+            case "rotationX" -> Matrix4f.rotationX(request.getAngle());
+            case "rotationY" -> Matrix4f.rotationY(request.getAngle());
+            case "scaling" -> Matrix4f.scaling(request.getSx(), request.getSy(), request.getSz());
+            case "perspective" -> Matrix4f.perspective(request.getD());
+            // Если тип не определён, матрица остаётся без изменений
+            default -> Matrix4f.identity();
+        };
+    }
 
-        List<Pixel> pixels = new ArrayList<>();
-        for (int[] edge : request.getEdges()) {
-            double[] v0 = transformedVertices[edge[0]];
-            double[] v1 = transformedVertices[edge[1]];
+    /**
+     * Растеризует видимые части рёбер объекта после преобразования вершин матрицей.
+     * При cullBackFaces рёбра, все смежные грани которых повёрнуты от наблюдателя, пропускаются;
+     * рёбра вне граней рисуются всегда.
+     */
+    public TransformationResponse render(SceneMesh mesh, double[] matrix, boolean cullBackFaces) {
+        VertexArrays vertices = mesh.getVertices();
+        VertexArrays transformedVertices = new VertexArrays(vertices.getCount());
+        VertexTransform.transform(matrix, vertices, transformedVertices, ForkJoinPool.commonPool(), parallelThreshold);
 
-            // Перевод в экранные координаты
-            int x0 = (int) (canvasWidth / 2 + v0[0] * scale);
-            int y0 = (int) (canvasHeight / 2 - v0[1] * scale);
-            int x1 = (int) (canvasWidth / 2 + v1[0] * scale);
-            int y1 = (int) (canvasHeight / 2 - v1[1] * scale);
+        boolean[] frontFaces = null;
+        if (cullBackFaces && mesh.getFaces().length > 0) {
+            frontFaces = new boolean[mesh.getFaces().length];
+            for (int f = 0; f < frontFaces.length; f++) {
+                frontFaces[f] = ScreenProjection.isFrontFacing(transformedVertices, mesh.getFaces()[f]);
+            }
+        }
 
-            pixels.addAll(lineDrawingService.generateBresenhamLine(x0, y0, x1, y1));
+        try (PixelBuffer pixels = PixelBuffer.acquire()) {
+            rasterizeEdges(mesh, transformedVertices, frontFaces, pixels);
+            return new TransformationResponse(pixels.toPixels(), matrix);
         }
+    }
 
-        return new TransformationResponse(pixels, currentMatrix);
+    private void rasterizeEdges(SceneMesh mesh, VertexArrays transformedVertices, boolean[] frontFaces,
+                                PixelBuffer pixels) {
+        int[][] edges = mesh.getEdges();
+        int[] screen = new int[4];
+        for (int e = 0; e < edges.length; e++) {
+            if (frontFaces != null && !isVisible(mesh, e, frontFaces)) {
+                continue;
+            }
+            if (projection.clipEdge(transformedVertices, edges[e][0], edges[e][1], screen)) {
+                lineDrawingService.generateBresenhamLine(screen[0], screen[1], screen[2], screen[3],
+                        ArgbColor.BLACK, pixels);
+            }
+        }
     }
 
-    private double[][] transform(double[][] points, double[][] matrix) {
-        double[][] result = new double[points.length][4];
-        for (int i = 0; i < points.length; i++) {
-            result[i] = Matrix4f.multiply(matrix, points[i]);
-                if (result[i][3] != 0) {
-                result[i][0] /= result[i][3];
-                result[i][1] /= result[i][3];
-                result[i][2] /= result[i][3];
+    // Ребро видно, если оно не принадлежит граням либо хотя бы одна смежная грань лицевая
+    private static boolean isVisible(SceneMesh mesh, int edge, boolean[] frontFaces) {
+        int from = mesh.getEdgeFaceOffsets()[edge], to = mesh.getEdgeFaceOffsets()[edge + 1];
+        if (from == to) {
+            return true;
+        }
+        for (int i = from; i < to; i++) {
+            if (frontFaces[mesh.getEdgeFaces()[i]]) {
+                return true;
             }
         }
-        return result;
+        return false;
     }
 }
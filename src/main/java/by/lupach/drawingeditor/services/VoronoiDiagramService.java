@@ -1,8 +1,13 @@
 package by.lupach.drawingeditor.services;
 
+import by.lupach.drawingeditor.models.ArgbColor;
+import by.lupach.drawingeditor.models.CancellationToken;
 import by.lupach.drawingeditor.models.Pixel;
+import by.lupach.drawingeditor.models.raster.PixelBuffer;
+import by.lupach.drawingeditor.models.raster.PixelSink;
 import by.lupach.drawingeditor.models.voronoi.*;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
@@ -12,24 +17,31 @@ import static by.lupach.drawingeditor.configs.ScreenConstants.SCREEN_WIDTH;
 
 @Service
 public class VoronoiDiagramService {
+    private static final int TRIANGULATION_COLOR = ArgbColor.argb(255, 0, 255, 0);
+
     @Autowired
     LineDrawingService lineService;
 
+    // Число точек, начиная с которого триангуляция строится параллельно
+    @Value("${drawing.voronoi.parallel-threshold:50000}")
+    int parallelThreshold = 50000;
+
     public List<Pixel> buildVoronoiDiagram(List<Pixel> points) {
-        // Определяем ограничивающий прямоугольник с небольшим отступом
-        int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE;
-        int maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE;
-        for (Pixel a : points) {
-            if (a.getX() < minX) minX = a.getX();
-            if (a.getY() < minY) minY = a.getY();
-            if (a.getX() > maxX) maxX = a.getX();
-            if (a.getY() > maxY) maxY = a.getY();
+        try (PixelBuffer pixels = PixelBuffer.acquire()) {
+            buildVoronoiDiagram(points, pixels);
+            return pixels.toPixels();
         }
+    }
+
+    public void buildVoronoiDiagram(List<Pixel> points, PixelSink sink) {
+        buildVoronoiDiagram(points, sink, CancellationToken.NONE);
+    }
+
+    public void buildVoronoiDiagram(List<Pixel> points, PixelSink sink, CancellationToken cancellation) {
         Rectangle boundingBox = new Rectangle(0, 0, SCREEN_WIDTH, SCREEN_HEIGHT);
 
-        List<Pixel> resultPixels = new ArrayList<>();
-        // 1. Строим триангуляцию Делоне методом Bowyer–Watson
-        Triangulation triangulation = new Triangulation(points);
+        // 1. Строим триангуляцию Делоне (для больших наборов точек — параллельно)
+        Triangulation triangulation = new Triangulation(points, parallelThreshold, cancellation);
         List<Triangle> triangles = triangulation.getTriangles();
 
         for (Triangle triangle : triangles) {
@@ -38,26 +50,36 @@ public class VoronoiDiagramService {
             Pixel c = triangle.getC();
 
             // Отрисовываем ребра треугольника
-            List<Pixel> edgeAB = lineService.generateBresenhamLineWithColor(a.getX(), a.getY(), b.getX(), b.getY(), "rgba(0, 255, 0, 255)");
-            List<Pixel> edgeBC = lineService.generateBresenhamLineWithColor(b.getX(), b.getY(), c.getX(), c.getY(), "rgba(0, 255, 0, 255)");
-            List<Pixel> edgeCA = lineService.generateBresenhamLineWithColor(c.getX(), c.getY(), a.getX(), a.getY(), "rgba(0, 255, 0, 255)");
-
-            // Добавляем пиксели ребер в результат
-            resultPixels.addAll(edgeAB);
-            resultPixels.addAll(edgeBC);
-            resultPixels.addAll(edgeCA);
+            lineService.generateBresenhamLine(a.getX(), a.getY(), b.getX(), b.getY(), TRIANGULATION_COLOR, sink);
+            lineService.generateBresenhamLine(b.getX(), b.getY(), c.getX(), c.getY(), TRIANGULATION_COLOR, sink);
+            lineService.generateBresenhamLine(c.getX(), c.getY(), a.getX(), a.getY(), TRIANGULATION_COLOR, sink);
         }
 
+        cancellation.throwIfCancelled();
         // 2. Из триангуляции вычисляем ребра диаграммы Вороного
         VoronoiDiagram vd = new VoronoiDiagram();
         List<LineSegment> voronoiEdges = vd.getVoronoiEdges(triangles, boundingBox);
 
         // 3. Для каждого отрезка отрисовываем линию (например, алгоритмом Брезенхэма)
-        for (LineSegment seg : voronoiEdges) {
-            List<Pixel> linePixels = lineService.generateBresenhamLine(
-                    seg.getStart().getX(), seg.getStart().getY(), seg.getEnd().getX(), seg.getEnd().getY());
-            resultPixels.addAll(linePixels);
+        drawSegments(voronoiEdges, sink);
+    }
+
+    /**
+     * Диаграмма Вороного алгоритмом Форчуна: только рёбра Вороного, без триангуляции.
+     */
+    public void buildFortuneVoronoiDiagram(List<Pixel> points, PixelSink sink) {
+        buildFortuneVoronoiDiagram(points, sink, CancellationToken.NONE);
+    }
+
+    public void buildFortuneVoronoiDiagram(List<Pixel> points, PixelSink sink, CancellationToken cancellation) {
+        Rectangle boundingBox = new Rectangle(0, 0, SCREEN_WIDTH, SCREEN_HEIGHT);
+        drawSegments(new FortuneVoronoi(cancellation).getVoronoiEdges(points, boundingBox), sink);
+    }
+
+    private void drawSegments(List<LineSegment> segments, PixelSink sink) {
+        for (LineSegment seg : segments) {
+            lineService.generateBresenhamLine(seg.getStart().getX(), seg.getStart().getY(),
+                    seg.getEnd().getX(), seg.getEnd().getY(), ArgbColor.BLACK, sink);
         }
-        return resultPixels;
     }
 }
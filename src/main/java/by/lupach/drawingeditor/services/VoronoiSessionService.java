@@ -0,0 +1,52 @@
+package by.lupach.drawingeditor.services;
+
+import by.lupach.drawingeditor.models.Pixel;
+import by.lupach.drawingeditor.models.voronoi.Rectangle;
+import by.lupach.drawingeditor.models.voronoi.VoronoiDelta;
+import by.lupach.drawingeditor.models.voronoi.VoronoiSession;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import static by.lupach.drawingeditor.configs.ScreenConstants.SCREEN_HEIGHT;
+import static by.lupach.drawingeditor.configs.ScreenConstants.SCREEN_WIDTH;
+
+/**
+ * Инкрементальные диаграммы Вороного WebSocket-сеансов: точки добавляются и удаляются по одной,
+ * клиенту возвращаются только изменившиеся отрезки.
+ */
+@Service
+public class VoronoiSessionService {
+    private final Map<String, VoronoiSession> sessions = new ConcurrentHashMap<>();
+
+    public VoronoiDelta insert(String sessionId, Pixel site) {
+        return update(sessionId, session -> session.insert(site));
+    }
+
+    public VoronoiDelta delete(String sessionId, Pixel site) {
+        return update(sessionId, session -> session.delete(site));
+    }
+
+    public VoronoiDelta clear(String sessionId) {
+        return update(sessionId, VoronoiSession::clear);
+    }
+
+    // Сообщения одного сеанса обрабатываются по очереди (WebSocketConfig включает setPreserveReceiveOrder),
+    // хотя и разными потоками входящего канала; блокировка без конкуренции оставлена на случай, если порядок отключат
+    private VoronoiDelta update(String sessionId, Function<VoronoiSession, VoronoiDelta> operation) {
+        VoronoiSession session = sessions.computeIfAbsent(sessionId,
+                k -> new VoronoiSession(new Rectangle(0, 0, SCREEN_WIDTH, SCREEN_HEIGHT)));
+        synchronized (session) {
+            return operation.apply(session);
+        }
+    }
+
+    @EventListener
+    public void onSessionDisconnect(SessionDisconnectEvent event) {
+        sessions.remove(event.getSessionId());
+    }
+}
@@ -5,15 +5,16 @@ class WebSocketConnector {
         this.stompClient = null;
     }
 
-    connect(subscriptions = []) {
+    connect(subscriptions = [], onConnected = () => {}) {
         this.socket = new SockJS(this.url);
         this.stompClient = Stomp.over(this.socket);
         const self = this;
         this.stompClient.connect({}, function (frame) {
             console.log('Connected: ' + frame);
             subscriptions.forEach(sub => {
-                self.stompClient.subscribe(sub.topic, sub.callback);
+                self.stompClient.subscribe(sub.topic, sub.callback, sub.headers || {});
             });
+            onConnected();
         }, function (error) {
             console.error('WebSocket ошибка:', error);
         });
@@ -28,6 +29,58 @@ class WebSocketConnector {
     }
 }
 
+// Декодирование упакованного кадра пикселей (см. PackedPixelFrame на сервере)
+const pixelFrameDecoder = {
+    MAGIC: 0x4650,
+    HEADER_SIZE: 16,
+    KIND_SPANS: 1,
+
+    isPacked(message) {
+        return message.headers['frame-format'] === 'packed';
+    },
+
+    decode(base64) {
+        const binary = atob(base64);
+        const bytes = new Uint8Array(binary.length);
+        for (let i = 0; i < binary.length; i++) {
+            bytes[i] = binary.charCodeAt(i);
+        }
+        const view = new DataView(bytes.buffer);
+        if (view.getUint16(0, true) !== this.MAGIC) {
+            throw new Error('Неизвестный формат кадра');
+        }
+        const kind = view.getUint8(3);
+        const count = view.getUint32(4, true);
+        const paletteSize = view.getUint32(8, true);
+        const indexBytes = view.getUint8(12);
+
+        const palette = new Array(paletteSize);
+        let offset = this.HEADER_SIZE;
+        for (let i = 0; i < paletteSize; i++, offset += 4) {
+            palette[i] = `rgba(${bytes[offset]}, ${bytes[offset + 1]}, ${bytes[offset + 2]}, ${bytes[offset + 3] / 255})`;
+        }
+
+        const columns = kind === this.KIND_SPANS ? 3 : 2;
+        const column = (c, i) => view.getInt16(offset + (c * count + i) * 2, true);
+        const indexOffset = offset + columns * count * 2;
+        const items = new Array(count);
+        for (let i = 0; i < count; i++) {
+            let index;
+            if (indexBytes === 1) {
+                index = view.getUint8(indexOffset + i);
+            } else if (indexBytes === 2) {
+                index = view.getUint16(indexOffset + i * 2, true);
+            } else {
+                index = view.getUint32(indexOffset + i * 4, true);
+            }
+            items[i] = kind === this.KIND_SPANS
+                ? {y: column(0, i), xStart: column(1, i), xEnd: column(2, i), color: palette[index]}
+                : {x: column(0, i), y: column(1, i), color: palette[index]};
+        }
+        return items;
+    }
+};
+
 const drawingEditor = {
     pixels: null,
     canvas: null,
@@ -35,8 +88,11 @@ const drawingEditor = {
 
     socketConnection: null,
     debug: false,
+    packedFrames: true,
     activeTab: 'lines', center: null, linePoints: [], curvePoints: [], polygonPoints: [], voronoiPoints: [],
+    voronoiSegments: new Map(),
     current3DObject: null,
+    current3DMeshId: null,
     transformationMatrix: null,
 
     init() {
@@ -47,14 +103,27 @@ const drawingEditor = {
     },
 
     initWebSocket() {
+        // Общий холст включается параметром адреса ?canvas=<имя>, иначе результаты приходят только этой вкладке
+        const sharedCanvas = new URLSearchParams(window.location.search).get('canvas');
         const subscriptions = [{
-            topic: '/topic/drawings', callback: (message) => {
-                const data = JSON.parse(message.body);
+            topic: sharedCanvas ? `/topic/canvas/${sharedCanvas}` : '/user/queue/drawings',
+            headers: this.packedFrames ? {'frame-format': 'packed'} : {},
+            callback: (message) => {
+                const data = pixelFrameDecoder.isPacked(message)
+                    ? pixelFrameDecoder.decode(message.body)
+                    : JSON.parse(message.body);
                 console.log('Получены данные с сервера:', data);
                 this.drawPixels(data);
             }
         }, {
-            topic: '/topic/drawings3d', callback: (message) => {
+            topic: '/user/queue/meshes', callback: (message) => {
+                const handle = JSON.parse(message.body);
+                this.current3DMeshId = handle.meshId;
+                alert(`Загружено вершин: ${handle.vertexCount}`);
+                this.transform3DControl('none', {});
+            }
+        }, {
+            topic: '/user/queue/drawings3d', callback: (message) => {
                 const response = JSON.parse(message.body);
                 console.log('Получены данные с сервера (3D):', response);
                 this.clearCanvas();
@@ -62,9 +131,29 @@ const drawingEditor = {
                 console.log('Текущая матрица преобразования:', response.matrix);
                 this.transformationMatrix = response.matrix;
             }
+        }, {
+            topic: '/user/queue/voronoiSegments', callback: (message) => {
+                this.applyVoronoiDelta(JSON.parse(message.body));
+            }
+        }, {
+            topic: '/user/queue/errors', callback: (message) => {
+                const error = JSON.parse(message.body);
+                console.error('Запрос не выполнен:', error);
+                alert(`Сервер перегружен, запрос ${error.destination} не выполнен: ${error.message}`);
+            }
         }];
+        if (sharedCanvas) {
+            // Другой участник очистил общий холст или заменил его 3D-сценой
+            subscriptions.push({
+                topic: `/topic/canvas/${sharedCanvas}/clear`, callback: () => this.clearCanvas()
+            });
+        }
         this.socketConnection = new WebSocketConnector('/ws');
-        this.socketConnection.connect(subscriptions);
+        this.socketConnection.connect(subscriptions, () => {
+            if (sharedCanvas) {
+                this.socketConnection.send('/app/canvas/join', {canvasId: sharedCanvas});
+            }
+        });
     },
 
     initEventListeners() {
@@ -125,9 +214,15 @@ const drawingEditor = {
         // this.clearPoints();
     },
 
+    // Сервер присылает только пиксели, изменившие его копию холста,
+    // поэтому явная очистка по кнопке должна очищать и её — иначе следующий рисунок придёт неполным.
+    // Перерисовки (3D, оболочка, Вороной) очищают только локальный холст
     clear(){
         this.clearCanvas();
+        this.socketConnection.send("/app/clear", {});
         this.clearPoints();
+        this.voronoiSegments.clear();
+        this.socketConnection.send("/app/voronoiSession/clear", {});
     },
 
     clearPoints() {
@@ -138,7 +233,9 @@ const drawingEditor = {
     },
 
     drawPixels(pixels) {
-        if (Array.isArray(pixels)) {
+        if (Array.isArray(pixels) && pixels.length > 0 && 'xStart' in pixels[0]) {
+            this.drawSpans(pixels);
+        } else if (Array.isArray(pixels)) {
             this.pixels = pixels;
             if (this.debug) {
                 pixels.forEach((pixel, index) => {
@@ -178,6 +275,19 @@ const drawingEditor = {
         }
     },
 
+    // Интервалы строк [xStart, xEnd] рисуются одним fillRect
+    drawSpans(spans) {
+        const drawSpan = (span) => {
+            this.context.fillStyle = span.color || 'black';
+            this.context.fillRect(span.xStart, span.y, span.xEnd - span.xStart + 1, 1);
+        };
+        if (this.debug) {
+            spans.forEach((span, index) => setTimeout(() => drawSpan(span), index * 10));
+        } else {
+            spans.forEach(drawSpan);
+        }
+    },
+
     handleCanvasClick(e) {
         const rect = this.canvas.getBoundingClientRect();
         const x = e.clientX - rect.left;
@@ -215,6 +325,10 @@ const drawingEditor = {
             this.context.fill();
             document.getElementById('instruction').innerText = `Добавлено точек: ${this.polygonPoints.length}`;
         } else if (this.activeTab === 'voronoi') {
+            if (this.isIncrementalVoronoi()) {
+                this.updateVoronoiSession(Math.round(x), Math.round(y), e.shiftKey);
+                return;
+            }
             this.voronoiPoints.push({x, y});
             this.context.fillStyle = "rgba(255,0, 0, 1)";
             this.context.beginPath();
@@ -265,11 +379,20 @@ const drawingEditor = {
     },
 
     convexHullGraham() {
+        this.requestConvexHull('convexHullGraham');
+    },
+
+    // Алгоритм выбирает сервер: на больших наборах точек оболочка строится параллельно
+    convexHull() {
+        this.requestConvexHull('convexHull');
+    },
+
+    requestConvexHull(endpoint) {
         if (this.polygonPoints.length < 3) {
             alert("Добавьте хотя бы 3 точки!");
             return;
         }
-        fetch('/draw/convexHullGraham', {
+        fetch(`/draw/${endpoint}`, {
             method: 'POST', headers: {'Content-Type': 'application/json'}, body: JSON.stringify(this.polygonPoints)
         })
             .then(response => response.json())
@@ -289,26 +412,72 @@ const drawingEditor = {
             return;
         }
 
-        this.socketConnection.send("/app/voronoiDiagram", this.voronoiPoints);
-    },
-
-    convexHullJarvis() {
-        if (this.polygonPoints.length < 3) {
-            alert("Добавьте хотя бы 3 точки!");
+        if (this.isIncrementalVoronoi()) {
+            this.redrawVoronoiSession();
             return;
         }
-        fetch('/draw/convexHullJarvis', {
-            method: 'POST', headers: {'Content-Type': 'application/json'}, body: JSON.stringify(this.polygonPoints)
-        })
-            .then(response => response.json())
-            .then(data => {
-                this.polygonPoints = data;
-                this.clearCanvas();
-                for (let i=-1; i<data.length-1; i++){
-                    this.drawLine(data.at(i).x, data.at(i).y, data.at(i+1).x, data.at(i+1).y)
+        const engine = document.getElementById("voronoiEngine").value;
+        this.socketConnection.send("/app/voronoiDiagram", {points: this.voronoiPoints, engine});
+    },
+
+    isIncrementalVoronoi() {
+        return document.getElementById("voronoiEngine").value === 'incremental';
+    },
+
+    // Инкрементальный режим: клик добавляет точку, Shift+клик удаляет ближайшую,
+    // сервер присылает только изменившиеся отрезки
+    updateVoronoiSession(x, y, remove) {
+        if (remove) {
+            let nearest = null;
+            let nearestDistance = 100;
+            this.voronoiPoints.forEach(point => {
+                const distance = (point.x - x) ** 2 + (point.y - y) ** 2;
+                if (distance < nearestDistance) {
+                    nearest = point;
+                    nearestDistance = distance;
                 }
-                // this.drawPixels(data);
             });
+            if (!nearest) {
+                return;
+            }
+            this.voronoiPoints = this.voronoiPoints.filter(point => point !== nearest);
+            this.socketConnection.send("/app/voronoiSession/delete", nearest);
+        } else {
+            this.voronoiPoints.push({x, y});
+            this.socketConnection.send("/app/voronoiSession/insert", {x, y});
+        }
+        this.redrawVoronoiSession();
+        document.getElementById('instruction').innerText = `Точек: ${this.voronoiPoints.length}. Shift+клик удаляет точку.`;
+    },
+
+    applyVoronoiDelta(delta) {
+        delta.removed.forEach(id => this.voronoiSegments.delete(id));
+        delta.added.forEach(segment => this.voronoiSegments.set(segment.id, segment));
+        if (this.activeTab === 'voronoi' && this.isIncrementalVoronoi()) {
+            this.redrawVoronoiSession();
+        }
+    },
+
+    redrawVoronoiSession() {
+        this.clearCanvas();
+        this.voronoiSegments.forEach(segment => {
+            this.context.strokeStyle = segment.kind === 'delaunay' ? 'rgba(0, 255, 0, 1)' : 'black';
+            this.context.beginPath();
+            this.context.moveTo(segment.x1, segment.y1);
+            this.context.lineTo(segment.x2, segment.y2);
+            this.context.stroke();
+        });
+        this.context.strokeStyle = 'black';
+        this.context.fillStyle = "rgba(255,0, 0, 1)";
+        this.voronoiPoints.forEach(point => {
+            this.context.beginPath();
+            this.context.arc(point.x, point.y, 3, 0, 2 * Math.PI);
+            this.context.fill();
+        });
+    },
+
+    convexHullJarvis() {
+        this.requestConvexHull('convexHullJarvis');
     },
 
     checkPointInside() {
@@ -383,20 +552,17 @@ const drawingEditor = {
             const fileContent = event.target.result;
             const objectData = this.parseOBJFile(fileContent);
             this.current3DObject = objectData;
-            alert(`Загружено вершин: ${objectData.vertices.length}`);
-            const request = {
-                transformationType: "none",
-                vertices: this.transformVerticesForServer(objectData.vertices),
-                edges: this.transformEdgesForServer(objectData.edges)
-            };
-            this.socketConnection.send("/app/transform3D", request);
+            this.current3DMeshId = null;
+            // Объект отправляется один раз, сервер отвечает идентификатором в /user/queue/meshes
+            this.socketConnection.send("/app/scene/upload", objectData);
         };
         reader.readAsText(file);
     },
 
+    // Рёбра сервер строит по граням сам, без повторов общих рёбер
     parseOBJFile(content) {
         const vertices = [];
-        const edges = [];
+        const faces = [];
         const lines = content.split("\n");
         lines.forEach(line => {
             if (line.startsWith("v ")) {
@@ -407,27 +573,21 @@ const drawingEditor = {
                 vertices.push([x, y, z, 1]);
             } else if (line.startsWith("f ")) {
                 const parts = line.split(" ").filter(p => p.trim() !== "");
-                const faceIndices = parts.slice(1).map(part => parseInt(part.split('/')[0], 10) - 1);
-                for (let i = 0; i < faceIndices.length; i++) {
-                    const startIndex = faceIndices[i];
-                    const endIndex = faceIndices[(i + 1) % faceIndices.length];
-                    edges.push([startIndex, endIndex]);
-                }
+                faces.push(parts.slice(1).map(part => parseInt(part.split('/')[0], 10) - 1));
             }
         });
-        return { vertices, edges };
+        return { vertices, faces };
     },
 
     transform3DControl(type, params) {
-        if (!this.current3DObject) {
+        if (!this.current3DMeshId) {
             alert("Сначала загрузите 3D объект!");
             return;
         }
         const request = {
             transformationType: type,
-            vertices: this.current3DObject.vertices,
-            edges: this.current3DObject.edges,
-            matrix: this.transformationMatrix
+            meshId: this.current3DMeshId,
+            cullBackFaces: document.getElementById("cullBackFaces").checked
         };
         Object.assign(request, params);
         this.socketConnection.send("/app/transform3D", request);
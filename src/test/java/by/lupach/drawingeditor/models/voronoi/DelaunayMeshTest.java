@@ -0,0 +1,192 @@
+package by.lupach.drawingeditor.models.voronoi;
+
+import by.lupach.drawingeditor.models.Pixel;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DelaunayMeshTest {
+    private static final int MAX = 1 << 30;
+
+    @Test
+    void orientationIsExactAtCoordinateBounds() {
+        assertEquals(2L * MAX, DelaunayMesh.orientation(-MAX, 0, MAX, 0, 0, 1));
+        assertEquals(-2L * MAX, DelaunayMesh.orientation(-MAX, 0, MAX, 0, 0, -1));
+        // Удвоенная площадь максимального треугольника — ровно 2^62
+        assertEquals(1L << 62, DelaunayMesh.orientation(-MAX, -MAX, MAX, -MAX, MAX, MAX));
+        assertEquals(-(1L << 62), DelaunayMesh.orientation(-MAX, -MAX, MAX, MAX, MAX, -MAX));
+    }
+
+    @Test
+    void triangulatesPointsAtCoordinateBounds() {
+        DelaunayMesh mesh = new DelaunayMesh();
+        mesh.insertAll(List.of(new Pixel(-MAX, 0), new Pixel(MAX, 0), new Pixel(0, 1), new Pixel(0, -1)));
+
+        List<Triangle> triangles = mesh.getTriangles();
+        assertEquals(2, triangles.size());
+        // Треугольники не перекрываются: их площади в сумме дают площадь ромба
+        assertEquals(4L * MAX, doubledArea(triangles));
+    }
+
+    @Test
+    void triangulatesCornersOfCoordinateRange() {
+        DelaunayMesh mesh = new DelaunayMesh();
+        mesh.insertAll(List.of(new Pixel(-MAX, -MAX), new Pixel(MAX, -MAX), new Pixel(MAX, MAX),
+                new Pixel(-MAX, MAX), new Pixel(0, 0)));
+
+        List<Triangle> triangles = mesh.getTriangles();
+        assertEquals(4, triangles.size());
+        // Четыре одинаковых треугольника с вершиной в центре (сумма площадей 2^63 не помещается в long)
+        for (Triangle triangle : triangles) {
+            assertEquals(1L << 61, doubledArea(List.of(triangle)));
+        }
+    }
+
+    @Test
+    void rejectsPointsOutOfRange() {
+        DelaunayMesh mesh = new DelaunayMesh();
+        assertThrows(IllegalArgumentException.class, () -> mesh.insert(new Pixel(MAX + 1, 0)));
+        assertThrows(IllegalArgumentException.class, () -> mesh.insert(new Pixel(0, -MAX - 1)));
+    }
+
+    @Test
+    void circumcirclesAreEmpty() {
+        List<Pixel> points = randomPoints(new Random(1), 2000, 1000, 700);
+        DelaunayMesh mesh = new DelaunayMesh();
+        mesh.insertAll(points);
+
+        assertDelaunay(mesh.getTriangles(), points);
+    }
+
+    @Test
+    void cocircularPointsAreTriangulatedWithoutOverlap() {
+        // Все точки сетки попарно лежат на общих окружностях
+        List<Pixel> points = new ArrayList<>();
+        for (int x = 0; x < 10; x++) {
+            for (int y = 0; y < 10; y++) {
+                points.add(new Pixel(x * 10, y * 10));
+            }
+        }
+        DelaunayMesh mesh = new DelaunayMesh();
+        mesh.insertAll(points);
+
+        List<Triangle> triangles = mesh.getTriangles();
+        assertEquals(2 * 9 * 9, triangles.size());
+        assertEquals(2L * 90 * 90, doubledArea(triangles));
+        assertDelaunay(triangles, points);
+    }
+
+    @Test
+    void collinearPointsWaitForFirstTriangle() {
+        DelaunayMesh mesh = new DelaunayMesh();
+        for (int x = 0; x < 5; x++) {
+            mesh.insert(new Pixel(x * 10, x * 5));
+        }
+        assertTrue(mesh.getTriangles().isEmpty());
+
+        mesh.insert(new Pixel(0, 50));
+        List<Triangle> triangles = mesh.getTriangles();
+        // Веер из вершины над прямой к четырём отрезкам между точками прямой
+        assertEquals(4, triangles.size());
+        assertEquals(Math.abs(DelaunayMesh.orientation(0, 0, 40, 20, 0, 50)), doubledArea(triangles));
+    }
+
+    @Test
+    void duplicatePointsAreIgnored() {
+        DelaunayMesh mesh = new DelaunayMesh();
+        assertEquals(0, mesh.insert(new Pixel(1, 1)));
+        assertEquals(-1, mesh.insert(new Pixel(1, 1)));
+        mesh.insert(new Pixel(10, 1));
+        mesh.insert(new Pixel(5, 8));
+        assertEquals(-1, mesh.insert(new Pixel(10, 1)));
+
+        assertEquals(1, mesh.getTriangles().size());
+        assertEquals(2, mesh.findVertex(5, 8));
+        assertEquals(-1, mesh.findVertex(5, 9));
+    }
+
+    @Test
+    void deletionKeepsTriangulationDelaunay() {
+        Random random = new Random(2);
+        List<Pixel> points = randomPoints(random, 500, 1000, 700);
+        DelaunayMesh mesh = new DelaunayMesh();
+        points.forEach(mesh::insert);
+
+        List<Pixel> remaining = new ArrayList<>(points);
+        for (int i = 0; i < 200; i++) {
+            Pixel removed = remaining.remove(random.nextInt(remaining.size()));
+            int vertex = mesh.findVertex(removed.getX(), removed.getY());
+            assertTrue(mesh.delete(vertex));
+            assertFalse(mesh.delete(vertex));
+            assertTrue(mesh.isDeleted(vertex));
+        }
+
+        List<Triangle> triangles = mesh.getTriangles();
+        assertDelaunay(triangles, remaining);
+        // Любая триангуляция одного набора точек содержит одинаковое число треугольников той же общей площади
+        DelaunayMesh rebuilt = new DelaunayMesh();
+        rebuilt.insertAll(remaining);
+        assertEquals(rebuilt.getTriangles().size(), triangles.size());
+        assertEquals(doubledArea(rebuilt.getTriangles()), doubledArea(triangles));
+    }
+
+    @Test
+    void deletionDownToCollinearPointsRemovesAllTriangles() {
+        DelaunayMesh mesh = new DelaunayMesh();
+        mesh.insert(new Pixel(0, 0));
+        mesh.insert(new Pixel(10, 0));
+        mesh.insert(new Pixel(20, 0));
+        int apex = mesh.insert(new Pixel(10, 10));
+        assertEquals(2, mesh.getTriangles().size());
+
+        mesh.delete(apex);
+        assertTrue(mesh.getTriangles().isEmpty());
+
+        // Сетка продолжает принимать точки после возврата к ожиданию
+        mesh.insert(new Pixel(10, -10));
+        assertEquals(2, mesh.getTriangles().size());
+    }
+
+    static List<Pixel> randomPoints(Random random, int count, int width, int height) {
+        Set<Pixel> points = new LinkedHashSet<>();
+        while (points.size() < count) {
+            points.add(new Pixel(random.nextInt(width), random.nextInt(height)));
+        }
+        return new ArrayList<>(points);
+    }
+
+    // Ни одна точка не лежит строго внутри описанной окружности треугольника
+    static void assertDelaunay(List<Triangle> triangles, List<Pixel> points) {
+        for (Triangle triangle : triangles) {
+            Pixel a = triangle.getA(), b = triangle.getB(), c = triangle.getC();
+            if (DelaunayMesh.orientation(a.getX(), a.getY(), b.getX(), b.getY(), c.getX(), c.getY()) < 0) {
+                Pixel swap = b;
+                b = c;
+                c = swap;
+            }
+            for (Pixel p : points) {
+                int sign = DelaunayMesh.inCircle(a.getX(), a.getY(), b.getX(), b.getY(), c.getX(), c.getY(),
+                        p.getX(), p.getY());
+                assertTrue(sign <= 0, () -> p + " lies inside the circumcircle of " + triangle);
+            }
+        }
+    }
+
+    static long doubledArea(List<Triangle> triangles) {
+        long sum = 0;
+        for (Triangle triangle : triangles) {
+            sum += Math.abs(DelaunayMesh.orientation(triangle.getA().getX(), triangle.getA().getY(),
+                    triangle.getB().getX(), triangle.getB().getY(), triangle.getC().getX(), triangle.getC().getY()));
+        }
+        return sum;
+    }
+}
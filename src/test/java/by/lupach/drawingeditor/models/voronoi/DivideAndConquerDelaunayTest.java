@@ -0,0 +1,79 @@
+package by.lupach.drawingeditor.models.voronoi;
+
+import by.lupach.drawingeditor.models.CancellationToken;
+import by.lupach.drawingeditor.models.Pixel;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DivideAndConquerDelaunayTest {
+    private static final int MAX = 1 << 30;
+
+    private final DivideAndConquerDelaunay delaunay = new DivideAndConquerDelaunay(ForkJoinPool.commonPool());
+
+    @Test
+    void triangulatesPointsAtCoordinateBounds() {
+        List<Triangle> triangles = delaunay.triangulate(
+                List.of(new Pixel(-MAX, 0), new Pixel(MAX, 0), new Pixel(0, 1), new Pixel(0, -1)));
+
+        assertEquals(2, triangles.size());
+        assertEquals(4L * MAX, DelaunayMeshTest.doubledArea(triangles));
+    }
+
+    @Test
+    void rejectsPointsOutOfRange() {
+        assertThrows(IllegalArgumentException.class,
+                () -> delaunay.triangulate(List.of(new Pixel(0, 0), new Pixel(1, 0), new Pixel(MAX + 1, 1))));
+    }
+
+    @Test
+    void matchesIncrementalMesh() {
+        List<Pixel> points = DelaunayMeshTest.randomPoints(new Random(3), 5000, 1000, 700);
+        DelaunayMesh mesh = new DelaunayMesh();
+        mesh.insertAll(points);
+
+        List<Triangle> triangles = delaunay.triangulate(points);
+        DelaunayMeshTest.assertDelaunay(triangles, points);
+        assertEquals(mesh.getTriangles().size(), triangles.size());
+        assertEquals(DelaunayMeshTest.doubledArea(mesh.getTriangles()), DelaunayMeshTest.doubledArea(triangles));
+    }
+
+    @Test
+    void ignoresDuplicatePoints() {
+        List<Pixel> points = new ArrayList<>(List.of(new Pixel(0, 0), new Pixel(10, 0), new Pixel(5, 9)));
+        points.addAll(List.copyOf(points));
+
+        List<Triangle> triangles = delaunay.triangulate(points);
+        assertEquals(1, triangles.size());
+    }
+
+    @Test
+    void collinearPointsHaveNoTriangles() {
+        List<Pixel> points = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            points.add(new Pixel(i * 3, i * 2));
+        }
+        assertTrue(delaunay.triangulate(points).isEmpty());
+
+        points.add(new Pixel(0, 100));
+        assertEquals(99, delaunay.triangulate(points).size());
+    }
+
+    @Test
+    void stopsWhenCancelled() {
+        CancellationToken cancellation = new CancellationToken();
+        cancellation.cancel();
+        DivideAndConquerDelaunay cancelled = new DivideAndConquerDelaunay(ForkJoinPool.commonPool(), cancellation);
+
+        List<Pixel> points = DelaunayMeshTest.randomPoints(new Random(4), 1000, 1000, 700);
+        assertThrows(CancellationException.class, () -> cancelled.triangulate(points));
+    }
+}
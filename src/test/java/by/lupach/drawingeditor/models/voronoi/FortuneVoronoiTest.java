@@ -0,0 +1,92 @@
+package by.lupach.drawingeditor.models.voronoi;
+
+import by.lupach.drawingeditor.models.CancellationToken;
+import by.lupach.drawingeditor.models.Pixel;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FortuneVoronoiTest {
+    private static final Rectangle BOX = new Rectangle(0, 0, 1000, 700);
+    // Концы рёбер округляются до пикселей
+    private static final double TOLERANCE = 1.5;
+
+    @Test
+    void twoSitesAreSeparatedByBisector() {
+        List<LineSegment> edges = new FortuneVoronoi()
+                .getVoronoiEdges(List.of(new Pixel(400, 300), new Pixel(600, 300)), BOX);
+
+        assertEquals(1, edges.size());
+        assertEquals(500, edges.get(0).getStart().getX());
+        assertEquals(500, edges.get(0).getEnd().getX());
+    }
+
+    @Test
+    void collinearSitesHaveParallelEdges() {
+        List<LineSegment> edges = new FortuneVoronoi().getVoronoiEdges(
+                List.of(new Pixel(100, 350), new Pixel(300, 350), new Pixel(500, 350), new Pixel(700, 350)), BOX);
+
+        assertEquals(3, edges.size());
+        for (LineSegment edge : edges) {
+            assertEquals(edge.getStart().getX(), edge.getEnd().getX());
+        }
+    }
+
+    @Test
+    void edgePointsAreEquidistantFromNearestSites() {
+        List<Pixel> sites = DelaunayMeshTest.randomPoints(new Random(5), 300, 1000, 700);
+        List<LineSegment> edges = new FortuneVoronoi().getVoronoiEdges(sites, BOX);
+
+        assertFalse(edges.isEmpty());
+        for (LineSegment edge : edges) {
+            double x = (edge.getStart().getX() + edge.getEnd().getX()) / 2.0;
+            double y = (edge.getStart().getY() + edge.getEnd().getY()) / 2.0;
+            double nearest = Double.MAX_VALUE, second = Double.MAX_VALUE;
+            for (Pixel site : sites) {
+                double distance = Math.hypot(site.getX() - x, site.getY() - y);
+                if (distance < nearest) {
+                    second = nearest;
+                    nearest = distance;
+                } else if (distance < second) {
+                    second = distance;
+                }
+            }
+            assertTrue(second - nearest <= TOLERANCE, () -> edge + " is not on a cell boundary");
+        }
+    }
+
+    @Test
+    void edgeCountMatchesDelaunayEdges() {
+        // Рёбра Вороного двойственны рёбрам Делоне; ребро может состоять из двух половин, растущих в разные стороны
+        List<Pixel> sites = DelaunayMeshTest.randomPoints(new Random(6), 200, 1000, 700);
+        Set<Set<Pixel>> edges = new HashSet<>();
+        for (FortuneVoronoi.HalfEdge edge : new FortuneVoronoi().computeHalfEdges(sites)) {
+            edges.add(Set.of(edge.left, edge.right));
+        }
+
+        DelaunayMesh mesh = new DelaunayMesh();
+        mesh.insertAll(sites);
+        int triangles = mesh.getTriangles().size();
+        // Для триангуляции n точек: рёбер = n + треугольников - 1
+        assertEquals(sites.size() + triangles - 1, edges.size());
+    }
+
+    @Test
+    void stopsWhenCancelled() {
+        CancellationToken cancellation = new CancellationToken();
+        cancellation.cancel();
+        List<Pixel> sites = DelaunayMeshTest.randomPoints(new Random(7), 1000, 1000, 700);
+
+        assertThrows(CancellationException.class,
+                () -> new FortuneVoronoi(cancellation).getVoronoiEdges(sites, BOX));
+    }
+}
@@ -0,0 +1,90 @@
+package by.lupach.drawingeditor.services;
+
+import by.lupach.drawingeditor.models.Pixel;
+import by.lupach.drawingeditor.models.polygons.PolygonHandle;
+import jakarta.servlet.http.HttpSessionEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PolygonRegistryServiceTest {
+    private static final List<Pixel> SQUARE = List.of(new Pixel(0, 0), new Pixel(10, 0),
+            new Pixel(10, 10), new Pixel(0, 10));
+
+    private final PolygonRegistryService registry = new PolygonRegistryService();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(registry, "polygonService", new PolygonService());
+        registry.capacity = 2;
+    }
+
+    @Test
+    void registeredPolygonIsIndexed() {
+        PolygonHandle handle = registry.register("owner", SQUARE);
+
+        assertEquals(4, handle.getVertexCount());
+        assertTrue(handle.isConvex());
+        assertEquals(4, registry.get("owner", handle.getPolygonId()).getHull().size());
+    }
+
+    @Test
+    void idsAreRandom() {
+        String first = registry.register("owner", SQUARE).getPolygonId();
+        String second = registry.register("owner", SQUARE).getPolygonId();
+
+        assertNotEquals(first, second);
+        assertEquals(36, first.length());
+    }
+
+    @Test
+    void ownersDoNotSeeEachOthersPolygons() {
+        String polygonId = registry.register("owner", SQUARE).getPolygonId();
+
+        assertThrows(NoSuchElementException.class, () -> registry.get("other", polygonId));
+        registry.remove("other", polygonId);
+        assertNotNull(registry.get("owner", polygonId));
+    }
+
+    @Test
+    void leastRecentlyUsedPolygonIsEvictedPerOwner() {
+        String first = registry.register("owner", SQUARE).getPolygonId();
+        String second = registry.register("owner", SQUARE).getPolygonId();
+        registry.get("owner", first);
+        // Чужие многоугольники не расходуют место владельца
+        registry.register("other", SQUARE);
+        registry.register("other", SQUARE);
+        registry.register("owner", SQUARE);
+
+        assertNotNull(registry.get("owner", first));
+        assertThrows(NoSuchElementException.class, () -> registry.get("owner", second));
+    }
+
+    @Test
+    void removedPolygonIsUnknown() {
+        String polygonId = registry.register("owner", SQUARE).getPolygonId();
+        registry.remove("owner", polygonId);
+
+        assertThrows(NoSuchElementException.class, () -> registry.get("owner", polygonId));
+    }
+
+    @Test
+    void polygonsAreDroppedWithSession() {
+        MockHttpSession session = new MockHttpSession();
+        String polygonId = registry.register(session.getId(), SQUARE).getPolygonId();
+
+        registry.sessionDestroyed(new HttpSessionEvent(session));
+
+        assertThrows(NoSuchElementException.class, () -> registry.get(session.getId(), polygonId));
+    }
+}
@@ -0,0 +1,242 @@
+package by.lupach.drawingeditor.services;
+
+import by.lupach.drawingeditor.models.ArgbColor;
+import by.lupach.drawingeditor.models.Pixel;
+import by.lupach.drawingeditor.models.polygons.Span;
+import by.lupach.drawingeditor.models.raster.FrameBuffer;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static by.lupach.drawingeditor.configs.ScreenConstants.SCREEN_HEIGHT;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PolygonServiceTest {
+    private static final List<Pixel> SQUARE = List.of(new Pixel(10, 10), new Pixel(50, 10),
+            new Pixel(50, 40), new Pixel(10, 40));
+
+    private final PolygonService polygonService = new PolygonService();
+
+    @Test
+    void scanlineFillsSquareRows() {
+        List<Span> spans = polygonService.scanlineFillSpans(SQUARE);
+
+        // Нижняя строка многоугольника не заливается: ребро учитывается на полуинтервале [minY, maxY)
+        assertEquals(30, spans.size());
+        for (Span span : spans) {
+            assertEquals(10, span.getXStart());
+            assertEquals(50, span.getXEnd());
+        }
+    }
+
+    @Test
+    void fillEnginesAgreeOnRectilinearPolygons() {
+        Random random = new Random(8);
+        for (int i = 0; i < 20; i++) {
+            List<Pixel> polygon = randomHistogram(random, 2 + random.nextInt(30));
+
+            Set<Long> scanline = keys(polygonService.scanlineFill(polygon));
+            assertEquals(scanline, keys(polygonService.activeEdgeFill(polygon)));
+        }
+    }
+
+    @Test
+    void fillEnginesDifferOnlyByRoundingOnSlopedEdges() {
+        Random random = new Random(11);
+        for (int i = 0; i < 20; i++) {
+            List<Pixel> polygon = randomPolygon(random, 3 + random.nextInt(40));
+
+            // Простая развёртка отбрасывает дробную часть смещения от начала ребра, AET — дробную часть
+            // самой абсциссы; на рёбрах, наклонённых влево, концы расходятся на пиксель
+            Map<Integer, int[]> scanline = rowBounds(polygonService.scanlineFill(polygon));
+            Map<Integer, int[]> activeEdge = rowBounds(polygonService.activeEdgeFill(polygon));
+            assertEquals(scanline.keySet(), activeEdge.keySet());
+            scanline.forEach((y, bounds) -> {
+                assertTrue(Math.abs(bounds[0] - activeEdge.get(y)[0]) <= 1, () -> "row " + y);
+                assertTrue(Math.abs(bounds[1] - activeEdge.get(y)[1]) <= 1, () -> "row " + y);
+            });
+        }
+    }
+
+    @Test
+    void activeEdgeFillTruncatesNegativeAbscissaTowardZero() {
+        List<Pixel> triangle = List.of(new Pixel(0, 0), new Pixel(-3, 2), new Pixel(0, 2));
+
+        // На строке 1 левое ребро пересекает её в x = -1.5: отбрасывание к нулю даёт -1, а не -2
+        Map<Integer, int[]> bounds = rowBounds(polygonService.activeEdgeFill(triangle));
+        assertEquals(Set.of(0, 1), bounds.keySet());
+        assertEquals(0, bounds.get(0)[0]);
+        assertEquals(-1, bounds.get(1)[0]);
+        assertEquals(0, bounds.get(1)[1]);
+    }
+
+    @Test
+    void activeEdgeFillClipsRowsToScreen() {
+        List<Pixel> polygon = List.of(new Pixel(0, -1_000_000_000), new Pixel(8, -1_000_000_000 + 8),
+                new Pixel(8, 1_000_000_000), new Pixel(0, 1_000_000_000));
+
+        List<Span> spans = polygonService.activeEdgeFillSpans(polygon);
+        assertEquals(SCREEN_HEIGHT, spans.size());
+        for (int y = 0; y < SCREEN_HEIGHT; y++) {
+            assertEquals(y, spans.get(y).getY());
+            assertEquals(0, spans.get(y).getXStart());
+            assertEquals(8, spans.get(y).getXEnd());
+        }
+
+        // Наклонное ребро, начинающееся выше холста, входит в строку 0 уже сдвинутым: x = y + 4
+        List<Span> sloped = polygonService.activeEdgeFillSpans(
+                List.of(new Pixel(0, -4), new Pixel(8, 4), new Pixel(0, 4)));
+        assertEquals(4, sloped.size());
+        for (int y = 0; y < 4; y++) {
+            assertEquals(y, sloped.get(y).getY());
+            assertEquals(y + 4, sloped.get(y).getXEnd());
+        }
+    }
+
+    @Test
+    void bandedScanlineMatchesSequential() {
+        Random random = new Random(12);
+        PolygonService banded = new PolygonService();
+        banded.parallelThreshold = 3;
+        for (int i = 0; i < 20; i++) {
+            List<Pixel> polygon = randomPolygon(random, 3 + random.nextInt(40));
+
+            assertEquals(keys(polygonService.scanlineFill(polygon)), keys(banded.scanlineFill(polygon)));
+        }
+    }
+
+    @Test
+    void hullAlgorithmsAgree() {
+        List<Pixel> points = randomPoints(new Random(9), 5000);
+        Set<Long> hull = keys(polygonService.convexHull(points));
+
+        assertEquals(hull, keys(polygonService.convexHullGraham(points)));
+        assertEquals(hull, keys(polygonService.convexHullJarvis(points)));
+
+        PolygonService parallel = new PolygonService();
+        parallel.hullParallelThreshold = 16;
+        assertEquals(hull, keys(parallel.convexHull(points)));
+        assertEquals(hull, keys(parallel.convexHullJarvis(points)));
+    }
+
+    @Test
+    void hullContainsAllPoints() {
+        List<Pixel> points = randomPoints(new Random(10), 1000);
+        List<Pixel> hull = polygonService.convexHull(points);
+
+        assertTrue(polygonService.isConvex(hull));
+        for (Pixel point : points) {
+            for (int i = 0; i < hull.size(); i++) {
+                Pixel a = hull.get(i), b = hull.get((i + 1) % hull.size());
+                long cross = (long) (b.getX() - a.getX()) * (point.getY() - a.getY())
+                        - (long) (b.getY() - a.getY()) * (point.getX() - a.getX());
+                assertTrue(cross >= 0, () -> point + " is outside the hull");
+            }
+        }
+    }
+
+    @Test
+    void hullSkipsCollinearAndDuplicatePoints() {
+        List<Pixel> points = new ArrayList<>(SQUARE);
+        points.add(new Pixel(30, 10));
+        points.add(new Pixel(10, 25));
+        points.add(new Pixel(50, 10));
+        points.add(new Pixel(30, 25));
+
+        assertEquals(keys(SQUARE), keys(polygonService.convexHullGraham(points)));
+        assertEquals(keys(SQUARE), keys(polygonService.convexHullJarvis(points)));
+    }
+
+    @Test
+    void seedFillsAgreeInsidePolygon() {
+        FrameBuffer canvas = new FrameBuffer(100, 100);
+        Set<Long> flood = keys(polygonService.floodFill(new Pixel(20, 20), SQUARE, ArgbColor.BLACK, canvas));
+        Set<Long> scanline = keys(polygonService.scanlineFloodFill(new Pixel(20, 20), SQUARE, ArgbColor.BLACK, canvas));
+
+        assertEquals(flood, scanline);
+        // Затравочная заливка занимает пиксели строго внутри многоугольника: x в [10, 50), y в [10, 40)
+        assertEquals(40 * 30, flood.size());
+    }
+
+    @Test
+    void seedFillStopsAtBoundaryColor() {
+        FrameBuffer canvas = new FrameBuffer(100, 100);
+        for (int y = 0; y < 100; y++) {
+            canvas.blend(30, y, ArgbColor.BLACK);
+        }
+
+        List<Pixel> flood = polygonService.floodFill(new Pixel(20, 20), SQUARE, ArgbColor.BLACK, canvas);
+        Set<Long> scanline = keys(polygonService.scanlineFloodFill(new Pixel(20, 20), SQUARE, ArgbColor.BLACK, canvas));
+
+        assertFalse(flood.isEmpty());
+        assertTrue(flood.stream().allMatch(p -> p.getX() < 30));
+        assertEquals(keys(flood), scanline);
+    }
+
+    @Test
+    void seedOutsidePolygonFillsNothing() {
+        FrameBuffer canvas = new FrameBuffer(100, 100);
+
+        assertTrue(polygonService.floodFill(new Pixel(70, 70), SQUARE, ArgbColor.BLACK, canvas).isEmpty());
+        assertTrue(polygonService.scanlineFloodFill(new Pixel(70, 70), SQUARE, ArgbColor.BLACK, canvas).isEmpty());
+    }
+
+    // Звёздчатый многоугольник без самопересечений: вершины по возрастанию угла вокруг центра
+    private static List<Pixel> randomPolygon(Random random, int vertices) {
+        double[] angles = random.doubles(vertices, 0, 2 * Math.PI).sorted().toArray();
+        List<Pixel> polygon = new ArrayList<>();
+        for (double angle : angles) {
+            double radius = 20 + random.nextInt(80);
+            polygon.add(new Pixel(400 + (int) (radius * Math.cos(angle)), 350 + (int) (radius * Math.sin(angle))));
+        }
+        return polygon;
+    }
+
+    // Гистограмма из столбцов случайной высоты над общим основанием: многоугольник только с осевыми рёбрами
+    private static List<Pixel> randomHistogram(Random random, int bars) {
+        List<Pixel> polygon = new ArrayList<>();
+        int x = 100;
+        polygon.add(new Pixel(x, 600));
+        for (int i = 0; i < bars; i++) {
+            int height = 400 + random.nextInt(150);
+            polygon.add(new Pixel(x, height));
+            x += 2 + random.nextInt(10);
+            polygon.add(new Pixel(x, height));
+        }
+        polygon.add(new Pixel(x, 600));
+        return polygon;
+    }
+
+    private static List<Pixel> randomPoints(Random random, int count) {
+        List<Pixel> points = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            points.add(new Pixel(random.nextInt(1000), random.nextInt(700)));
+        }
+        return points;
+    }
+
+    private static Map<Integer, int[]> rowBounds(List<Pixel> pixels) {
+        Map<Integer, int[]> rows = new HashMap<>();
+        for (Pixel pixel : pixels) {
+            rows.merge(pixel.getY(), new int[]{pixel.getX(), pixel.getX()},
+                    (a, b) -> new int[]{Math.min(a[0], b[0]), Math.max(a[1], b[1])});
+        }
+        return rows;
+    }
+
+    private static Set<Long> keys(List<Pixel> pixels) {
+        Set<Long> keys = new HashSet<>();
+        for (Pixel pixel : pixels) {
+            keys.add((long) pixel.getX() << 32 | (pixel.getY() & 0xFFFFFFFFL));
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,25 @@
+package by.lupach.drawingeditor.services;
+
+import by.lupach.drawingeditor.models.Pixel;
+import by.lupach.drawingeditor.models.linesAndCurves.DrawingRequest;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RequestCostEstimatorTest {
+    private final RequestCostEstimator estimator = new RequestCostEstimator();
+
+    @Test
+    void curveCostFollowsControlPolygonLength() {
+        DrawingRequest request = new DrawingRequest();
+        request.setCurveType("bezier");
+        // Звенья 300 и 400 пикселей по большей из осей; от положения кривой на холсте оценка не зависит
+        request.setPoints(List.of(new Pixel(0, 0), new Pixel(300, 100), new Pixel(300, 500)));
+        assertEquals(701, estimator.estimate(request));
+
+        request.setPoints(List.of(new Pixel(1000, 600), new Pixel(1300, 700), new Pixel(1300, 1100)));
+        assertEquals(701, estimator.estimate(request));
+    }
+}
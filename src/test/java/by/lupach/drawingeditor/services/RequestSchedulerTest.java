@@ -0,0 +1,160 @@
+package by.lupach.drawingeditor.services;
+
+import by.lupach.drawingeditor.models.CancellationToken;
+import by.lupach.drawingeditor.models.metrics.LaneStats;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RequestSchedulerTest {
+    private static final long HEAVY = 1000;
+
+    // Тяжёлая полоса: один поток и одно место в очереди
+    private final RequestScheduler scheduler = new RequestScheduler(HEAVY, 8, 1, 4, 1, 1);
+
+    @AfterEach
+    void tearDown() {
+        scheduler.destroy();
+    }
+
+    @Test
+    void cheapRequestsRunInCallingThread() {
+        AtomicReference<Thread> thread = new AtomicReference<>();
+        scheduler.submit("s", HEAVY - 1, () -> thread.set(Thread.currentThread()));
+
+        assertSame(Thread.currentThread(), thread.get());
+        assertEquals(1, lane("interactive").getCompleted());
+    }
+
+    @Test
+    void expensiveRequestsRunInHeavyLane() throws InterruptedException {
+        AtomicReference<Thread> thread = new AtomicReference<>();
+        CountDownLatch done = new CountDownLatch(1);
+        scheduler.submit("s", HEAVY, () -> {
+            thread.set(Thread.currentThread());
+            done.countDown();
+        });
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertNotSame(Thread.currentThread(), thread.get());
+    }
+
+    @Test
+    void newerJobOfSameKindCancelsOlder() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicReference<CancellationToken> first = new AtomicReference<>();
+        scheduler.submitCancellable("s", "voronoi", HEAVY, token -> {
+            first.set(token);
+            started.countDown();
+            await(release);
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        CountDownLatch second = new CountDownLatch(1);
+        scheduler.submitCancellable("s", "voronoi", HEAVY, token -> second.countDown());
+
+        assertTrue(first.get().isCancelled());
+        release.countDown();
+        assertTrue(second.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void rejectedJobDoesNotCancelRunningOne() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicReference<CancellationToken> running = new AtomicReference<>();
+        scheduler.submitCancellable("s", "voronoi", HEAVY, token -> {
+            running.set(token);
+            started.countDown();
+            await(release);
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        // Занимает единственное место в очереди
+        scheduler.submit("s", HEAVY, () -> { });
+
+        AtomicInteger ran = new AtomicInteger();
+        assertThrows(RejectedExecutionException.class,
+                () -> scheduler.submitCancellable("s", "voronoi", HEAVY, token -> ran.incrementAndGet()));
+
+        assertFalse(running.get().isCancelled());
+        assertEquals(1, lane("heavy").getRejected());
+        release.countDown();
+        assertEquals(0, ran.get());
+    }
+
+    @Test
+    void previewJobsOfSameKindAreCoalesced() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        scheduler.submitLatest("s", "transform3D", 0, () -> {
+            started.countDown();
+            await(release);
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch last = new CountDownLatch(1);
+        for (int i = 0; i < 10; i++) {
+            scheduler.submitLatest("s", "transform3D", 0, () -> {
+                runs.incrementAndGet();
+                last.countDown();
+            });
+        }
+        release.countDown();
+
+        assertTrue(last.await(5, TimeUnit.SECONDS));
+        assertEquals(1, runs.get());
+        assertEquals(9, lane("preview").getCoalesced());
+    }
+
+    @Test
+    void disconnectCancelsRunningAndDropsQueuedJobs() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicReference<CancellationToken> running = new AtomicReference<>();
+        scheduler.submitCancellable("s", null, HEAVY, token -> {
+            running.set(token);
+            started.countDown();
+            await(release);
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        AtomicInteger queued = new AtomicInteger();
+        scheduler.submitCancellable("s", null, HEAVY, token -> queued.incrementAndGet());
+
+        scheduler.onSessionDisconnect(new SessionDisconnectEvent(this,
+                MessageBuilder.withPayload(new byte[0]).build(), "s", CloseStatus.NORMAL));
+
+        assertTrue(running.get().isCancelled());
+        assertEquals(1, lane("heavy").getCancelled());
+        release.countDown();
+        assertEquals(0, queued.get());
+    }
+
+    private LaneStats lane(String name) {
+        return scheduler.stats().stream().filter(stats -> stats.getLane().equals(name)).findFirst().orElseThrow();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package by.lupach.drawingeditor.models.threeD;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Векторный вариант VertexTransform на Vector API. Собирается только в профиле vector,
+ * VertexTransform загружает его по имени, поэтому без профиля приложение работает со скалярным циклом.
+ */
+final class VectorVertexKernel implements VertexKernel {
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    VectorVertexKernel() {
+    }
+
+    // На платформе без SIMD-регистров для double вектор из одного элемента лишь медленнее скалярного кода
+    @Override
+    public boolean isSupported() {
+        return SPECIES.length() > 1;
+    }
+
+    /**
+     * Преобразует целые векторы вершин диапазона [from, to) и возвращает индекс первой
+     * необработанной вершины — остаток короче вектора досчитывается скалярно.
+     */
+    @Override
+    public int transform(double[] m, VertexArrays in, VertexArrays out, int from, int to) {
+        double[] xs = in.getX(), ys = in.getY(), zs = in.getZ(), ws = in.getW();
+        double[] ox = out.getX(), oy = out.getY(), oz = out.getZ(), ow = out.getW();
+        double m0 = m[0], m1 = m[1], m2 = m[2], m3 = m[3];
+        double m4 = m[4], m5 = m[5], m6 = m[6], m7 = m[7];
+        double m8 = m[8], m9 = m[9], m10 = m[10], m11 = m[11];
+        double m12 = m[12], m13 = m[13], m14 = m[14], m15 = m[15];
+
+        int i = from;
+        int bound = from + SPECIES.loopBound(to - from);
+        for (; i < bound; i += SPECIES.length()) {
+            DoubleVector x = DoubleVector.fromArray(SPECIES, xs, i);
+            DoubleVector y = DoubleVector.fromArray(SPECIES, ys, i);
+            DoubleVector z = DoubleVector.fromArray(SPECIES, zs, i);
+            DoubleVector w = DoubleVector.fromArray(SPECIES, ws, i);
+            DoubleVector rx = row(x, y, z, w, m0, m1, m2, m3);
+            DoubleVector ry = row(x, y, z, w, m4, m5, m6, m7);
+            DoubleVector rz = row(x, y, z, w, m8, m9, m10, m11);
+            DoubleVector rw = row(x, y, z, w, m12, m13, m14, m15);
+            // Деление только там, где w не ноль; в остальных элементах остаётся исходное значение
+            VectorMask<Double> finite = rw.compare(VectorOperators.NE, 0);
+            rx.div(rw, finite).intoArray(ox, i);
+            ry.div(rw, finite).intoArray(oy, i);
+            rz.div(rw, finite).intoArray(oz, i);
+            rw.intoArray(ow, i);
+        }
+        return i;
+    }
+
+    // Тот же порядок сложений, что и в скалярном цикле
+    private static DoubleVector row(DoubleVector x, DoubleVector y, DoubleVector z, DoubleVector w,
+                                    double a, double b, double c, double d) {
+        return x.mul(a).add(y.mul(b)).add(z.mul(c)).add(w.mul(d));
+    }
+}